@@ -0,0 +1,119 @@
+package io.github.vatisteve.utils.image.benchmark;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+/**
+ * BenchmarkCorpus
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Generates reproducible synthetic images so benchmark runs do not depend on files on disk.
+ * <p>      Images are 4:3, contain gradients, shapes and seeded noise, which keeps JPEG/PNG sizes realistic.
+ */
+public final class BenchmarkCorpus {
+
+    private static final long SEED = 0x5EED_1A6EL;
+
+    private BenchmarkCorpus() {}
+
+    /**
+     * @param megapixels    The approximate pixel count in millions
+     * @return              The 4:3 width and height for <code>megapixels</code>
+     */
+    public static int[] dimensions(double megapixels) {
+        int height = (int) Math.round(Math.sqrt(megapixels*1_000_000*3/4));
+        int width = height*4/3;
+        return new int[] {width, height};
+    }
+
+    /**
+     * @param megapixels    The approximate pixel count in millions
+     * @param aspectRatio   The width over the height
+     * @return              The width and height for <code>megapixels</code> at <code>aspectRatio</code>
+     */
+    public static int[] dimensions(double megapixels, double aspectRatio) {
+        int height = (int) Math.max(1, Math.round(Math.sqrt(megapixels*1_000_000/aspectRatio)));
+        int width = (int) Math.max(1, Math.round(height*aspectRatio));
+        return new int[] {width, height};
+    }
+
+    /**
+     * @param width     The image width
+     * @param height    The image height
+     * @param noise     The noise amplitude, 0 to 255
+     * @return          The generated RGB image
+     */
+    public static BufferedImage generate(int width, int height, int noise) {
+        Random random = new Random(SEED ^ ((long) width << 32 | height));
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setPaint(new GradientPaint(0, 0, new Color(30, 60, 120), width, height, new Color(240, 200, 90)));
+        graphics.fillRect(0, 0, width, height);
+        int shapes = 12 + width/200;
+        for (int i = 0; i < shapes; i++) {
+            graphics.setColor(new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256)));
+            int w = 1 + random.nextInt(Math.max(1, width/4));
+            int h = 1 + random.nextInt(Math.max(1, height/4));
+            if (i%2 == 0) {
+                graphics.fillOval(random.nextInt(width), random.nextInt(height), w, h);
+            } else {
+                graphics.fillRect(random.nextInt(width), random.nextInt(height), w, h);
+            }
+        }
+        graphics.dispose();
+        if (noise > 0) {
+            int[] row = new int[width];
+            for (int y = 0; y < height; y++) {
+                image.getRGB(0, y, width, 1, row, 0, width);
+                for (int x = 0; x < width; x++) {
+                    int n = random.nextInt(2*noise + 1) - noise;
+                    int rgb = row[x];
+                    row[x] = clamp((rgb >> 16 & 0xFF) + n) << 16 | clamp((rgb >> 8 & 0xFF) + n) << 8 | clamp((rgb & 0xFF) + n);
+                }
+                image.setRGB(0, y, width, 1, row, 0, width);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * @param megapixels    The approximate pixel count in millions
+     * @param format        The image format name, e.g. <code>jpg</code>, <code>png</code>, <code>gif</code>, <code>bmp</code>
+     * @return              The encoded image bytes
+     * @throws IOException  when the image can not be encoded in <code>format</code>
+     */
+    public static byte[] encoded(double megapixels, String format) throws IOException {
+        int[] size = dimensions(megapixels);
+        return encode(generate(size[0], size[1], 12), format);
+    }
+
+    /**
+     * @param image         The image to encode
+     * @param format        The image format name
+     * @return              The encoded image bytes
+     * @throws IOException  when the image can not be encoded in <code>format</code>
+     */
+    public static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, format, outputStream)) {
+            throw new IOException("No ImageIO writer for format: " + format);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+    }
+
+}
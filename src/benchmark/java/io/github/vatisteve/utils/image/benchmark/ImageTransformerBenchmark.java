@@ -0,0 +1,146 @@
+package io.github.vatisteve.utils.image.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.vatisteve.utils.image.FrameProperties;
+import io.github.vatisteve.utils.image.ImageTransformer;
+import io.github.vatisteve.utils.image.ImageTransformerFactory;
+import io.github.vatisteve.utils.image.ImageTransformerFactory.Transformer;
+import io.github.vatisteve.utils.image.Measure;
+import io.github.vatisteve.utils.image.MimeTypeNotSupportedException;
+import io.github.vatisteve.utils.image.TransformerOptions;
+
+/**
+ * ImageTransformerBenchmark
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Throughput and latency of every {@link ImageTransformer} operation over the {@link BenchmarkCorpus}.
+ * <p>      Run with <code>mvn -Pbenchmark test-compile exec:exec@jmh</code>, allocation rate is reported by
+ *          the <code>-prof gc</code> profiler which is enabled by default through <code>jmh.args</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ImageTransformerBenchmark {
+
+    private static final FrameProperties TARGET = FrameProperties.of(1024, 768, Measure.PIXEL);
+    private static final FrameProperties SQUARE = FrameProperties.of(1024, 1024, Measure.PIXEL);
+    private static final FrameProperties SOURCE_RATIO = FrameProperties.of(1, 1, Measure.RATIO);
+    private static final List<FrameProperties> RENDITIONS = Arrays.asList(
+            FrameProperties.of(2048, 2048, Measure.PIXEL), FrameProperties.of(1024, 1024, Measure.PIXEL),
+            FrameProperties.of(512, 512, Measure.PIXEL), FrameProperties.of(256, 256, Measure.PIXEL),
+            FrameProperties.of(128, 128, Measure.PIXEL));
+
+    @Param({"0.3", "2", "12", "24", "50"})
+    public double megapixels;
+
+    @Param({"jpg", "png", "gif", "bmp"})
+    public String format;
+
+    @Param({"MARVIN", "JAVA2D"})
+    public Transformer engine;
+
+    private byte[] source;
+    private ImageTransformer transformer;
+    private ImageTransformer reencoding;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, MimeTypeNotSupportedException {
+        source = BenchmarkCorpus.encoded(megapixels, format);
+        transformer = newTransformer(TransformerOptions.defaults());
+        reencoding = newTransformer(TransformerOptions.defaults().forceReencode(true));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        transformer.close();
+        reencoding.close();
+    }
+
+    private ImageTransformer newTransformer(TransformerOptions options) throws IOException, MimeTypeNotSupportedException {
+        return ImageTransformerFactory.buildImageTransformer(engine, new ByteArrayInputStream(source), format, options);
+    }
+
+    /**
+     * Pixels are decoded lazily, so this decodes through a re-encoded {@link Measure#RATIO} resize,
+     * subtract {@link #encode()} to get the decode share.
+     */
+    @Benchmark
+    public ByteArrayOutputStream decode() throws IOException, MimeTypeNotSupportedException {
+        try (ImageTransformer fresh = newTransformer(TransformerOptions.defaults().forceReencode(true))) {
+            return fresh.resize(SOURCE_RATIO);
+        }
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream resize() throws IOException {
+        return transformer.resize(TARGET);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream scaleByWidth() throws IOException {
+        return transformer.scaleByWidth(TARGET);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream scaleDown() throws IOException {
+        return transformer.scaleDown(SQUARE);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream scaleDownWithBackground() throws IOException {
+        return transformer.scaleDownWithBackground(SQUARE);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream scaleUpAndCrop() throws IOException {
+        return transformer.scaleUpAndCrop(SQUARE);
+    }
+
+    @Benchmark
+    public Map<String, ByteArrayOutputStream> renditions() throws IOException {
+        return transformer.renditions(RENDITIONS);
+    }
+
+    /**
+     * A re-encoded {@link Measure#RATIO} resize keeps the source pixels, so this measures only the encode step.
+     */
+    @Benchmark
+    public ByteArrayOutputStream encode() throws IOException {
+        return reencoding.resize(SOURCE_RATIO);
+    }
+
+    /**
+     * A {@link Measure#RATIO} resize to the source format returns the original bytes.
+     */
+    @Benchmark
+    public ByteArrayOutputStream passThrough() throws IOException {
+        return transformer.resize(SOURCE_RATIO);
+    }
+
+}
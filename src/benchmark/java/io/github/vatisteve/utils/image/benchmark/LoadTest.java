@@ -0,0 +1,352 @@
+package io.github.vatisteve.utils.image.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.github.vatisteve.utils.image.FrameProperties;
+import io.github.vatisteve.utils.image.ImageTransformer;
+import io.github.vatisteve.utils.image.ImageTransformerFactory;
+import io.github.vatisteve.utils.image.ImageTransformerFactory.Transformer;
+import io.github.vatisteve.utils.image.Measure;
+import io.github.vatisteve.utils.image.TransformerOptions;
+
+/**
+ * LoadTest
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Load and soak test: N threads build a transformer from the factory for a random image of a seeded
+ *          {@link BenchmarkCorpus} mix and run one operation on it, back to back, for a fixed duration.
+ * <p>      Operations run one after the other, each with its own warmup, so the GC pauses and the peak heap of a
+ *          phase belong to one operation type. The report is JSON, to compare runs between versions.
+ * <p>      Run with <code>mvn -Pbenchmark test-compile exec:exec@loadtest</code>, arguments go through
+ *          <code>-Dloadtest.args="--threads 8 --duration 300 --output load.json"</code>:
+ *          <code>--threads</code>, <code>--duration</code> and <code>--warmup</code> in seconds,
+ *          <code>--engine</code>, <code>--images</code> (the corpus size), <code>--seed</code>,
+ *          <code>--operations</code> (comma separated) and <code>--output</code>.
+ */
+public final class LoadTest {
+
+    private static final double[] MEGAPIXELS = {0.3, 1, 2, 5, 12};
+    private static final double[] ASPECT_RATIOS = {4.0/3, 3.0/4, 16.0/9, 1, 3};
+    private static final String[] FORMATS = {"jpg", "jpg", "png", "gif", "bmp"};
+    private static final int[] NOISE = {0, 12, 40};
+
+    private static final FrameProperties TARGET = FrameProperties.of(1024, 768, Measure.PIXEL);
+    private static final FrameProperties SQUARE = FrameProperties.of(512, 512, Measure.PIXEL);
+    private static final FrameProperties THUMBNAIL = FrameProperties.of(256, 256, Measure.PIXEL);
+    private static final List<FrameProperties> RENDITIONS = Arrays.asList(
+            FrameProperties.of(1600, 1600, Measure.PIXEL),
+            FrameProperties.of(800, 800, Measure.PIXEL),
+            FrameProperties.of(400, 400, Measure.PIXEL), THUMBNAIL);
+
+    /**
+     * The operation types, each run in its own phase
+     */
+    enum Operation {
+        RESIZE {
+            @Override
+            void apply(ImageTransformer transformer) throws IOException {
+                transformer.resize(TARGET);
+            }
+        },
+        SCALE_DOWN {
+            @Override
+            void apply(ImageTransformer transformer) throws IOException {
+                transformer.scaleDown(TARGET);
+            }
+        },
+        THUMBNAIL_PADDED {
+            @Override
+            void apply(ImageTransformer transformer) throws IOException {
+                transformer.scaleDownWithBackground(THUMBNAIL);
+            }
+        },
+        CROP {
+            @Override
+            void apply(ImageTransformer transformer) throws IOException {
+                transformer.scaleUpAndCrop(SQUARE);
+            }
+        },
+        RENDITIONS {
+            @Override
+            void apply(ImageTransformer transformer) throws IOException {
+                transformer.renditions(LoadTest.RENDITIONS);
+            }
+        };
+
+        abstract void apply(ImageTransformer transformer) throws IOException;
+    }
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        long duration = 30;
+        long warmup = 5;
+        Transformer engine = Transformer.MARVIN;
+        int images = 24;
+        long seed = 42;
+        List<Operation> operations = Arrays.asList(Operation.values());
+        String output = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--duration": duration = Long.parseLong(value); break;
+                case "--warmup": warmup = Long.parseLong(value); break;
+                case "--engine": engine = Transformer.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                case "--images": images = Integer.parseInt(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--operations":
+                    operations = new ArrayList<>();
+                    for (String name : value.split(",")) {
+                        operations.add(Operation.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+                    }
+                    break;
+                case "--output": output = value; break;
+                default: throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        List<CorpusImage> corpus = corpus(images, seed);
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"engine\": \"").append(engine).append("\",\n")
+                .append("  \"java\": \"").append(System.getProperty("java.version")).append("\",\n")
+                .append("  \"cores\": ").append(Runtime.getRuntime().availableProcessors()).append(",\n")
+                .append("  \"maxHeapBytes\": ").append(Runtime.getRuntime().maxMemory()).append(",\n")
+                .append("  \"threads\": ").append(threads).append(",\n")
+                .append("  \"durationSeconds\": ").append(duration).append(",\n")
+                .append("  \"warmupSeconds\": ").append(warmup).append(",\n")
+                .append("  \"seed\": ").append(seed).append(",\n")
+                .append("  \"corpus\": [");
+        for (int i = 0; i < corpus.size(); i++) {
+            json.append(i == 0 ? "\n" : ",\n").append("    ").append(corpus.get(i).toJson());
+        }
+        json.append("\n  ],\n  \"operations\": {");
+        for (int i = 0; i < operations.size(); i++) {
+            Operation operation = operations.get(i);
+            System.err.println("Warming up " + operation);
+            run(operation, engine, corpus, threads, warmup, seed);
+            System.err.println("Measuring " + operation);
+            Phase phase = run(operation, engine, corpus, threads, duration, seed + i);
+            json.append(i == 0 ? "\n" : ",\n").append("    \"").append(operation).append("\": ")
+                    .append(phase.toJson());
+        }
+        json.append("\n  }\n}\n");
+
+        if (output != null) {
+            Files.write(Paths.get(output), json.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        System.out.print(json);
+    }
+
+    /**
+     * @return  The corpus, the same for the same <code>seed</code> and <code>images</code>
+     */
+    private static List<CorpusImage> corpus(int images, long seed) throws IOException {
+        Random random = new Random(seed);
+        List<CorpusImage> corpus = new ArrayList<>(images);
+        for (int i = 0; i < images; i++) {
+            double megapixels = MEGAPIXELS[random.nextInt(MEGAPIXELS.length)];
+            double aspectRatio = ASPECT_RATIOS[random.nextInt(ASPECT_RATIOS.length)];
+            String format = FORMATS[random.nextInt(FORMATS.length)];
+            int noise = NOISE[random.nextInt(NOISE.length)];
+            int[] size = BenchmarkCorpus.dimensions(megapixels, aspectRatio);
+            byte[] data = BenchmarkCorpus.encode(BenchmarkCorpus.generate(size[0], size[1], noise), format);
+            corpus.add(new CorpusImage(size[0], size[1], format, noise, data));
+        }
+        return corpus;
+    }
+
+    private static Phase run(Operation operation, Transformer engine, List<CorpusImage> corpus, int threads,
+            long seconds, long seed) throws InterruptedException {
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        long gcTime = gcTime();
+        long gcCount = gcCount();
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        Worker[] workers = new Worker[threads];
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(operation, engine, corpus, deadline, new Random(seed*31 + i), done);
+            Thread thread = new Thread(workers[i], "load-" + operation + "-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+        int count = 0;
+        long errors = 0;
+        for (Worker worker : workers) {
+            count += worker.count;
+            errors += worker.errors;
+        }
+        long[] latencies = new long[count];
+        int offset = 0;
+        for (Worker worker : workers) {
+            System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+            offset += worker.count;
+        }
+        Arrays.sort(latencies);
+        return new Phase(latencies, errors, elapsed, gcTime() - gcTime, gcCount() - gcCount, peakHeap);
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, collector.getCollectionTime());
+        }
+        return time;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static final class Worker implements Runnable {
+
+        private final Operation operation;
+        private final Transformer engine;
+        private final List<CorpusImage> corpus;
+        private final long deadline;
+        private final Random random;
+        private final CountDownLatch done;
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        Worker(Operation operation, Transformer engine, List<CorpusImage> corpus, long deadline, Random random,
+                CountDownLatch done) {
+            this.operation = operation;
+            this.engine = engine;
+            this.corpus = corpus;
+            this.deadline = deadline;
+            this.random = random;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (System.nanoTime() < deadline) {
+                    CorpusImage image = corpus.get(random.nextInt(corpus.size()));
+                    long start = System.nanoTime();
+                    try (ImageTransformer transformer = ImageTransformerFactory.buildImageTransformer(engine,
+                            new ByteArrayInputStream(image.data), image.format, TransformerOptions.defaults())) {
+                        operation.apply(transformer);
+                    } catch (Exception e) {
+                        errors++;
+                        continue;
+                    }
+                    if (count == latencies.length) latencies = Arrays.copyOf(latencies, count*2);
+                    latencies[count++] = System.nanoTime() - start;
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+    }
+
+    private static final class CorpusImage {
+
+        private final int width;
+        private final int height;
+        private final String format;
+        private final int noise;
+        private final byte[] data;
+
+        CorpusImage(int width, int height, String format, int noise, byte[] data) {
+            this.width = width;
+            this.height = height;
+            this.format = format;
+            this.noise = noise;
+            this.data = data;
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT, "{\"width\": %d, \"height\": %d, \"format\": \"%s\", \"noise\": %d, "
+                    + "\"bytes\": %d}", width, height, format, noise, data.length);
+        }
+    }
+
+    private static final class Phase {
+
+        private final long[] latencies;
+        private final long errors;
+        private final long elapsedNanos;
+        private final long gcPauseMillis;
+        private final long gcCount;
+        private final long peakHeapBytes;
+
+        Phase(long[] latencies, long errors, long elapsedNanos, long gcPauseMillis, long gcCount,
+                long peakHeapBytes) {
+            this.latencies = latencies;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.gcPauseMillis = gcPauseMillis;
+            this.gcCount = gcCount;
+            this.peakHeapBytes = peakHeapBytes;
+        }
+
+        /**
+         * Nearest-rank percentile of the sorted latencies, in milliseconds
+         */
+        private double percentile(double percentile) {
+            if (latencies.length == 0) return 0;
+            int rank = (int) Math.ceil(percentile/100*latencies.length);
+            return latencies[Math.max(0, Math.min(latencies.length - 1, rank - 1))]/1e6;
+        }
+
+        private double mean() {
+            long sum = 0;
+            for (long latency : latencies) {
+                sum += latency;
+            }
+            return latencies.length == 0 ? 0 : sum/1e6/latencies.length;
+        }
+
+        String toJson() {
+            // GC time is the collectors' accumulated time, concurrent collectors report more than the pauses
+            return String.format(Locale.ROOT, "{\"count\": %d, \"errors\": %d, \"throughputPerSecond\": %.3f, "
+                    + "\"latencyMillis\": {\"p50\": %.3f, \"p99\": %.3f, \"p999\": %.3f, \"max\": %.3f, "
+                    + "\"mean\": %.3f}, \"gcPauseMillis\": %d, \"gcCount\": %d, \"peakHeapBytes\": %d}",
+                    latencies.length, errors, latencies.length*1e9/elapsedNanos, percentile(50),
+                    percentile(99), percentile(99.9), percentile(100), mean(), gcPauseMillis, gcCount,
+                    peakHeapBytes);
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package io.github.vatisteve.utils.image.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.vatisteve.utils.image.ResampleFilter;
+import io.github.vatisteve.utils.image.impl.Resampler;
+import marvin.image.MarvinImage;
+import marvinplugins.MarvinPluginCollection;
+
+/**
+ * ResamplerBenchmark
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      The in-house {@link Resampler} filters against <code>MarvinPluginCollection.scale</code>, pixels only
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ResamplerBenchmark {
+
+    @Param({"2", "12", "50"})
+    public double megapixels;
+
+    @Param({"NEAREST", "BILINEAR", "BICUBIC", "LANCZOS3"})
+    public ResampleFilter filter;
+
+    private BufferedImage image;
+    private MarvinImage marvinImage;
+    private Resampler resampler;
+    private int width;
+    private int height;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] size = BenchmarkCorpus.dimensions(megapixels);
+        image = BenchmarkCorpus.generate(size[0], size[1], 12);
+        marvinImage = new MarvinImage(image);
+        resampler = new Resampler(filter);
+        width = 1024;
+        height = (int) Math.round((double) width*size[1]/size[0]);
+    }
+
+    @Benchmark
+    public BufferedImage resampler() {
+        return resampler.resample(image, width, height);
+    }
+
+    @Benchmark
+    public MarvinImage marvin() {
+        MarvinImage imgOut = new MarvinImage();
+        MarvinPluginCollection.scale(marvinImage, imgOut, width, height);
+        return imgOut;
+    }
+
+}
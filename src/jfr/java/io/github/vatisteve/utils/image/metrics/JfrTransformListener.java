@@ -0,0 +1,98 @@
+package io.github.vatisteve.utils.image.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JfrTransformListener
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Commits one Java Flight Recorder event per stage, e.g. <code>io.github.vatisteve.image.Decode</code>.
+ * <p>      Requires a runtime shipping <code>jdk.jfr</code> (Java 11, 8u262), the JFR classes are only loaded
+ *          when this listener is created. Stages are reported once completed, their wall time is the
+ *          <code>wallTime</code> field rather than the event duration.
+ * <p>      <code>jdk.jfr</code> is not part of the Java 8 API, this class lives in the <code>src/jfr/java</code>
+ *          source set of the <code>jfr</code> profile, active when building on JDK 11 or later. A build with
+ *          <code>--release 8</code> leaves it out with <code>-P!jfr</code>.
+ */
+public class JfrTransformListener implements TransformListener {
+
+    @Override
+    public void onStage(TransformEvent event) {
+        StageEvent jfrEvent = newEvent(event.getStage());
+        if (!jfrEvent.isEnabled()) return;
+        jfrEvent.format = event.getFormatName();
+        jfrEvent.wallTime = event.getNanos();
+        jfrEvent.inputPixels = event.getInputPixels();
+        jfrEvent.outputPixels = event.getOutputPixels();
+        jfrEvent.bytes = event.getBytes();
+        jfrEvent.commit();
+    }
+
+    private static StageEvent newEvent(TransformStage stage) {
+        switch (stage) {
+            case DECODE:
+                return new DecodeEvent();
+            case RESAMPLE:
+                return new ResampleEvent();
+            case COMPOSITE:
+                return new CompositeEvent();
+            case CROP:
+                return new CropEvent();
+            default:
+                return new EncodeEvent();
+        }
+    }
+
+    @Category({"Image Util", "Transform"})
+    @StackTrace(false)
+    abstract static class StageEvent extends Event {
+
+        @Label("Format")
+        String format;
+
+        @Label("Wall Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long wallTime;
+
+        @Label("Input Pixels")
+        long inputPixels;
+
+        @Label("Output Pixels")
+        long outputPixels;
+
+        @Label("Encoded Bytes")
+        @Description("-1 for the pixel stages")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("io.github.vatisteve.image.Decode")
+    @Label("Image Decode")
+    static class DecodeEvent extends StageEvent {}
+
+    @Name("io.github.vatisteve.image.Resample")
+    @Label("Image Resample")
+    static class ResampleEvent extends StageEvent {}
+
+    @Name("io.github.vatisteve.image.Composite")
+    @Label("Image Composite")
+    static class CompositeEvent extends StageEvent {}
+
+    @Name("io.github.vatisteve.image.Crop")
+    @Label("Image Crop")
+    static class CropEvent extends StageEvent {}
+
+    @Name("io.github.vatisteve.image.Encode")
+    @Label("Image Encode")
+    static class EncodeEvent extends StageEvent {}
+
+}
@@ -0,0 +1,97 @@
+package io.github.vatisteve.utils.image;
+
+import java.time.Duration;
+
+/**
+ * CancellationToken
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Stops a transformation from another thread or once a deadline has passed, e.g.
+ *          <code>TransformerOptions.defaults().cancellationToken(token)</code> then <code>token.cancel()</code>.
+ * <p>      Cancellation is cooperative: decodes and encodes are aborted through the progress listeners of their
+ *          ImageIO reader or writer, the in-house resampler checks the token between row bands. The engine
+ *          scaling of Marvin can not be interrupted, the token is checked before and after it.
+ *          The operation then throws a {@link TransformCancelledException}.
+ * <p>      Thread-safe. A token shared by several transformers cancels all of them.
+ */
+public final class CancellationToken {
+
+    /**
+     * The token never cancelled, it can not be {@link #cancel() cancelled} either
+     */
+    public static final CancellationToken NONE = new CancellationToken(null, 0, false);
+
+    private final CancellationToken parent;
+    private final long deadline;
+    private final boolean timed;
+    private volatile boolean cancelled;
+
+    /**
+     * A token without deadline, cancelled by {@link #cancel()} only
+     */
+    public CancellationToken() {
+        this(null, 0, false);
+    }
+
+    private CancellationToken(CancellationToken parent, long deadline, boolean timed) {
+        this.parent = parent;
+        this.deadline = deadline;
+        this.timed = timed;
+    }
+
+    /**
+     * @param timeout   The time left from now, <code>null</code> for none
+     * @return          A token cancelled with this one or once <code>timeout</code> has elapsed
+     */
+    public CancellationToken withTimeout(Duration timeout) {
+        if (timeout == null) return this;
+        long nanos;
+        try {
+            nanos = timeout.toNanos();
+        } catch (ArithmeticException e) {
+            // hundreds of years, never reached
+            return this;
+        }
+        return new CancellationToken(this == NONE ? null : this, System.nanoTime() + nanos, true);
+    }
+
+    /**
+     * Cancels the transformations watching this token and the ones derived from it
+     */
+    public void cancel() {
+        if (this == NONE) throw new UnsupportedOperationException("The NONE token can not be cancelled");
+        cancelled = true;
+    }
+
+    /**
+     * @return  <code>true</code> once cancelled, by this token, its deadline or the token it derives from
+     */
+    public boolean isCancelled() {
+        return cancelled || isExpired() || parent != null && parent.isCancelled();
+    }
+
+    /**
+     * @return  <code>true</code> once the deadline of this token, or of the token it derives from, has passed
+     */
+    public boolean isExpired() {
+        return timed && System.nanoTime() - deadline >= 0 || parent != null && parent.isExpired();
+    }
+
+    /**
+     * @throws TransformCancelledException when this token is cancelled
+     */
+    public void throwIfCancelled() throws TransformCancelledException {
+        if (isCancelled()) {
+            throw new TransformCancelledException(isExpired() ? "The transformation deadline was exceeded"
+                    : "The transformation was cancelled");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CancellationToken[cancelled=" + isCancelled() + ", expired=" + isExpired() + "]";
+    }
+
+}
@@ -0,0 +1,21 @@
+package io.github.vatisteve.utils.image;
+
+/**
+ * CropStrategy
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Where a crop smaller than the image is placed
+ */
+public enum CropStrategy {
+
+    /** The centre of the image, no analysis */
+    CENTER,
+    /**
+     * The window holding the most detail: an edge energy map is computed on a proxy of about 256 pixels
+     * and the window with the highest energy is kept, ties going to the most central one
+     */
+    ATTENTION
+
+}
@@ -0,0 +1,196 @@
+package io.github.vatisteve.utils.image;
+
+/**
+ * EncodeOptions
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Writer parameters of the encoded output, the defaults keep the ImageIO writer defaults
+ */
+public class EncodeOptions {
+
+    private Float quality;
+    private boolean progressive;
+    private Integer pngCompressionLevel;
+    private boolean stripMetadata;
+    private Integer maxBytes;
+    private float minQuality = 0.2f;
+    private boolean stepDown;
+
+    /**
+     * @return  The default options
+     */
+    public static EncodeOptions defaults() {
+        return new EncodeOptions();
+    }
+
+    /**
+     * @return  The JPEG quality, <code>null</code> for the writer default (0.75)
+     */
+    public Float getQuality() {
+        return quality;
+    }
+
+    /**
+     * @param quality   The JPEG quality from <code>0</code> (smallest) to <code>1</code> (best),
+     *                  <code>null</code> for the writer default
+     * @return          this options
+     */
+    public EncodeOptions quality(Float quality) {
+        if (quality != null && (quality < 0 || quality > 1)) {
+            throw new IllegalArgumentException("The quality must be between 0 and 1: " + quality);
+        }
+        this.quality = quality;
+        return this;
+    }
+
+    /**
+     * @return  <code>true</code> for progressive JPEG and interlaced PNG
+     */
+    public boolean isProgressive() {
+        return progressive;
+    }
+
+    /**
+     * @param progressive   <code>true</code> for progressive JPEG and interlaced PNG, when the writer supports it
+     * @return              this options
+     */
+    public EncodeOptions progressive(boolean progressive) {
+        this.progressive = progressive;
+        return this;
+    }
+
+    /**
+     * @return  The PNG deflate level, <code>null</code> for the writer default
+     */
+    public Integer getPngCompressionLevel() {
+        return pngCompressionLevel;
+    }
+
+    /**
+     * The JDK PNG writer accepts a level from Java 9, older writers ignore it.
+     *
+     * @param pngCompressionLevel   The PNG deflate level from <code>0</code> (fastest) to <code>9</code> (smallest),
+     *                              <code>null</code> for the writer default
+     * @return                      this options
+     */
+    public EncodeOptions pngCompressionLevel(Integer pngCompressionLevel) {
+        if (pngCompressionLevel != null && (pngCompressionLevel < 0 || pngCompressionLevel > 9)) {
+            throw new IllegalArgumentException("The PNG compression level must be between 0 and 9: " + pngCompressionLevel);
+        }
+        this.pngCompressionLevel = pngCompressionLevel;
+        return this;
+    }
+
+    /**
+     * @return  <code>true</code> when the output never carries the source metadata
+     */
+    public boolean isStripMetadata() {
+        return stripMetadata;
+    }
+
+    /**
+     * Encoded images never carry the source metadata, only untouched sources returned as is keep it.
+     * Stripping therefore always encodes, EXIF, GPS and color profiles included are dropped.
+     *
+     * @param stripMetadata     <code>true</code> to never return the source bytes as is
+     * @return                  this options
+     */
+    public EncodeOptions stripMetadata(boolean stripMetadata) {
+        this.stripMetadata = stripMetadata;
+        return this;
+    }
+
+    /**
+     * @return  The largest encoded size accepted, <code>null</code> for no limit
+     */
+    public Integer getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Encodes still images under a byte budget, disabled by default.
+     * <p>      JPEG outputs search the highest quality that fits, from {@link #getMinQuality()} up to the
+     *          {@link #getQuality() quality} or the writer default. The first try is seeded from the bits per pixel
+     *          the budget allows, the next ones from the sizes measured, so a few encodes of the same raster
+     *          usually do. A try is cut as soon as it exceeds the budget.
+     *          Other formats have no quality to lower, they are only {@link #stepDown(boolean) stepped down}.
+     * <p>      An untouched source smaller than the budget is still returned as is. Animations are not searched,
+     *          they fail once written when over budget.
+     *
+     * @param maxBytes  The largest encoded size accepted, <code>null</code> for no limit
+     * @return          this options
+     * @see             io.github.vatisteve.utils.image.OutputTooLargeException
+     */
+    public EncodeOptions maxBytes(Integer maxBytes) {
+        if (maxBytes != null && maxBytes <= 0) throw new IllegalArgumentException("The max bytes must be positive");
+        this.maxBytes = maxBytes;
+        return this;
+    }
+
+    /**
+     * @return  The lowest JPEG quality tried to fit {@link #getMaxBytes()}
+     */
+    public float getMinQuality() {
+        return minQuality;
+    }
+
+    /**
+     * @param minQuality    The lowest JPEG quality tried to fit {@link #getMaxBytes()}, <code>0.2</code> by default
+     * @return              this options
+     */
+    public EncodeOptions minQuality(float minQuality) {
+        if (minQuality < 0 || minQuality > 1) {
+            throw new IllegalArgumentException("The min quality must be between 0 and 1: " + minQuality);
+        }
+        this.minQuality = minQuality;
+        return this;
+    }
+
+    /**
+     * @return  <code>true</code> when the dimensions may shrink to fit {@link #getMaxBytes()}
+     */
+    public boolean isStepDown() {
+        return stepDown;
+    }
+
+    /**
+     * Shrinks the image when even the {@link #getMinQuality() min quality} exceeds {@link #getMaxBytes()},
+     * disabled by default. Each step resamples the rendered raster to the area the budget should allow,
+     * the output is then smaller than the frame asked for.
+     *
+     * @param stepDown  <code>true</code> to shrink the dimensions rather than fail
+     * @return          this options
+     */
+    public EncodeOptions stepDown(boolean stepDown) {
+        this.stepDown = stepDown;
+        return this;
+    }
+
+    /**
+     * @return  <code>true</code> when no writer parameter differs from the writer defaults
+     */
+    public boolean isWriterDefault() {
+        return quality == null && !progressive && pngCompressionLevel == null;
+    }
+
+    /**
+     * @return  <code>true</code> when the output is the one of the calls without options: writer defaults, source
+     *          metadata kept on the sources returned as is and no byte budget
+     */
+    public boolean isOutputDefault() {
+        return isWriterDefault() && !stripMetadata && maxBytes == null;
+    }
+
+    /**
+     * Lists every option affecting the output, caches use it as part of their keys.
+     */
+    @Override
+    public String toString() {
+        return "EncodeOptions[quality=" + quality + ", progressive=" + progressive + ", pngCompressionLevel="
+                + pngCompressionLevel + ", stripMetadata=" + stripMetadata + ", maxBytes=" + maxBytes
+                + ", minQuality=" + minQuality + ", stepDown=" + stepDown + "]";
+    }
+
+}
@@ -0,0 +1,58 @@
+package io.github.vatisteve.utils.image;
+
+import java.util.Objects;
+
+/**
+ * Frame
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      The immutable {@link FrameProperties} of {@link FrameProperties#of(int, int, Measure)}.
+ */
+final class Frame implements FrameProperties {
+
+    private final int width;
+    private final int height;
+    private final Measure measure;
+
+    Frame(int width, int height, Measure measure) {
+        this.width = width;
+        this.height = height;
+        this.measure = Objects.requireNonNull(measure, "measure");
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public Measure getMeasure() {
+        return measure;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Frame)) return false;
+        Frame frame = (Frame) o;
+        return width == frame.width && height == frame.height && measure == frame.measure;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(width, height, measure);
+    }
+
+    @Override
+    public String toString() {
+        return width + (measure == Measure.RATIO ? ":" : "x") + height;
+    }
+
+}
@@ -6,4 +6,14 @@ public interface FrameProperties {
     int getHeight();
     Measure getMeasure();
 
+    /**
+     * @param width     The frame width
+     * @param height    The frame height
+     * @param measure   {@link Measure#PIXEL} for a size, {@link Measure#RATIO} for an aspect ratio
+     * @return          An immutable frame
+     */
+    static FrameProperties of(int width, int height, Measure measure) {
+        return new Frame(width, height, measure);
+    }
+
 }
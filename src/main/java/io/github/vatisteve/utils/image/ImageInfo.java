@@ -0,0 +1,75 @@
+package io.github.vatisteve.utils.image;
+
+/**
+ * ImageInfo
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      What the image header tells without decoding any pixel
+ */
+public final class ImageInfo {
+
+    private final int width;
+    private final int height;
+    private final String formatName;
+    private final int orientation;
+
+    /**
+     * @param width         The stored width
+     * @param height        The stored height
+     * @param formatName    The format name of the ImageIO reader, e.g. <code>JPEG</code>, <code>png</code>
+     * @param orientation   The EXIF orientation, 1 to 8
+     */
+    public ImageInfo(int width, int height, String formatName, int orientation) {
+        this.width = width;
+        this.height = height;
+        this.formatName = formatName;
+        this.orientation = orientation < 1 || orientation > 8 ? 1 : orientation;
+    }
+
+    /**
+     * @return  The width as stored in the file, before any EXIF orientation
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return  The height as stored in the file, before any EXIF orientation
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    public String getFormatName() {
+        return formatName;
+    }
+
+    /**
+     * @return  The EXIF orientation, 1 when the image is stored upright or has no EXIF data
+     */
+    public int getOrientation() {
+        return orientation;
+    }
+
+    /**
+     * @return  <code>true</code> when the EXIF orientation swaps width and height (5 to 8)
+     */
+    public boolean isTransposed() {
+        return orientation >= 5;
+    }
+
+    /**
+     * @return  The number of pixels a full decode produces
+     */
+    public long getPixels() {
+        return (long) width*height;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ImageInfo[%s %dx%d orientation=%d]", formatName, width, height, orientation);
+    }
+
+}
@@ -0,0 +1,36 @@
+package io.github.vatisteve.utils.image;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * ImageStreams
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Stream helpers shared by the transformers that keep the encoded source in memory.
+ */
+public final class ImageStreams {
+
+    private ImageStreams() {}
+
+    /**
+     * Reads the stream to its end, without closing it
+     *
+     * @param inputStream   The encoded image
+     * @return              Every byte left in the stream
+     * @throws IOException  when the stream fails
+     */
+    public static byte[] readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(Math.max(8192, inputStream.available()));
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+
+}
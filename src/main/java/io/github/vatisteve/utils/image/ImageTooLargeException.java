@@ -0,0 +1,32 @@
+package io.github.vatisteve.utils.image;
+
+import java.io.IOException;
+
+/**
+ * Thrown before any pixel is decoded when a transformation would touch more pixels than
+ * {@link TransformerOptions#maxPixels(long)}
+ */
+public class ImageTooLargeException extends IOException {
+
+    private static final long serialVersionUID = -3470214838592407117L;
+
+    private final long pixels;
+    private final long maxPixels;
+
+    public ImageTooLargeException(long pixels, long maxPixels) {
+        super(String.format("The transformation needs %d pixels, more than the %d allowed", pixels, maxPixels));
+        this.pixels = pixels;
+        this.maxPixels = maxPixels;
+    }
+
+    /**
+     * @return  The estimated pixels decoded and written
+     */
+    public long getPixels() {
+        return pixels;
+    }
+
+    public long getMaxPixels() {
+        return maxPixels;
+    }
+}
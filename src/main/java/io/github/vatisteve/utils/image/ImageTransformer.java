@@ -4,6 +4,12 @@ import java.awt.Color;
 import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * ImageTransformer
@@ -15,6 +21,11 @@ import java.io.IOException;
  */
 public interface ImageTransformer extends Closeable {
 
+    /**
+     * @return          A new {@link TransformPlan} of this image, its steps are fused and run on encode
+     */
+    TransformPlan plan();
+
     /**
      * @param frame      The {@link FrameProperties} with specific expected width and height after resizing
      * @return          {@link ByteArrayOutputStream}
@@ -156,4 +167,401 @@ public interface ImageTransformer extends Closeable {
      */
     ByteArrayOutputStream scaleUpAndCrop(int width, int height) throws IOException;
 
+    // Streaming variants: the image is encoded straight to the destination, the stream or channel is not closed.
+
+    /**
+     * @param frame     The {@link FrameProperties} with specific expected width and height after resizing
+     * <p>              Same as {@link #resize(FrameProperties)}
+     * @param outputStream  The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     */
+    default void resize(FrameProperties frame, OutputStream outputStream) throws IOException {
+        resize(frame).writeTo(outputStream);
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} with specific expected width and height after resizing
+     * <p>              Same as {@link #resize(FrameProperties)}
+     * @param channel   The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     */
+    default void resize(FrameProperties frame, WritableByteChannel channel) throws IOException {
+        resize(frame, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has specific width
+     * <p>              Same as {@link #scaleByWidth(FrameProperties)}
+     * @param outputStream  The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     */
+    default void scaleByWidth(FrameProperties frame, OutputStream outputStream) throws IOException {
+        scaleByWidth(frame).writeTo(outputStream);
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has specific width
+     * <p>              Same as {@link #scaleByWidth(FrameProperties)}
+     * @param channel   The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     */
+    default void scaleByWidth(FrameProperties frame, WritableByteChannel channel) throws IOException {
+        scaleByWidth(frame, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has specific height
+     * <p>              Same as {@link #scaleByHeight(FrameProperties)}
+     * @param outputStream  The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     */
+    default void scaleByHeight(FrameProperties frame, OutputStream outputStream) throws IOException {
+        scaleByHeight(frame).writeTo(outputStream);
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has specific height
+     * <p>              Same as {@link #scaleByHeight(FrameProperties)}
+     * @param channel   The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     */
+    default void scaleByHeight(FrameProperties frame, WritableByteChannel channel) throws IOException {
+        scaleByHeight(frame, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has width and height
+     * <p>              Same as {@link #scaleDown(FrameProperties)}
+     * @param outputStream  The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     */
+    default void scaleDown(FrameProperties frame, OutputStream outputStream) throws IOException {
+        scaleDown(frame).writeTo(outputStream);
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has width and height
+     * <p>              Same as {@link #scaleDown(FrameProperties)}
+     * @param channel   The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     */
+    default void scaleDown(FrameProperties frame, WritableByteChannel channel) throws IOException {
+        scaleDown(frame, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has width and height
+     * <p>              Same as {@link #scaleDownWithBackground(FrameProperties)}
+     * @param outputStream  The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     */
+    default void scaleDownWithBackground(FrameProperties frame, OutputStream outputStream) throws IOException {
+        scaleDownWithBackground(frame).writeTo(outputStream);
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has width and height
+     * <p>              Same as {@link #scaleDownWithBackground(FrameProperties)}
+     * @param channel   The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     */
+    default void scaleDownWithBackground(FrameProperties frame, WritableByteChannel channel) throws IOException {
+        scaleDownWithBackground(frame, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has width and height
+     * <p>              Same as {@link #scaleDownWithBackground(FrameProperties, Color)}
+     * @param bgColor   The background color, use {@link Color}
+     * @param outputStream  The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     */
+    default void scaleDownWithBackground(FrameProperties frame, Color bgColor, OutputStream outputStream) throws IOException {
+        scaleDownWithBackground(frame, bgColor).writeTo(outputStream);
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has width and height
+     * <p>              Same as {@link #scaleDownWithBackground(FrameProperties, Color)}
+     * @param bgColor   The background color, use {@link Color}
+     * @param channel   The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     */
+    default void scaleDownWithBackground(FrameProperties frame, Color bgColor, WritableByteChannel channel) throws IOException {
+        scaleDownWithBackground(frame, bgColor, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has width and height
+     * <p>              Same as {@link #scaleUp(FrameProperties)}
+     * @param outputStream  The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     */
+    default void scaleUp(FrameProperties frame, OutputStream outputStream) throws IOException {
+        scaleUp(frame).writeTo(outputStream);
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has width and height
+     * <p>              Same as {@link #scaleUp(FrameProperties)}
+     * @param channel   The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     */
+    default void scaleUp(FrameProperties frame, WritableByteChannel channel) throws IOException {
+        scaleUp(frame, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has width and height
+     * <p>              Same as {@link #scaleUpAndCrop(FrameProperties)}
+     * @param outputStream  The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     */
+    default void scaleUpAndCrop(FrameProperties frame, OutputStream outputStream) throws IOException {
+        scaleUpAndCrop(frame).writeTo(outputStream);
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has width and height
+     * <p>              Same as {@link #scaleUpAndCrop(FrameProperties)}
+     * @param channel   The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     */
+    default void scaleUpAndCrop(FrameProperties frame, WritableByteChannel channel) throws IOException {
+        scaleUpAndCrop(frame, Channels.newOutputStream(channel));
+    }
+
+    // Per-call encoding: the given EncodeOptions replace the transformer defaults for this call only.
+    // The stream variants are implemented by the transformers that encode, the defaults keep the older
+    // implementations of this interface compiling.
+
+    /**
+     * @param frame     The {@link FrameProperties} with specific expected width and height after resizing
+     * <p>              Same as {@link #resize(FrameProperties)}
+     * @param encodeOptions The {@link EncodeOptions} of the output
+     * @return          {@link ByteArrayOutputStream}
+     * @throws IOException when writing the image to output occur error
+     */
+    default ByteArrayOutputStream resize(FrameProperties frame, EncodeOptions encodeOptions) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        resize(frame, encodeOptions, outputStream);
+        return outputStream;
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} with specific expected width and height after resizing
+     * <p>              Same as {@link #resize(FrameProperties)}
+     * @param encodeOptions The {@link EncodeOptions} of the output
+     * @param outputStream  The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     * @throws UnsupportedOperationException by default, unless the {@link EncodeOptions#isOutputDefault() options}
+     *          leave the output of {@link #resize(FrameProperties, OutputStream)} as it is
+     */
+    default void resize(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream) throws IOException {
+        if (!encodeOptions.isOutputDefault()) {
+            throw new UnsupportedOperationException("EncodeOptions are not supported by " + getClass().getName());
+        }
+        resize(frame, outputStream);
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has specific width
+     * <p>              Same as {@link #scaleByWidth(FrameProperties)}
+     * @param encodeOptions The {@link EncodeOptions} of the output
+     * @return          {@link ByteArrayOutputStream}
+     * @throws IOException when writing the image to output occur error
+     */
+    default ByteArrayOutputStream scaleByWidth(FrameProperties frame, EncodeOptions encodeOptions) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        scaleByWidth(frame, encodeOptions, outputStream);
+        return outputStream;
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has specific width
+     * <p>              Same as {@link #scaleByWidth(FrameProperties)}
+     * @param encodeOptions The {@link EncodeOptions} of the output
+     * @param outputStream  The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     * @throws UnsupportedOperationException by default, unless the {@link EncodeOptions#isOutputDefault() options}
+     *          leave the output of {@link #scaleByWidth(FrameProperties, OutputStream)} as it is
+     */
+    default void scaleByWidth(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream) throws IOException {
+        if (!encodeOptions.isOutputDefault()) {
+            throw new UnsupportedOperationException("EncodeOptions are not supported by " + getClass().getName());
+        }
+        scaleByWidth(frame, outputStream);
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has specific height
+     * <p>              Same as {@link #scaleByHeight(FrameProperties)}
+     * @param encodeOptions The {@link EncodeOptions} of the output
+     * @return          {@link ByteArrayOutputStream}
+     * @throws IOException when writing the image to output occur error
+     */
+    default ByteArrayOutputStream scaleByHeight(FrameProperties frame, EncodeOptions encodeOptions) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        scaleByHeight(frame, encodeOptions, outputStream);
+        return outputStream;
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has specific height
+     * <p>              Same as {@link #scaleByHeight(FrameProperties)}
+     * @param encodeOptions The {@link EncodeOptions} of the output
+     * @param outputStream  The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     * @throws UnsupportedOperationException by default, unless the {@link EncodeOptions#isOutputDefault() options}
+     *          leave the output of {@link #scaleByHeight(FrameProperties, OutputStream)} as it is
+     */
+    default void scaleByHeight(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream) throws IOException {
+        if (!encodeOptions.isOutputDefault()) {
+            throw new UnsupportedOperationException("EncodeOptions are not supported by " + getClass().getName());
+        }
+        scaleByHeight(frame, outputStream);
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has width and height
+     * <p>              Same as {@link #scaleDown(FrameProperties)}
+     * @param encodeOptions The {@link EncodeOptions} of the output
+     * @return          {@link ByteArrayOutputStream}
+     * @throws IOException when writing the image to output occur error
+     */
+    default ByteArrayOutputStream scaleDown(FrameProperties frame, EncodeOptions encodeOptions) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        scaleDown(frame, encodeOptions, outputStream);
+        return outputStream;
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has width and height
+     * <p>              Same as {@link #scaleDown(FrameProperties)}
+     * @param encodeOptions The {@link EncodeOptions} of the output
+     * @param outputStream  The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     * @throws UnsupportedOperationException by default, unless the {@link EncodeOptions#isOutputDefault() options}
+     *          leave the output of {@link #scaleDown(FrameProperties, OutputStream)} as it is
+     */
+    default void scaleDown(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream) throws IOException {
+        if (!encodeOptions.isOutputDefault()) {
+            throw new UnsupportedOperationException("EncodeOptions are not supported by " + getClass().getName());
+        }
+        scaleDown(frame, outputStream);
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has width and height
+     * <p>              Same as {@link #scaleDownWithBackground(FrameProperties, Color)}
+     * @param bgColor   The background color, use {@link Color}
+     * @param encodeOptions The {@link EncodeOptions} of the output
+     * @return          {@link ByteArrayOutputStream}
+     * @throws IOException when writing the image to output occur error
+     */
+    default ByteArrayOutputStream scaleDownWithBackground(FrameProperties frame, Color bgColor, EncodeOptions encodeOptions) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        scaleDownWithBackground(frame, bgColor, encodeOptions, outputStream);
+        return outputStream;
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has width and height
+     * <p>              Same as {@link #scaleDownWithBackground(FrameProperties, Color)}
+     * @param bgColor   The background color, use {@link Color}
+     * @param encodeOptions The {@link EncodeOptions} of the output
+     * @param outputStream  The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     * @throws UnsupportedOperationException by default, unless the {@link EncodeOptions#isOutputDefault() options}
+     *          leave the output of {@link #scaleDownWithBackground(FrameProperties, Color, OutputStream)} as it is
+     */
+    default void scaleDownWithBackground(FrameProperties frame, Color bgColor, EncodeOptions encodeOptions, OutputStream outputStream) throws IOException {
+        if (!encodeOptions.isOutputDefault()) {
+            throw new UnsupportedOperationException("EncodeOptions are not supported by " + getClass().getName());
+        }
+        scaleDownWithBackground(frame, bgColor, outputStream);
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has width and height
+     * <p>              Same as {@link #scaleUp(FrameProperties)}
+     * @param encodeOptions The {@link EncodeOptions} of the output
+     * @return          {@link ByteArrayOutputStream}
+     * @throws IOException when writing the image to output occur error
+     */
+    default ByteArrayOutputStream scaleUp(FrameProperties frame, EncodeOptions encodeOptions) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        scaleUp(frame, encodeOptions, outputStream);
+        return outputStream;
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has width and height
+     * <p>              Same as {@link #scaleUp(FrameProperties)}
+     * @param encodeOptions The {@link EncodeOptions} of the output
+     * @param outputStream  The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     * @throws UnsupportedOperationException by default, unless the {@link EncodeOptions#isOutputDefault() options}
+     *          leave the output of {@link #scaleUp(FrameProperties, OutputStream)} as it is
+     */
+    default void scaleUp(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream) throws IOException {
+        if (!encodeOptions.isOutputDefault()) {
+            throw new UnsupportedOperationException("EncodeOptions are not supported by " + getClass().getName());
+        }
+        scaleUp(frame, outputStream);
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has width and height
+     * <p>              Same as {@link #scaleUpAndCrop(FrameProperties)}
+     * @param encodeOptions The {@link EncodeOptions} of the output
+     * @return          {@link ByteArrayOutputStream}
+     * @throws IOException when writing the image to output occur error
+     */
+    default ByteArrayOutputStream scaleUpAndCrop(FrameProperties frame, EncodeOptions encodeOptions) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        scaleUpAndCrop(frame, encodeOptions, outputStream);
+        return outputStream;
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} which has width and height
+     * <p>              Same as {@link #scaleUpAndCrop(FrameProperties)}
+     * @param encodeOptions The {@link EncodeOptions} of the output
+     * @param outputStream  The destination of the encoded image
+     * @throws IOException when writing the image to output occur error
+     * @throws UnsupportedOperationException by default, unless the {@link EncodeOptions#isOutputDefault() options}
+     *          leave the output of {@link #scaleUpAndCrop(FrameProperties, OutputStream)} as it is
+     */
+    default void scaleUpAndCrop(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream) throws IOException {
+        if (!encodeOptions.isOutputDefault()) {
+            throw new UnsupportedOperationException("EncodeOptions are not supported by " + getClass().getName());
+        }
+        scaleUpAndCrop(frame, outputStream);
+    }
+
+    /**
+     * @param frames    The {@link FrameProperties} of every rendition, each one is scaled down to fit in its frame
+     * <p>              Implementations decode the image once and may derive smaller renditions from bigger ones
+     * @return          The encoded renditions in the order of <code>frames</code>,
+     *                  keyed by {@link #renditionKey(FrameProperties)}
+     * @throws IOException when writing the image to output occur error
+     */
+    default Map<String, ByteArrayOutputStream> renditions(List<? extends FrameProperties> frames) throws IOException {
+        Map<String, ByteArrayOutputStream> renditions = new LinkedHashMap<>();
+        for (FrameProperties frame : frames) {
+            renditions.put(renditionKey(frame), scaleDown(frame));
+        }
+        return renditions;
+    }
+
+    /**
+     * @param frame     The {@link FrameProperties} of a rendition
+     * @return          <code>width x height</code> for pixel frames, <code>width:height</code> for ratio frames
+     */
+    static String renditionKey(FrameProperties frame) {
+        String separator = Measure.RATIO.equals(frame.getMeasure()) ? ":" : "x";
+        return frame.getWidth() + separator + frame.getHeight();
+    }
+
 }
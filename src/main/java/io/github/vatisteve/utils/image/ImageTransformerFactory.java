@@ -2,8 +2,12 @@ package io.github.vatisteve.utils.image;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 
-import io.github.vatisteve.utils.image.impl.MarvinFrameworkImageTransformer;
+import io.github.vatisteve.utils.image.engine.AutoImageTransformer;
+import io.github.vatisteve.utils.image.engine.EngineRegistry;
+import io.github.vatisteve.utils.image.engine.ImageTransformerEngine;
+import io.github.vatisteve.utils.image.impl.ImageProbe;
 
 /**
  * @author Steve
@@ -24,11 +28,46 @@ public final class ImageTransformerFactory {
      */
     public static ImageTransformer buildImageTransformer(Transformer transformer, InputStream inputStream,
             String mimeType) throws MimeTypeNotSupportedException, IOException {
-        if (transformer == null || transformer == Transformer.MARVIN) {
-            return new MarvinFrameworkImageTransformer(inputStream, mimeType);
-        } else {
-            return null; // ... new instance THUMBNAILATOR
+        return buildImageTransformer(transformer, inputStream, mimeType, TransformerOptions.defaults());
+    }
+
+    /**
+     * @param transformer   The type of transformer to use
+     * @param inputStream   The image input stream data
+     * @param mimeType      The image extension
+     * @param options       The {@link TransformerOptions}
+     * @return              Instance of {@link Transformer} with specific transformer type
+     * @throws MimeTypeNotSupportedException    the extension does not supported
+     * @throws IOException                      exception throw when creating new ImageTransformer implementation
+     * @throws UnsupportedOperationException    the transformer is not available yet
+     */
+    public static ImageTransformer buildImageTransformer(Transformer transformer, InputStream inputStream,
+            String mimeType, TransformerOptions options) throws MimeTypeNotSupportedException, IOException {
+        return buildImageTransformer(transformer == null ? null : transformer.name(), inputStream, mimeType, options);
+    }
+
+    /**
+     * @param engine        The name of an {@link ImageTransformerEngine} of the {@link EngineRegistry}, a plugin
+     *                      one included, <code>AUTO</code> to choose per image or <code>null</code> for Marvin
+     * @param inputStream   The image input stream data
+     * @param mimeType      The image extension
+     * @param options       The {@link TransformerOptions}
+     * @return              Instance of {@link ImageTransformer} of the engine
+     * @throws MimeTypeNotSupportedException    the extension does not supported
+     * @throws IOException                      exception throw when creating new ImageTransformer implementation
+     * @throws UnsupportedOperationException    no engine of that name is registered
+     */
+    public static ImageTransformer buildImageTransformer(String engine, InputStream inputStream,
+            String mimeType, TransformerOptions options) throws MimeTypeNotSupportedException, IOException {
+        String name = engine == null ? Transformer.MARVIN.name() : engine;
+        if (Transformer.AUTO.name().equalsIgnoreCase(name)) {
+            return new AutoImageTransformer(inputStream, mimeType, options);
         }
+        ImageTransformerEngine found = EngineRegistry.engine(name);
+        if (found == null) {
+            throw new UnsupportedOperationException(String.format("Transformer is not available: %s", name));
+        }
+        return found.create(inputStream, mimeType, options);
     }
 
     /**
@@ -44,7 +83,35 @@ public final class ImageTransformerFactory {
         return buildImageTransformer(Transformer.MARVIN, inputStream, mimeType);
     }
 
+    /**
+     * Parses only the image header, no pixel is decoded.
+     * <p>      Use it to route, reject oversized or decompression-bomb images, or skip images which already fit.
+     * <p>      The stream is read ahead in blocks, past the header: discard it afterwards and open a new one,
+     *          or {@link #probe(Path)} the file, to transform the image.
+     *
+     * @param inputStream   The image input stream data, consumed past the header and not closed
+     * @return              The {@link ImageInfo} with dimensions, format and EXIF orientation
+     * @throws IOException  when the data is not a readable image
+     */
+    public static ImageInfo probe(InputStream inputStream) throws IOException {
+        return ImageProbe.probe(inputStream);
+    }
+
+    /**
+     * @param path          The image file
+     * @return              The {@link ImageInfo} with dimensions, format and EXIF orientation
+     * @throws IOException  when the file is not a readable image
+     * @see #probe(InputStream)
+     */
+    public static ImageInfo probe(Path path) throws IOException {
+        return ImageProbe.probe(path);
+    }
+
+    /**
+     * The built-in engines, <code>AUTO</code> chooses among every registered engine per image with the
+     * {@link io.github.vatisteve.utils.image.engine.CostModel#shared() shared cost model}
+     */
     public enum Transformer {
-        MARVIN, THUMBNAILATOR
+        MARVIN, THUMBNAILATOR, JAVA2D, AUTO
     }
 }
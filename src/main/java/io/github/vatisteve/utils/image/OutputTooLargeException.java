@@ -0,0 +1,31 @@
+package io.github.vatisteve.utils.image;
+
+import java.io.IOException;
+
+/**
+ * Thrown when no encode of the image fits in {@link EncodeOptions#maxBytes(Integer)}
+ */
+public class OutputTooLargeException extends IOException {
+
+    private static final long serialVersionUID = 6094315228340918846L;
+
+    private final long bytes;
+    private final long maxBytes;
+
+    public OutputTooLargeException(long bytes, long maxBytes) {
+        super(String.format("The smallest output takes about %d bytes, more than the %d allowed", bytes, maxBytes));
+        this.bytes = bytes;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return  The size of the smallest encode tried, estimated when it was cut at the budget
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
@@ -0,0 +1,167 @@
+package io.github.vatisteve.utils.image;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PixelArena
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Pool of the big pixel and byte arrays used by the transformers, shared by every transformer of the
+ *          application. Arrays are handed out by size class, a quarter of a power of two apart, so images of
+ *          similar sizes reuse the same arrays and a steady load makes almost no large allocation.
+ * <p>      Released arrays are kept up to a cap in bytes, the ones above it are left to the garbage collector.
+ *          Arrays smaller than {@value #MIN_POOLED} elements are never pooled, they are cheap to allocate.
+ * <p>      Thread-safe. Arrays handed out are not cleared.
+ */
+public final class PixelArena {
+
+    /**
+     * The smallest pooled array length
+     */
+    public static final int MIN_POOLED = 1 << 16;
+
+    private final long maxRetainedBytes;
+    private final ConcurrentMap<Integer, Deque<int[]>> ints = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Deque<byte[]>> bytes = new ConcurrentHashMap<>();
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param maxRetainedBytes  The bytes of released arrays kept for reuse, 0 to never pool
+     */
+    public PixelArena(long maxRetainedBytes) {
+        if (maxRetainedBytes < 0) throw new IllegalArgumentException("The retained bytes can not be negative");
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    /**
+     * @return  The arena of the transformers built without their own, it keeps up to an eighth of the maximum
+     *          heap, at most 256 MB
+     */
+    public static PixelArena shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * @param minLength     The needed length
+     * @return              An array of at least <code>minLength</code> elements, not cleared
+     */
+    public int[] ints(int minLength) {
+        int length = sizeClass(minLength);
+        if (length < 0) return new int[minLength];
+        int[] array = poll(ints, length, 4L);
+        return array != null ? array : new int[length];
+    }
+
+    /**
+     * @param minLength     The needed length
+     * @return              An array of at least <code>minLength</code> elements, not cleared
+     */
+    public byte[] bytes(int minLength) {
+        int length = sizeClass(minLength);
+        if (length < 0) return new byte[minLength];
+        byte[] array = poll(bytes, length, 1L);
+        return array != null ? array : new byte[length];
+    }
+
+    /**
+     * @param array     An array of {@link #ints(int)}, it must not be used anymore
+     */
+    public void release(int[] array) {
+        if (array != null) offer(ints, array, array.length, 4L);
+    }
+
+    /**
+     * @param array     An array of {@link #bytes(int)}, it must not be used anymore
+     */
+    public void release(byte[] array) {
+        if (array != null) offer(bytes, array, array.length, 1L);
+    }
+
+    /**
+     * Drops every retained array
+     */
+    public void clear() {
+        ints.clear();
+        bytes.clear();
+        retainedBytes.set(0);
+    }
+
+    public long getMaxRetainedBytes() {
+        return maxRetainedBytes;
+    }
+
+    /**
+     * @return  The bytes of the arrays waiting for reuse
+     */
+    public long getRetainedBytes() {
+        return retainedBytes.get();
+    }
+
+    /**
+     * @return  The pooled size requests served by a released array
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return  The pooled size requests which allocated a new array
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return "PixelArena[retainedBytes=" + retainedBytes.get() + ", maxRetainedBytes=" + maxRetainedBytes
+                + ", hits=" + hits.get() + ", misses=" + misses.get() + "]";
+    }
+
+    /**
+     * @return  The pooled length serving <code>minLength</code>, -1 when such arrays are not pooled
+     */
+    private int sizeClass(int minLength) {
+        if (minLength < MIN_POOLED || maxRetainedBytes == 0) return -1;
+        long step = Integer.highestOneBit(minLength) >> 2;
+        long length = (minLength + step - 1)/step*step;
+        return length > Integer.MAX_VALUE - 8 ? -1 : (int) length;
+    }
+
+    private <A> A poll(ConcurrentMap<Integer, Deque<A>> pool, int length, long elementBytes) {
+        Deque<A> arrays = pool.get(length);
+        A array = arrays == null ? null : arrays.pollFirst();
+        if (array == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        retainedBytes.addAndGet(-length*elementBytes);
+        hits.incrementAndGet();
+        return array;
+    }
+
+    private <A> void offer(ConcurrentMap<Integer, Deque<A>> pool, A array, int length, long elementBytes) {
+        // only the arrays handed out by the arena have the exact length of a size class
+        if (sizeClass(length) != length) return;
+        long size = length*elementBytes;
+        if (retainedBytes.addAndGet(size) > maxRetainedBytes) {
+            retainedBytes.addAndGet(-size);
+            return;
+        }
+        pool.computeIfAbsent(length, key -> new ConcurrentLinkedDeque<>()).offerFirst(array);
+    }
+
+    private static final class Shared {
+
+        private static final PixelArena INSTANCE = new PixelArena(
+                Math.min(256L << 20, Runtime.getRuntime().maxMemory()/8));
+    }
+
+}
@@ -0,0 +1,67 @@
+package io.github.vatisteve.utils.image;
+
+/**
+ * ResampleFilter
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Reconstruction kernels of the in-house resampler, from the fastest to the sharpest
+ */
+public enum ResampleFilter {
+
+    NEAREST(0.5) {
+        @Override
+        public double weight(double x) {
+            return x >= -0.5 && x < 0.5 ? 1 : 0;
+        }
+    },
+    BILINEAR(1) {
+        @Override
+        public double weight(double x) {
+            x = Math.abs(x);
+            return x < 1 ? 1 - x : 0;
+        }
+    },
+    /** Catmull-Rom cubic, a = -0.5 */
+    BICUBIC(2) {
+        @Override
+        public double weight(double x) {
+            final double a = -0.5;
+            x = Math.abs(x);
+            if (x < 1) return ((a + 2)*x - (a + 3))*x*x + 1;
+            if (x < 2) return ((a*x - 5*a)*x + 8*a)*x - 4*a;
+            return 0;
+        }
+    },
+    LANCZOS3(3) {
+        @Override
+        public double weight(double x) {
+            x = Math.abs(x);
+            if (x < 1e-8) return 1;
+            if (x >= 3) return 0;
+            double px = Math.PI*x;
+            return 3*Math.sin(px)*Math.sin(px/3)/(px*px);
+        }
+    };
+
+    private final double support;
+
+    ResampleFilter(double support) {
+        this.support = support;
+    }
+
+    /**
+     * @return  The kernel radius in source pixels at scale 1
+     */
+    public double getSupport() {
+        return support;
+    }
+
+    /**
+     * @param x     The distance to the kernel center
+     * @return      The kernel weight at <code>x</code>
+     */
+    public abstract double weight(double x);
+
+}
@@ -0,0 +1,15 @@
+package io.github.vatisteve.utils.image;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Thrown by a transformation stopped by its {@link CancellationToken}, cancelled or past its deadline
+ */
+public class TransformCancelledException extends InterruptedIOException {
+
+    private static final long serialVersionUID = 2817353641790931473L;
+
+    public TransformCancelledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,322 @@
+package io.github.vatisteve.utils.image;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * TransformPlan
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      A chain of geometric steps run when the plan is encoded, e.g.
+ *          <code>transformer.plan().fit(300, 300).pad(Color.WHITE).encode()</code>.
+ * <p>      Steps are not run one after the other: the planner folds them into one source area, one resample
+ *          to its final size and one placement on the output canvas, so no intermediate image is allocated.
+ *          A plan leaving the source untouched returns it as is, like the single operations.
+ */
+public final class TransformPlan {
+
+    private final Runner runner;
+    private final List<Step> steps = new ArrayList<>();
+    private int frameWidth = -1;
+    private int frameHeight = -1;
+
+    /**
+     * @param runner    Runs the plan, provided by the {@link ImageTransformer}
+     */
+    public TransformPlan(Runner runner) {
+        this.runner = runner;
+    }
+
+    /**
+     * Same as {@link ImageTransformer#resize(int, int)}
+     *
+     * @param width     The expected width
+     * @param height    The expected height
+     * @return          this plan
+     */
+    public TransformPlan resize(int width, int height) {
+        return frame(add(Operation.RESIZE, 0, 0, width, height, null), width, height);
+    }
+
+    /**
+     * Same as {@link ImageTransformer#scaleByWidth(int)}, the height keeps the ratio
+     *
+     * @param width     The expected width
+     * @return          this plan
+     */
+    public TransformPlan scaleByWidth(int width) {
+        return add(Operation.SCALE_BY_WIDTH, 0, 0, width, 0, null);
+    }
+
+    /**
+     * Same as {@link ImageTransformer#scaleByHeight(int)}, the width keeps the ratio
+     *
+     * @param height    The expected height
+     * @return          this plan
+     */
+    public TransformPlan scaleByHeight(int height) {
+        return add(Operation.SCALE_BY_HEIGHT, 0, 0, 0, height, null);
+    }
+
+    /**
+     * Same as {@link ImageTransformer#scaleDown(int, int)}: scales down to fit in the frame, never up
+     *
+     * @param width     The width of the frame
+     * @param height    The height of the frame
+     * @return          this plan
+     */
+    public TransformPlan fit(int width, int height) {
+        return frame(add(Operation.FIT, 0, 0, width, height, null), width, height);
+    }
+
+    /**
+     * Same as {@link ImageTransformer#scaleUp(int, int)}: scales up to cover the frame, never down
+     *
+     * @param width     The width of the frame
+     * @param height    The height of the frame
+     * @return          this plan
+     */
+    public TransformPlan cover(int width, int height) {
+        return frame(add(Operation.COVER, 0, 0, width, height, null), width, height);
+    }
+
+    /**
+     * Keeps an area of the current image, clipped to it
+     *
+     * @param x         The left of the kept area
+     * @param y         The top of the kept area
+     * @param width     The width of the kept area
+     * @param height    The height of the kept area
+     * @return          this plan
+     */
+    public TransformPlan crop(int x, int y, int width, int height) {
+        return add(Operation.CROP, x, y, width, height, null);
+    }
+
+    /**
+     * Keeps the centre of the current image, clipped to it
+     *
+     * @param width     The width of the kept area
+     * @param height    The height of the kept area
+     * @return          this plan
+     */
+    public TransformPlan crop(int width, int height) {
+        return add(Operation.CROP_CENTER, 0, 0, width, height, null);
+    }
+
+    /**
+     * Keeps an area of the current image placed by the {@link CropStrategy}, clipped to it
+     *
+     * @param width     The width of the kept area
+     * @param height    The height of the kept area
+     * @param strategy  The {@link CropStrategy}, <code>null</code> for the centre
+     * @return          this plan
+     */
+    public TransformPlan crop(int width, int height, CropStrategy strategy) {
+        if (strategy == CropStrategy.ATTENTION) return add(Operation.CROP_ATTENTION, 0, 0, width, height, null);
+        return crop(width, height);
+    }
+
+    /**
+     * Centres the current image on a background of the last {@link #fit(int, int)}, {@link #cover(int, int)}
+     * or {@link #resize(int, int)} frame
+     *
+     * @param bgColor   The background color, use {@link Color}
+     * @return          this plan
+     */
+    public TransformPlan pad(Color bgColor) {
+        if (frameWidth < 0) {
+            throw new IllegalStateException("No frame to pad to, use pad(width, height, bgColor)");
+        }
+        return pad(frameWidth, frameHeight, bgColor);
+    }
+
+    /**
+     * Same as {@link ImageTransformer#scaleDownWithBackground(int, int, Color)} after a fit:
+     * centres the current image on a background when it is smaller than the frame
+     *
+     * @param width     The width of the frame
+     * @param height    The height of the frame
+     * @param bgColor   The background color, use {@link Color}
+     * @return          this plan
+     */
+    public TransformPlan pad(int width, int height, Color bgColor) {
+        return add(Operation.PAD, 0, 0, width, height, bgColor == null ? Color.WHITE : bgColor);
+    }
+
+    /**
+     * Appends the steps of another plan
+     *
+     * @param plan      The plan to append
+     * @return          this plan
+     */
+    public TransformPlan then(TransformPlan plan) {
+        steps.addAll(plan.steps);
+        if (plan.frameWidth >= 0) frame(this, plan.frameWidth, plan.frameHeight);
+        return this;
+    }
+
+    /**
+     * @return          The encoded image with the transformer {@link EncodeOptions}
+     * @throws IOException when writing the image to output occur error
+     */
+    public ByteArrayOutputStream encode() throws IOException {
+        return runner.encode(this, null);
+    }
+
+    /**
+     * @param encodeOptions The {@link EncodeOptions} of the output, <code>null</code> for the transformer ones
+     * @return              The encoded image
+     * @throws IOException  when writing the image to output occur error
+     */
+    public ByteArrayOutputStream encode(EncodeOptions encodeOptions) throws IOException {
+        return runner.encode(this, encodeOptions);
+    }
+
+    /**
+     * @param encodeOptions The {@link EncodeOptions} of the output, <code>null</code> for the transformer ones
+     * @param outputStream  The destination of the encoded image, it is not closed
+     * @throws IOException  when writing the image to output occur error
+     */
+    public void encode(EncodeOptions encodeOptions, OutputStream outputStream) throws IOException {
+        runner.encode(this, encodeOptions, outputStream);
+    }
+
+    /**
+     * @param operation The {@link Operation} looked for
+     * @return          <code>true</code> when one of the steps runs it
+     */
+    public boolean contains(Operation operation) {
+        for (Step step : steps) {
+            if (step.operation == operation) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return  The steps in order
+     */
+    public List<Step> getSteps() {
+        return Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * Lists every step, caches use it as part of their keys.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Step step : steps) {
+            if (builder.length() > 0) builder.append(" > ");
+            builder.append(step);
+        }
+        return builder.toString();
+    }
+
+    private TransformPlan add(Operation operation, int x, int y, int width, int height, Color color) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException(String.format("Negative size: %dx%d", width, height));
+        }
+        steps.add(new Step(operation, x, y, width, height, color));
+        return this;
+    }
+
+    private static TransformPlan frame(TransformPlan plan, int width, int height) {
+        plan.frameWidth = width;
+        plan.frameHeight = height;
+        return plan;
+    }
+
+    public enum Operation {
+        RESIZE, SCALE_BY_WIDTH, SCALE_BY_HEIGHT, FIT, COVER, CROP, CROP_CENTER, CROP_ATTENTION, PAD
+    }
+
+    /**
+     * One step of a plan, sizes are in pixels of the image the previous steps produce
+     */
+    public static final class Step {
+
+        private final Operation operation;
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int height;
+        private final Color color;
+
+        private Step(Operation operation, int x, int y, int width, int height, Color color) {
+            this.operation = operation;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.color = color;
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public Color getColor() {
+            return color;
+        }
+
+        @Override
+        public String toString() {
+            String size = width + "x" + height;
+            switch (operation) {
+                case CROP:
+                    return "crop(" + x + "," + y + "," + size + ")";
+                case PAD:
+                    return "pad(" + size + "," + Integer.toHexString(color.getRGB()) + ")";
+                default:
+                    return operation.name().toLowerCase() + "(" + size + ")";
+            }
+        }
+    }
+
+    /**
+     * Runs plans for an {@link ImageTransformer}
+     */
+    public interface Runner {
+
+        /**
+         * @param plan          The plan to run
+         * @param encodeOptions The {@link EncodeOptions} of the output, <code>null</code> for the transformer ones
+         * @return              The encoded image
+         * @throws IOException  when writing the image to output occur error
+         */
+        ByteArrayOutputStream encode(TransformPlan plan, EncodeOptions encodeOptions) throws IOException;
+
+        /**
+         * @param plan          The plan to run
+         * @param encodeOptions The {@link EncodeOptions} of the output, <code>null</code> for the transformer ones
+         * @param outputStream  The destination of the encoded image
+         * @throws IOException  when writing the image to output occur error
+         */
+        void encode(TransformPlan plan, EncodeOptions encodeOptions, OutputStream outputStream) throws IOException;
+    }
+
+}
@@ -0,0 +1,388 @@
+package io.github.vatisteve.utils.image;
+
+import java.time.Duration;
+
+import io.github.vatisteve.utils.image.metrics.TransformListener;
+
+/**
+ * TransformerOptions
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Tuning options of an {@link ImageTransformer}. The defaults keep the original behavior except for:
+ * <ul>
+ *     <li>{@link #isAutoOrient()}: JPEGs are turned upright after their EXIF orientation</li>
+ *     <li>{@link #isAnimated()}: animated GIFs written as GIF keep every frame</li>
+ *     <li>{@link #isForceReencode()}: a call which changes nothing returns the original bytes instead of
+ *         decoding and encoding them again</li>
+ * </ul>
+ *          Set them back with <code>autoOrient(false)</code>, <code>animated(false)</code> and
+ *          <code>forceReencode(true)</code>.
+ */
+public class TransformerOptions {
+
+    private boolean decodeSubsampling;
+    private ResampleFilter resampleFilter;
+    private boolean forceReencode;
+    private boolean autoOrient = true;
+    private EncodeOptions encodeOptions = EncodeOptions.defaults();
+    private TransformListener listener;
+    private long streamingThreshold = 100_000_000L;
+    private int stripPixels = 16_000_000;
+    private PixelArena arena = PixelArena.shared();
+    private boolean animated = true;
+    private int maxFrames = Integer.MAX_VALUE;
+    private int frameStep = 1;
+    private CropStrategy cropStrategy = CropStrategy.CENTER;
+    private CancellationToken cancellationToken = CancellationToken.NONE;
+    private Duration timeout;
+    private long maxPixels = Long.MAX_VALUE;
+
+    /**
+     * @return  The default options
+     */
+    public static TransformerOptions defaults() {
+        return new TransformerOptions();
+    }
+
+    /**
+     * @return  <code>true</code> when the source may be decoded with subsampling
+     */
+    public boolean isDecodeSubsampling() {
+        return decodeSubsampling;
+    }
+
+    /**
+     * Decode-time subsampling, disabled by default.
+     * <p>      When an operation targets an image much smaller than the source, the source is decoded with
+     *          the largest integer subsampling factor that still keeps it at least as big as the target,
+     *          then the normal resample produces the final size. The decoded raster, and so the heap used,
+     *          shrinks with the square of the factor.
+     * <p>      Quality: subsampling keeps every n-th pixel without filtering, fine textures and thin lines
+     *          may alias (moire, jagged edges) before the final resample smooths them.
+     *          Leave it disabled when the output must match a full decode.
+     *
+     * @param decodeSubsampling     <code>true</code> to enable decode-time subsampling
+     * @return                      this options
+     */
+    public TransformerOptions decodeSubsampling(boolean decodeSubsampling) {
+        this.decodeSubsampling = decodeSubsampling;
+        return this;
+    }
+
+    /**
+     * @return  The {@link ResampleFilter} of the in-house resampler, <code>null</code> when the engine scales itself
+     */
+    public ResampleFilter getResampleFilter() {
+        return resampleFilter;
+    }
+
+    /**
+     * Scale with the in-house separable resampler instead of the engine's own scaling, disabled by default.
+     * <p>      The resampler works on packed ARGB rasters and splits rows into bands over the common
+     *          <code>ForkJoinPool</code>, so big images use every core.
+     *
+     * @param resampleFilter    The kernel to use, <code>null</code> to keep the engine's scaling
+     * @return                  this options
+     */
+    public TransformerOptions resampleFilter(ResampleFilter resampleFilter) {
+        this.resampleFilter = resampleFilter;
+        return this;
+    }
+
+    /**
+     * @return  <code>true</code> when the source is always decoded and encoded again
+     */
+    public boolean isForceReencode() {
+        return forceReencode;
+    }
+
+    /**
+     * Disabled by default: when an operation leaves the pixels untouched (the image already fits,
+     * a ratio frame, the same size) and the output format is the source format, the original bytes are
+     * returned unchanged, with no decode and no extra lossy encode. Metadata such as EXIF is kept as is.
+     *
+     * @param forceReencode     <code>true</code> to always decode and encode
+     * @return                  this options
+     */
+    public TransformerOptions forceReencode(boolean forceReencode) {
+        this.forceReencode = forceReencode;
+        return this;
+    }
+
+    /**
+     * @return  <code>true</code> when the EXIF orientation of the source is applied to the output
+     */
+    public boolean isAutoOrient() {
+        return autoOrient;
+    }
+
+    /**
+     * Enabled by default: the frames, crops and output sizes are those of the upright image, and the output
+     * pixels are turned upright while copied out of the first resample, so only the output is remapped.
+     * The original bytes returned unchanged keep their EXIF orientation for the viewer to apply.
+     *
+     * @param autoOrient    <code>false</code> to work on the pixels as stored in the file
+     * @return              this options
+     */
+    public TransformerOptions autoOrient(boolean autoOrient) {
+        this.autoOrient = autoOrient;
+        return this;
+    }
+
+    /**
+     * @return  The {@link EncodeOptions} of the operations called without their own
+     */
+    public EncodeOptions getEncodeOptions() {
+        return encodeOptions;
+    }
+
+    /**
+     * @param encodeOptions     The {@link EncodeOptions} of the operations called without their own,
+     *                          <code>null</code> for the writer defaults
+     * @return                  this options
+     */
+    public TransformerOptions encodeOptions(EncodeOptions encodeOptions) {
+        this.encodeOptions = encodeOptions == null ? EncodeOptions.defaults() : encodeOptions;
+        return this;
+    }
+
+    /**
+     * @return  The {@link TransformListener} notified of every stage, <code>null</code> when none
+     */
+    public TransformListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Reports the wall time, pixels and bytes of every decode, resample, composite, crop and encode.
+     * <p>      The listener does not affect the output and is left out of {@link #toString()}.
+     *
+     * @param listener  The {@link TransformListener}, <code>null</code> for none
+     * @return          this options
+     */
+    public TransformerOptions listener(TransformListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * @return  The source pixels from which downscales are decoded in strips
+     */
+    public long getStreamingThreshold() {
+        return streamingThreshold;
+    }
+
+    /**
+     * Sources of at least this many pixels, 100 MP by default, are never decoded whole when scaled down:
+     * horizontal strips are decoded and averaged into the output one after the other (box filter), so the heap
+     * grows with the output size instead of the source size. Region crops decode their region only.
+     * <p>      Quality: the box filter is softer than the engine scaling on strong downscales.
+     *
+     * @param streamingThreshold    The source pixel count, <code>Long.MAX_VALUE</code> to always decode whole
+     * @return                      this options
+     */
+    public TransformerOptions streamingThreshold(long streamingThreshold) {
+        this.streamingThreshold = streamingThreshold;
+        return this;
+    }
+
+    /**
+     * @return  The pixels decoded at once when streaming
+     */
+    public int getStripPixels() {
+        return stripPixels;
+    }
+
+    /**
+     * JPEG and PNG readers decode every row above a strip again to reach it: bigger strips, 16 MP by default,
+     * decode faster and smaller ones use less heap.
+     *
+     * @param stripPixels   The pixels decoded at once when streaming
+     * @return              this options
+     */
+    public TransformerOptions stripPixels(int stripPixels) {
+        if (stripPixels <= 0) throw new IllegalArgumentException("The strip pixels must be positive");
+        this.stripPixels = stripPixels;
+        return this;
+    }
+
+    /**
+     * @return  The {@link PixelArena} the working buffers are drawn from
+     */
+    public PixelArena getArena() {
+        return arena;
+    }
+
+    /**
+     * Pixel buffers of the operations are drawn from the arena and returned to it when the operation ends,
+     * the source bytes when the transformer is closed. {@link PixelArena#shared()} by default.
+     * <p>      The arena does not affect the output and is left out of {@link #toString()}.
+     *
+     * @param arena     The {@link PixelArena}, <code>null</code> to allocate every buffer
+     * @return          this options
+     */
+    public TransformerOptions arena(PixelArena arena) {
+        this.arena = arena == null ? new PixelArena(0) : arena;
+        return this;
+    }
+
+    /**
+     * @return  <code>true</code> when animated GIFs written as GIF keep their animation
+     */
+    public boolean isAnimated() {
+        return animated;
+    }
+
+    /**
+     * Enabled by default: every frame of an animated GIF is composited, transformed in parallel and written
+     * back with its delay and the loop count. Disabled, or written to another format, only the first frame is kept.
+     *
+     * @param animated  <code>false</code> to keep the first frame only
+     * @return          this options
+     */
+    public TransformerOptions animated(boolean animated) {
+        this.animated = animated;
+        return this;
+    }
+
+    /**
+     * @return  The most frames of an animation written
+     */
+    public int getMaxFrames() {
+        return maxFrames;
+    }
+
+    /**
+     * Bounds the CPU spent on long animations: above this count frames are dropped evenly, the delays of
+     * the dropped frames going to the kept ones so the duration does not change. Unbounded by default.
+     *
+     * @param maxFrames     The most frames of an animation written
+     * @return              this options
+     */
+    public TransformerOptions maxFrames(int maxFrames) {
+        if (maxFrames <= 0) throw new IllegalArgumentException("The max frames must be positive");
+        this.maxFrames = maxFrames;
+        return this;
+    }
+
+    /**
+     * @return  The step between the kept frames of an animation
+     */
+    public int getFrameStep() {
+        return frameStep;
+    }
+
+    /**
+     * Keeps every <code>frameStep</code>-th frame of an animation, 1 by default to keep them all.
+     * The delays of the dropped frames go to the kept ones.
+     *
+     * @param frameStep     The step between the kept frames
+     * @return              this options
+     */
+    public TransformerOptions frameStep(int frameStep) {
+        if (frameStep <= 0) throw new IllegalArgumentException("The frame step must be positive");
+        this.frameStep = frameStep;
+        return this;
+    }
+
+    /**
+     * @return  The {@link CropStrategy} of the <code>scaleUpAndCrop</code> operations
+     */
+    public CropStrategy getCropStrategy() {
+        return cropStrategy;
+    }
+
+    /**
+     * Where <code>scaleUpAndCrop</code> places its crop, {@link CropStrategy#CENTER} by default.
+     * <p>      {@link CropStrategy#ATTENTION} keeps the window with the most detail, faces and products rather
+     *          than a plain background. The analysis runs on a proxy of about 256 pixels, far cheaper
+     *          than the resample, but the whole source is decoded instead of the cropped area only.
+     *
+     * @param cropStrategy  The {@link CropStrategy}, <code>null</code> for the centre
+     * @return              this options
+     */
+    public TransformerOptions cropStrategy(CropStrategy cropStrategy) {
+        this.cropStrategy = cropStrategy == null ? CropStrategy.CENTER : cropStrategy;
+        return this;
+    }
+
+    /**
+     * @return  The {@link CancellationToken} watched by every operation
+     */
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    /**
+     * Cancelling the token, or reaching its deadline, stops the running operations with a
+     * {@link TransformCancelledException}. {@link CancellationToken#NONE} by default.
+     * <p>      The token does not affect the output and is left out of {@link #toString()}.
+     *
+     * @param cancellationToken The {@link CancellationToken}, <code>null</code> for none
+     * @return                  this options
+     */
+    public TransformerOptions cancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken == null ? CancellationToken.NONE : cancellationToken;
+        return this;
+    }
+
+    /**
+     * @return  The time each operation may run, <code>null</code> when unbounded
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Bounds the wall time of each operation, from its call to its last encoded byte: past it the decode,
+     * resample or encode running is aborted with a {@link TransformCancelledException}. Unbounded by default.
+     * <p>      The timeout does not affect the output and is left out of {@link #toString()}.
+     *
+     * @param timeout   The time each operation may run, <code>null</code> for no limit
+     * @return          this options
+     */
+    public TransformerOptions timeout(Duration timeout) {
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            throw new IllegalArgumentException("The timeout must be positive");
+        }
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * @return  The most pixels an operation may decode and write
+     */
+    public long getMaxPixels() {
+        return maxPixels;
+    }
+
+    /**
+     * Refuses the operations whose estimated cost, the source pixels decoded plus the output pixels written,
+     * every frame of an animation counted, is above this limit with an {@link ImageTooLargeException} before
+     * any pixel is decoded. Unbounded by default.
+     * <p>      The limit does not affect the output and is left out of {@link #toString()}.
+     *
+     * @param maxPixels     The most pixels an operation may decode and write
+     * @return              this options
+     */
+    public TransformerOptions maxPixels(long maxPixels) {
+        if (maxPixels <= 0) throw new IllegalArgumentException("The max pixels must be positive");
+        this.maxPixels = maxPixels;
+        return this;
+    }
+
+    /**
+     * Lists every option affecting the output, caches use it as part of their keys.
+     */
+    @Override
+    public String toString() {
+        return "TransformerOptions[decodeSubsampling=" + decodeSubsampling + ", resampleFilter=" + resampleFilter
+                + ", forceReencode=" + forceReencode + ", autoOrient=" + autoOrient + ", encodeOptions=" + encodeOptions
+                + ", streamingThreshold=" + streamingThreshold + ", stripPixels=" + stripPixels
+                + ", animated=" + animated + ", maxFrames=" + maxFrames + ", frameStep=" + frameStep
+                + ", cropStrategy=" + cropStrategy + "]";
+    }
+
+}
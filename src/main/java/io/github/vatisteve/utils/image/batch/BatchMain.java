@@ -0,0 +1,95 @@
+package io.github.vatisteve.utils.image.batch;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import io.github.vatisteve.utils.image.FrameProperties;
+import io.github.vatisteve.utils.image.ImageTransformerFactory.Transformer;
+import io.github.vatisteve.utils.image.Measure;
+
+/**
+ * BatchMain
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Command line of the {@link BatchRunner}, e.g. <code>--input photos --output renditions
+ *          --frames 1200x1200,300x300,4:3 --checkpoint backfill.ckpt</code>.
+ *          Add <code>--manifest list.txt</code> to take the files listed, relative to <code>--input</code>,
+ *          instead of walking it. Run it again with the same checkpoint to resume.
+ * <p>      Exits with 1 when an image failed, 2 on a usage error.
+ */
+public final class BatchMain {
+
+    private static final String USAGE = "usage: BatchMain --input <dir> --output <dir> --frames <WxH|W:H,...>"
+            + " [--manifest <file>] [--checkpoint <file>] [--engine MARVIN|JAVA2D|AUTO] [--workers <n>]"
+            + " [--progress <seconds>]";
+
+    private BatchMain() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> arguments = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) usage("Unexpected argument: " + args[i]);
+            arguments.put(args[i].substring(2), args[i + 1]);
+        }
+        if (args.length % 2 != 0) usage("Missing value of " + args[args.length - 1]);
+        String input = arguments.get("input");
+        String output = arguments.get("output");
+        String frames = arguments.get("frames");
+        if (input == null || output == null || frames == null) usage("--input, --output and --frames are required");
+
+        BatchOptions options = BatchOptions.defaults()
+                .progressListener(System.err::println);
+        try {
+            if (arguments.containsKey("checkpoint")) options.checkpoint(Paths.get(arguments.get("checkpoint")));
+            if (arguments.containsKey("engine")) {
+                options.transformer(Transformer.valueOf(arguments.get("engine").toUpperCase(Locale.ROOT)));
+            }
+            if (arguments.containsKey("workers")) options.workers(Integer.parseInt(arguments.get("workers")));
+            if (arguments.containsKey("progress")) {
+                options.progressInterval(Duration.ofSeconds(Long.parseLong(arguments.get("progress"))));
+            }
+        } catch (IllegalArgumentException e) {
+            usage(e.getMessage());
+        }
+        List<FrameProperties> frameList = frames(frames);
+
+        BatchRunner runner = new BatchRunner(options, transformer -> transformer.renditions(frameList));
+        Path inputDirectory = Paths.get(input);
+        BatchProgress progress = arguments.containsKey("manifest")
+                ? runner.runManifest(Paths.get(arguments.get("manifest")), inputDirectory, Paths.get(output))
+                : runner.run(inputDirectory, Paths.get(output));
+        if (progress.getFailed() > 0) System.exit(1);
+    }
+
+    private static List<FrameProperties> frames(String frames) {
+        List<FrameProperties> frameList = new ArrayList<>();
+        for (String frame : frames.split(",")) {
+            String[] size = frame.trim().split("[x:]");
+            if (size.length != 2) usage("Invalid frame: " + frame);
+            try {
+                frameList.add(FrameProperties.of(Integer.parseInt(size[0]), Integer.parseInt(size[1]),
+                        frame.contains(":") ? Measure.RATIO : Measure.PIXEL));
+            } catch (NumberFormatException e) {
+                usage("Invalid frame: " + frame);
+            }
+        }
+        return frameList;
+    }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println(USAGE);
+        System.exit(2);
+    }
+
+}
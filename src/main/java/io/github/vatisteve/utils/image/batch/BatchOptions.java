@@ -0,0 +1,233 @@
+package io.github.vatisteve.utils.image.batch;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import io.github.vatisteve.utils.image.ImageTransformerFactory.Transformer;
+import io.github.vatisteve.utils.image.TransformerOptions;
+
+/**
+ * BatchOptions
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Tuning options of a {@link BatchRunner}, the defaults use one transform worker per core
+ */
+public class BatchOptions {
+
+    private Transformer transformer;
+    private TransformerOptions transformerOptions = TransformerOptions.defaults();
+    private int readThreads = 2;
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private int writeThreads = 2;
+    private int queueCapacity;
+    private Path checkpoint;
+    private Set<String> extensions = Collections.unmodifiableSet(
+            new LinkedHashSet<>(Arrays.asList("bmp", "gif", "jpeg", "jpg", "png")));
+    private Duration progressInterval = Duration.ofSeconds(10);
+    private Consumer<BatchProgress> progressListener;
+
+    /**
+     * @return  The default options
+     */
+    public static BatchOptions defaults() {
+        return new BatchOptions();
+    }
+
+    /**
+     * @return  The type of transformer to use, <code>null</code> for the default one
+     */
+    public Transformer getTransformer() {
+        return transformer;
+    }
+
+    /**
+     * @param transformer   The type of transformer to use, <code>null</code> for the default one
+     * @return              this options
+     */
+    public BatchOptions transformer(Transformer transformer) {
+        this.transformer = transformer;
+        return this;
+    }
+
+    /**
+     * @return  The {@link TransformerOptions} of every image
+     */
+    public TransformerOptions getTransformerOptions() {
+        return transformerOptions;
+    }
+
+    /**
+     * @param transformerOptions    The {@link TransformerOptions} of every image, <code>null</code> for the defaults
+     * @return                      this options
+     */
+    public BatchOptions transformerOptions(TransformerOptions transformerOptions) {
+        this.transformerOptions = transformerOptions == null ? TransformerOptions.defaults() : transformerOptions;
+        return this;
+    }
+
+    /**
+     * @return  The number of threads mapping the source files
+     */
+    public int getReadThreads() {
+        return readThreads;
+    }
+
+    /**
+     * @param readThreads   The number of threads mapping the source files, 2 by default
+     * @return              this options
+     */
+    public BatchOptions readThreads(int readThreads) {
+        if (readThreads <= 0) throw new IllegalArgumentException("The read threads must be positive");
+        this.readThreads = readThreads;
+        return this;
+    }
+
+    /**
+     * @return  The number of threads decoding, transforming and encoding
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * @param workers   The number of threads decoding, transforming and encoding, one per core by default
+     * @return          this options
+     */
+    public BatchOptions workers(int workers) {
+        if (workers <= 0) throw new IllegalArgumentException("The workers must be positive");
+        this.workers = workers;
+        return this;
+    }
+
+    /**
+     * @return  The number of threads writing the renditions
+     */
+    public int getWriteThreads() {
+        return writeThreads;
+    }
+
+    /**
+     * @param writeThreads  The number of threads writing the renditions, 2 by default
+     * @return              this options
+     */
+    public BatchOptions writeThreads(int writeThreads) {
+        if (writeThreads <= 0) throw new IllegalArgumentException("The write threads must be positive");
+        this.writeThreads = writeThreads;
+        return this;
+    }
+
+    /**
+     * @return  The number of images waiting in front of each stage
+     */
+    public int getQueueCapacity() {
+        return queueCapacity > 0 ? queueCapacity : 2*workers;
+    }
+
+    /**
+     * Bounds the work queued in front of each stage, twice the workers by default.
+     * <p>      A full queue blocks the stage feeding it, so a slow disk or a slow transform holds back the
+     *          reads instead of piling up mapped sources or encoded renditions.
+     *
+     * @param queueCapacity     The number of images waiting in front of each stage
+     * @return                  this options
+     */
+    public BatchOptions queueCapacity(int queueCapacity) {
+        if (queueCapacity <= 0) throw new IllegalArgumentException("The queue capacity must be positive");
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    /**
+     * @return  The checkpoint file, <code>null</code> when the run can not be resumed
+     */
+    public Path getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Records every finished image in a file, disabled by default.
+     * <p>      A run given the checkpoint of an interrupted one skips the images already written and retries
+     *          the failed ones. The file is only appended to, one line per image.
+     *
+     * @param checkpoint    The checkpoint file, created when missing, <code>null</code> to disable
+     * @return              this options
+     */
+    public BatchOptions checkpoint(Path checkpoint) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+
+    /**
+     * @return  The lower case extensions of the files picked by a directory walk
+     */
+    public Set<String> getExtensions() {
+        return extensions;
+    }
+
+    /**
+     * @param extensions    The extensions of the files picked by a directory walk, any case.
+     *                      The files of a manifest are always taken.
+     * @return              this options
+     */
+    public BatchOptions extensions(String... extensions) {
+        Set<String> lowerCase = new LinkedHashSet<>();
+        for (String extension : extensions) {
+            lowerCase.add(extension.toLowerCase(Locale.ROOT));
+        }
+        this.extensions = Collections.unmodifiableSet(lowerCase);
+        return this;
+    }
+
+    /**
+     * @return  The time between two progress reports
+     */
+    public Duration getProgressInterval() {
+        return progressInterval;
+    }
+
+    /**
+     * @param progressInterval  The time between two progress reports, 10 seconds by default
+     * @return                  this options
+     */
+    public BatchOptions progressInterval(Duration progressInterval) {
+        if (progressInterval == null || progressInterval.isNegative() || progressInterval.isZero()) {
+            throw new IllegalArgumentException("The progress interval must be positive");
+        }
+        this.progressInterval = progressInterval;
+        return this;
+    }
+
+    /**
+     * @return  The listener of the progress reports, <code>null</code> for none
+     */
+    public Consumer<BatchProgress> getProgressListener() {
+        return progressListener;
+    }
+
+    /**
+     * @param progressListener  Called every {@link #getProgressInterval() interval} and once at the end of the run,
+     *                          from a thread of the runner
+     * @return                  this options
+     */
+    public BatchOptions progressListener(Consumer<BatchProgress> progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchOptions[transformer=" + transformer + ", transformerOptions=" + transformerOptions
+                + ", readThreads=" + readThreads + ", workers=" + workers + ", writeThreads=" + writeThreads
+                + ", queueCapacity=" + getQueueCapacity() + ", checkpoint=" + checkpoint
+                + ", extensions=" + extensions + ", progressInterval=" + progressInterval + "]";
+    }
+
+}
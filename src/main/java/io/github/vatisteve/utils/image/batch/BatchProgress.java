@@ -0,0 +1,89 @@
+package io.github.vatisteve.utils.image.batch;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BatchProgress
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Snapshot of a {@link BatchRunner} run. Throughput counts the images processed by this run only,
+ *          the ones skipped from the checkpoint cost nothing.
+ */
+public final class BatchProgress {
+
+    private final long processed;
+    private final long failed;
+    private final long skipped;
+    private final long bytesWritten;
+    private final long elapsedNanos;
+    private final int cores;
+
+    BatchProgress(long processed, long failed, long skipped, long bytesWritten, long elapsedNanos, int cores) {
+        this.processed = processed;
+        this.failed = failed;
+        this.skipped = skipped;
+        this.bytesWritten = bytesWritten;
+        this.elapsedNanos = elapsedNanos;
+        this.cores = cores;
+    }
+
+    /**
+     * @return  The images written by this run
+     */
+    public long getProcessed() {
+        return processed;
+    }
+
+    /**
+     * @return  The images that could not be read, transformed or written, retried by the next run
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return  The images already written according to the checkpoint
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * @return  The bytes of the renditions written by this run
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getElapsed(TimeUnit unit) {
+        return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return  The cores the transform workers could use, the smaller of the workers and the available processors
+     */
+    public int getCores() {
+        return cores;
+    }
+
+    /**
+     * @return  The images processed or failed per second since the start of the run
+     */
+    public double getImagesPerSecond() {
+        return elapsedNanos == 0 ? 0 : (processed + failed)*1e9/elapsedNanos;
+    }
+
+    public double getImagesPerSecondPerCore() {
+        return getImagesPerSecond()/cores;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BatchProgress[processed=%d, failed=%d, skipped=%d, bytesWritten=%d, elapsed=%.1fs, "
+                + "imagesPerSecond=%.2f, imagesPerSecondPerCore=%.2f]", processed, failed, skipped, bytesWritten,
+                elapsedNanos/1e9, getImagesPerSecond(), getImagesPerSecondPerCore());
+    }
+
+}
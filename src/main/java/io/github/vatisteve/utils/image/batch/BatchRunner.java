@@ -0,0 +1,307 @@
+package io.github.vatisteve.utils.image.batch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import io.github.vatisteve.utils.image.ImageTransformer;
+import io.github.vatisteve.utils.image.ImageTransformerFactory;
+import io.github.vatisteve.utils.image.service.TransformOperation;
+
+/**
+ * BatchRunner
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Backfills the renditions of a whole directory tree, or of the files listed in a manifest.
+ * <p>      Every image goes through three stages, each one a fixed pool fed by a bounded queue: the read threads
+ *          map the file, the workers decode, transform and encode it with the operation, the write threads store
+ *          the renditions. A full queue blocks the stage before it, so the memory held stays bounded whatever
+ *          the size of the tree.
+ * <p>      The rendition <code>key</code> of <code>dir/photo.jpg</code> is written to
+ *          <code>output/dir/photo_key.jpg</code>, the characters of the key that are not safe in a file name
+ *          replaced by <code>-</code>. Files are moved in place once complete, then the image is recorded in the
+ *          {@link BatchOptions#checkpoint(Path) checkpoint}, so a resumed run never sees half-written renditions.
+ */
+public class BatchRunner {
+
+    private final BatchOptions options;
+    private final TransformOperation<Map<String, ByteArrayOutputStream>> operation;
+
+    /**
+     * @param options       The {@link BatchOptions}
+     * @param operation     The work run on the {@link ImageTransformer} of every image, usually
+     *                      {@link ImageTransformer#renditions(java.util.List) renditions}
+     */
+    public BatchRunner(BatchOptions options, TransformOperation<Map<String, ByteArrayOutputStream>> operation) {
+        this.options = options == null ? BatchOptions.defaults() : options;
+        this.operation = operation;
+    }
+
+    /**
+     * @param inputDirectory    The tree walked, only the files with one of the
+     *                          {@link BatchOptions#getExtensions() extensions} are taken
+     * @param outputDirectory   The tree of the renditions, mirroring the input one
+     * @return                  The final {@link BatchProgress}
+     * @throws IOException      when the tree can not be walked, the checkpoint can not be written,
+     *                          or the run is interrupted. The failure of one image is only counted.
+     */
+    public BatchProgress run(Path inputDirectory, Path outputDirectory) throws IOException {
+        try (Stream<Path> files = Files.walk(inputDirectory)) {
+            return run(inputDirectory, files.filter(Files::isRegularFile).filter(this::accepts).iterator(),
+                    outputDirectory);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @param manifest          A file listing one image per line, relative to <code>inputDirectory</code>.
+     *                          Blank lines and lines starting with <code>#</code> are ignored.
+     * @param inputDirectory    The directory the paths of the manifest are relative to
+     * @param outputDirectory   The tree of the renditions, mirroring the input one
+     * @return                  The final {@link BatchProgress}
+     * @throws IOException      when the manifest can not be read, the checkpoint can not be written,
+     *                          or the run is interrupted. The failure of one image is only counted.
+     */
+    public BatchProgress runManifest(Path manifest, Path inputDirectory, Path outputDirectory) throws IOException {
+        try (Stream<String> lines = Files.lines(manifest, StandardCharsets.UTF_8)) {
+            return run(inputDirectory, lines.map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .map(inputDirectory::resolve).iterator(), outputDirectory);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private boolean accepts(Path file) {
+        return options.getExtensions().contains(extension(file).toLowerCase(Locale.ROOT));
+    }
+
+    private BatchProgress run(Path inputDirectory, Iterator<Path> files, Path outputDirectory) throws IOException {
+        Files.createDirectories(outputDirectory);
+        try (Checkpoint checkpoint = Checkpoint.open(options.getCheckpoint())) {
+            return new Run(inputDirectory.toAbsolutePath().normalize(), outputDirectory, checkpoint).execute(files);
+        }
+    }
+
+    /**
+     * The state of one run: its stages, counters and checkpoint
+     */
+    private final class Run {
+
+        private final Path inputDirectory;
+        private final Path outputDirectory;
+        private final Checkpoint checkpoint;
+        private final int cores = Math.min(options.getWorkers(), Runtime.getRuntime().availableProcessors());
+        private final long start = System.nanoTime();
+
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong bytesWritten = new AtomicLong();
+        private volatile IOException checkpointFailure;
+
+        private final ThreadPoolExecutor readers;
+        private final ThreadPoolExecutor workers;
+        private final ThreadPoolExecutor writers;
+
+        private Run(Path inputDirectory, Path outputDirectory, Checkpoint checkpoint) {
+            this.inputDirectory = inputDirectory;
+            this.outputDirectory = outputDirectory;
+            this.checkpoint = checkpoint;
+            this.readers = stage(options.getReadThreads(), "batch-read");
+            this.workers = stage(options.getWorkers(), "batch-transform");
+            this.writers = stage(options.getWriteThreads(), "batch-write");
+        }
+
+        private BatchProgress execute(Iterator<Path> files) throws IOException {
+            Consumer<BatchProgress> listener = options.getProgressListener();
+            ScheduledExecutorService reporter = null;
+            if (listener != null) {
+                long interval = options.getProgressInterval().toNanos();
+                reporter = Executors.newSingleThreadScheduledExecutor(threadFactory("batch-progress"));
+                reporter.scheduleAtFixedRate(() -> listener.accept(progress()), interval, interval,
+                        TimeUnit.NANOSECONDS);
+            }
+            try {
+                while (files.hasNext() && checkpointFailure == null) {
+                    Path file = files.next().toAbsolutePath().normalize();
+                    String key = key(file);
+                    if (!file.startsWith(inputDirectory)) {
+                        fail(key, new IOException("The file is outside of the input directory"));
+                    } else if (checkpoint.isDone(key)) {
+                        skipped.incrementAndGet();
+                    } else {
+                        readers.execute(() -> read(file, key));
+                    }
+                }
+                // each stage only feeds the next one, so they drain in order
+                await(readers);
+                await(workers);
+                await(writers);
+            } catch (InterruptedException | RejectedExecutionException e) {
+                readers.shutdownNow();
+                workers.shutdownNow();
+                writers.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("The batch was interrupted");
+            } finally {
+                if (reporter != null) reporter.shutdownNow();
+            }
+            if (checkpointFailure != null) throw checkpointFailure;
+            BatchProgress progress = progress();
+            if (listener != null) listener.accept(progress);
+            return progress;
+        }
+
+        private void read(Path file, String key) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                // faults the pages in on the I/O thread, the worker then reads memory only
+                buffer.load();
+                workers.execute(() -> transform(file, key, buffer));
+            } catch (Exception | Error e) {
+                fail(key, e);
+            }
+        }
+
+        private void transform(Path file, String key, MappedByteBuffer buffer) {
+            Map<String, ByteArrayOutputStream> renditions;
+            try (ImageTransformer transformer = ImageTransformerFactory.buildImageTransformer(
+                    options.getTransformer(), new MappedInputStream(buffer), extension(file),
+                    options.getTransformerOptions())) {
+                renditions = operation.apply(transformer);
+            } catch (Exception | Error e) {
+                fail(key, e);
+                return;
+            }
+            writers.execute(() -> write(file, key, renditions));
+        }
+
+        private void write(Path file, String key, Map<String, ByteArrayOutputStream> renditions) {
+            try {
+                Path relative = inputDirectory.relativize(file);
+                Path directory = relative.getParent() == null ? outputDirectory
+                        : outputDirectory.resolve(relative.getParent().toString());
+                Files.createDirectories(directory);
+                String name = relative.getFileName().toString();
+                int dot = name.lastIndexOf('.');
+                String base = dot > 0 ? name.substring(0, dot) : name;
+                String suffix = dot > 0 ? name.substring(dot) : "";
+                long bytes = 0;
+                for (Map.Entry<String, ByteArrayOutputStream> rendition : renditions.entrySet()) {
+                    Path temp = Files.createTempFile(directory, "batch", ".tmp");
+                    try {
+                        try (OutputStream outputStream = Files.newOutputStream(temp)) {
+                            rendition.getValue().writeTo(outputStream);
+                        }
+                        Files.move(temp, directory.resolve(base + '_' + safe(rendition.getKey()) + suffix),
+                                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    } finally {
+                        Files.deleteIfExists(temp);
+                    }
+                    bytes += rendition.getValue().size();
+                }
+                bytesWritten.addAndGet(bytes);
+            } catch (Exception | Error e) {
+                fail(key, e);
+                return;
+            }
+            try {
+                checkpoint.done(key);
+                processed.incrementAndGet();
+            } catch (IOException e) {
+                checkpointFailure = e;
+            }
+        }
+
+        private void fail(String key, Throwable e) {
+            failed.incrementAndGet();
+            try {
+                checkpoint.failed(key, e.getClass().getSimpleName() + ": " + e.getMessage());
+            } catch (IOException checkpointException) {
+                checkpointFailure = checkpointException;
+            }
+        }
+
+        private String key(Path file) {
+            // forward slashes so a checkpoint can be resumed on another platform
+            return inputDirectory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+        }
+
+        private BatchProgress progress() {
+            return new BatchProgress(processed.get(), failed.get(), skipped.get(), bytesWritten.get(),
+                    System.nanoTime() - start, cores);
+        }
+    }
+
+    /**
+     * @param threads   The size of the pool
+     * @param name      The prefix of the thread names
+     * @return          A fixed pool whose <code>execute</code> blocks while its queue is full
+     */
+    private ThreadPoolExecutor stage(int threads, String name) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(options.getQueueCapacity()), threadFactory(name), (runnable, executor) -> {
+                    if (executor.isShutdown()) throw new RejectedExecutionException("The stage is shut down");
+                    try {
+                        executor.getQueue().put(runnable);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException(e);
+                    }
+                });
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static void await(ThreadPoolExecutor stage) throws InterruptedException {
+        stage.shutdown();
+        while (!stage.awaitTermination(1, TimeUnit.MINUTES)) {
+            // keeps waiting, a big image may take longer than that
+        }
+    }
+
+    private static String extension(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(dot + 1) : "";
+    }
+
+    private static String safe(String key) {
+        return key.replaceAll("[^A-Za-z0-9._-]", "-");
+    }
+
+}
@@ -0,0 +1,103 @@
+package io.github.vatisteve.utils.image.batch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Checkpoint
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Append-only record of the images of a batch, one line each: <code>ok&lt;TAB&gt;path</code> once its
+ *          renditions are written, <code>failed&lt;TAB&gt;path&lt;TAB&gt;reason</code> otherwise. Every line is
+ *          flushed, a killed run loses at most the images in flight. A truncated last line is cut off the file,
+ *          the record of the image it was cut from would read like the one of another path.
+ * <p>      Thread-safe.
+ */
+final class Checkpoint implements Closeable {
+
+    private static final String DONE = "ok";
+    private static final String FAILED = "failed";
+
+    private final Set<String> done = new HashSet<>();
+    private final Writer writer;
+
+    private Checkpoint(Path file) throws IOException {
+        if (file == null) {
+            writer = null;
+            return;
+        }
+        if (Files.exists(file)) {
+            byte[] bytes = Files.readAllBytes(file);
+            int complete = bytes.length;
+            while (complete > 0 && bytes[complete - 1] != '\n') complete--;
+            String content = new String(bytes, 0, complete, StandardCharsets.UTF_8);
+            int start = 0;
+            int end;
+            while ((end = content.indexOf('\n', start)) != -1) {
+                String line = content.substring(start, end);
+                int tab = line.indexOf('\t');
+                if (tab > 0 && DONE.equals(line.substring(0, tab))) done.add(line.substring(tab + 1));
+                start = end + 1;
+            }
+            if (complete < bytes.length) {
+                // drops the line cut by a killed run, "ok<TAB>a.jpg" may be the start of "ok<TAB>a.jpg.png"
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(complete);
+                }
+            }
+        } else if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * @param file  The checkpoint file, created when missing, <code>null</code> to keep nothing
+     * @return      The checkpoint holding the images written by the previous runs
+     * @throws IOException  when the file can not be read or opened
+     */
+    static Checkpoint open(Path file) throws IOException {
+        return new Checkpoint(file);
+    }
+
+    /**
+     * @param key   The path of the image relative to the input directory
+     * @return      <code>true</code> when a previous run wrote its renditions
+     */
+    synchronized boolean isDone(String key) {
+        return done.contains(key);
+    }
+
+    synchronized void done(String key) throws IOException {
+        done.add(key);
+        append(DONE + '\t' + key);
+    }
+
+    synchronized void failed(String key, String reason) throws IOException {
+        append(FAILED + '\t' + key + '\t' + reason.replaceAll("[\\t\\r\\n]+", " "));
+    }
+
+    private void append(String line) throws IOException {
+        if (writer == null) return;
+        writer.write(line);
+        writer.write('\n');
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) writer.close();
+    }
+
+}
@@ -0,0 +1,49 @@
+package io.github.vatisteve.utils.image.batch;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * MappedInputStream
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Reads a memory-mapped file without another copy, {@link #available()} is the exact length left
+ *          so the transformer sizes its buffer once.
+ */
+final class MappedInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    MappedInputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+        if (length == 0) return 0;
+        if (!buffer.hasRemaining()) return -1;
+        int count = Math.min(length, buffer.remaining());
+        buffer.get(bytes, offset, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) {
+        int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+        buffer.position(buffer.position() + count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+}
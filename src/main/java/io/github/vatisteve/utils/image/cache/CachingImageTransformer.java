@@ -0,0 +1,358 @@
+package io.github.vatisteve.utils.image.cache;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.vatisteve.utils.image.EncodeOptions;
+import io.github.vatisteve.utils.image.FrameProperties;
+import io.github.vatisteve.utils.image.ImageStreams;
+import io.github.vatisteve.utils.image.ImageTransformer;
+import io.github.vatisteve.utils.image.ImageTransformerFactory;
+import io.github.vatisteve.utils.image.ImageTransformerFactory.Transformer;
+import io.github.vatisteve.utils.image.MimeTypeNotSupportedException;
+import io.github.vatisteve.utils.image.TransformPlan;
+import io.github.vatisteve.utils.image.TransformerOptions;
+import io.github.vatisteve.utils.image.hash.PerceptualHash;
+import io.github.vatisteve.utils.image.impl.AbstractImageTransformer;
+
+/**
+ * CachingImageTransformer
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      {@link ImageTransformer} decorator serving repeated transformations from a {@link RenditionCache}.
+ * <p>      Keys are content addressed: the SHA-256 of the source bytes plus the operation, the frame,
+ *          the background color, the output format, the engine and its {@link TransformerOptions}.
+ *          Re-uploads of the same bytes therefore hit the cache whatever their name.
+ * <p>      When the cache shares renditions between near duplicates, the source is hashed from a subsampled
+ *          decode and its renditions are keyed by the content hash of the first near duplicate of the same size
+ *          seen instead.
+ */
+public class CachingImageTransformer implements ImageTransformer {
+
+    private final RenditionCache cache;
+    private final String sourceHash;
+    private final String renditionHash;
+    private final String variant;
+    private final String sourceKey;
+    private final ImageTransformer delegate;
+    private final boolean ownsDelegate;
+
+    public CachingImageTransformer(RenditionCache cache, InputStream inputStream, String mimeType)
+            throws MimeTypeNotSupportedException, IOException {
+        this(cache, null, inputStream, mimeType, TransformerOptions.defaults());
+    }
+
+    /**
+     * @param cache         The shared {@link RenditionCache}
+     * @param transformer   The type of transformer to use on cache misses
+     * @param inputStream   The image input stream data
+     * @param mimeType      The image extension
+     * @param options       The {@link TransformerOptions}
+     * @throws MimeTypeNotSupportedException    the extension does not supported
+     * @throws IOException                      when the image can not be read
+     */
+    public CachingImageTransformer(RenditionCache cache, Transformer transformer, InputStream inputStream,
+            String mimeType, TransformerOptions options) throws MimeTypeNotSupportedException, IOException {
+        TransformerOptions opts = options == null ? TransformerOptions.defaults() : options;
+        byte[] data = ImageStreams.readAll(inputStream);
+        this.cache = cache;
+        this.sourceHash = hex(sha256(data));
+        this.variant = (mimeType == null ? "" : mimeType.toLowerCase()) + '|' + transformer + '|' + opts;
+        this.sourceKey = hex(sha256((sourceHash + '|' + variant).getBytes(StandardCharsets.UTF_8)));
+        ImageTransformer kept = cache.source(sourceKey);
+        if (kept != null) {
+            this.delegate = kept;
+            this.ownsDelegate = false;
+        } else {
+            ImageTransformer built = ImageTransformerFactory.buildImageTransformer(transformer,
+                    new ByteArrayInputStream(data), mimeType, opts);
+            long weight = built instanceof AbstractImageTransformer
+                    ? ((AbstractImageTransformer<?>) built).getImageInfo().getPixels()*4 : Long.MAX_VALUE;
+            this.delegate = built;
+            this.ownsDelegate = !cache.keepSource(sourceKey, built, weight);
+        }
+        this.renditionHash = cache.isDeduplicating() ? canonicalSource(cache, sourceHash, delegate) : sourceHash;
+    }
+
+    private static String canonicalSource(RenditionCache cache, String sourceHash, ImageTransformer transformer) {
+        if (!(transformer instanceof AbstractImageTransformer)) return sourceHash;
+        AbstractImageTransformer<?> source = (AbstractImageTransformer<?>) transformer;
+        try {
+            long hash = source.perceptualHash(PerceptualHash.Algorithm.PHASH);
+            return cache.canonicalSource(sourceHash, hash, source.getImageInfo().getWidth(),
+                    source.getImageInfo().getHeight());
+        } catch (IOException e) {
+            // the operations report the broken image
+            return sourceHash;
+        }
+    }
+
+    /**
+     * @return  The SHA-256 of the source bytes, hex encoded
+     */
+    public String getSourceHash() {
+        return sourceHash;
+    }
+
+    /**
+     * @return  The content hash the renditions are cached under, the one of a near duplicate seen earlier or
+     *          {@link #getSourceHash()}
+     */
+    public String getRenditionHash() {
+        return renditionHash;
+    }
+
+    /**
+     * Plans are cached under their steps, a miss runs the same steps on the delegate.
+     */
+    @Override
+    public TransformPlan plan() {
+        return new TransformPlan(new TransformPlan.Runner() {
+            @Override
+            public ByteArrayOutputStream encode(TransformPlan plan, EncodeOptions encodeOptions) throws IOException {
+                return cached("plan", plan + "|" + encodeOptions,
+                        () -> delegate.plan().then(plan).encode(encodeOptions));
+            }
+
+            @Override
+            public void encode(TransformPlan plan, EncodeOptions encodeOptions, OutputStream outputStream)
+                    throws IOException {
+                encode(plan, encodeOptions).writeTo(outputStream);
+            }
+        });
+    }
+
+    @Override
+    public ByteArrayOutputStream resize(FrameProperties frame) throws IOException {
+        return cached("resize", ImageTransformer.renditionKey(frame), () -> delegate.resize(frame));
+    }
+
+    @Override
+    public ByteArrayOutputStream resize(int width, int height) throws IOException {
+        return cached("resize", width + "x" + height, () -> delegate.resize(width, height));
+    }
+
+    @Override
+    public ByteArrayOutputStream scale(double scale) throws IOException {
+        return cached("scale", Double.toString(scale), () -> delegate.scale(scale));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleByWidth(FrameProperties frame) throws IOException {
+        return cached("scaleByWidth", ImageTransformer.renditionKey(frame), () -> delegate.scaleByWidth(frame));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleByWidth(int width) throws IOException {
+        return cached("scaleByWidth", width + "x", () -> delegate.scaleByWidth(width));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleByHeight(FrameProperties frame) throws IOException {
+        return cached("scaleByHeight", ImageTransformer.renditionKey(frame), () -> delegate.scaleByHeight(frame));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleByHeight(int height) throws IOException {
+        return cached("scaleByHeight", "x" + height, () -> delegate.scaleByHeight(height));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleDown(FrameProperties frame) throws IOException {
+        return cached("scaleDown", ImageTransformer.renditionKey(frame), () -> delegate.scaleDown(frame));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleDown(int width, int height) throws IOException {
+        return cached("scaleDown", width + "x" + height, () -> delegate.scaleDown(width, height));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleDownWithBackground(FrameProperties frame) throws IOException {
+        return scaleDownWithBackground(frame, Color.WHITE);
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleDownWithBackground(FrameProperties frame, Color bgColor) throws IOException {
+        return cached("scaleDownWithBackground", ImageTransformer.renditionKey(frame) + '|' + bgColor.getRGB(),
+                () -> delegate.scaleDownWithBackground(frame, bgColor));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleDownWithBackground(int width, int height) throws IOException {
+        return scaleDownWithBackground(width, height, Color.WHITE);
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleDownWithBackground(int width, int height, Color bgColor) throws IOException {
+        return cached("scaleDownWithBackground", width + "x" + height + '|' + bgColor.getRGB(),
+                () -> delegate.scaleDownWithBackground(width, height, bgColor));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleUp(FrameProperties frame) throws IOException {
+        return cached("scaleUp", ImageTransformer.renditionKey(frame), () -> delegate.scaleUp(frame));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleUp(int width, int height) throws IOException {
+        return cached("scaleUp", width + "x" + height, () -> delegate.scaleUp(width, height));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleUpAndCrop(FrameProperties frame) throws IOException {
+        return cached("scaleUpAndCrop", ImageTransformer.renditionKey(frame), () -> delegate.scaleUpAndCrop(frame));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleUpAndCrop(int width, int height) throws IOException {
+        return cached("scaleUpAndCrop", width + "x" + height, () -> delegate.scaleUpAndCrop(width, height));
+    }
+
+    @Override
+    public void resize(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        cached("resize", ImageTransformer.renditionKey(frame) + '|' + encodeOptions,
+                () -> delegate.resize(frame, encodeOptions)).writeTo(outputStream);
+    }
+
+    @Override
+    public void scaleByWidth(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        cached("scaleByWidth", ImageTransformer.renditionKey(frame) + '|' + encodeOptions,
+                () -> delegate.scaleByWidth(frame, encodeOptions)).writeTo(outputStream);
+    }
+
+    @Override
+    public void scaleByHeight(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        cached("scaleByHeight", ImageTransformer.renditionKey(frame) + '|' + encodeOptions,
+                () -> delegate.scaleByHeight(frame, encodeOptions)).writeTo(outputStream);
+    }
+
+    @Override
+    public void scaleDown(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        cached("scaleDown", ImageTransformer.renditionKey(frame) + '|' + encodeOptions,
+                () -> delegate.scaleDown(frame, encodeOptions)).writeTo(outputStream);
+    }
+
+    @Override
+    public void scaleDownWithBackground(FrameProperties frame, Color bgColor, EncodeOptions encodeOptions,
+            OutputStream outputStream) throws IOException {
+        String arguments = ImageTransformer.renditionKey(frame) + '|' + bgColor.getRGB() + '|' + encodeOptions;
+        cached("scaleDownWithBackground", arguments,
+                () -> delegate.scaleDownWithBackground(frame, bgColor, encodeOptions)).writeTo(outputStream);
+    }
+
+    @Override
+    public void scaleUp(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        cached("scaleUp", ImageTransformer.renditionKey(frame) + '|' + encodeOptions,
+                () -> delegate.scaleUp(frame, encodeOptions)).writeTo(outputStream);
+    }
+
+    @Override
+    public void scaleUpAndCrop(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        cached("scaleUpAndCrop", ImageTransformer.renditionKey(frame) + '|' + encodeOptions,
+                () -> delegate.scaleUpAndCrop(frame, encodeOptions)).writeTo(outputStream);
+    }
+
+    /**
+     * Renditions are cached as {@link #scaleDown(FrameProperties)} results, the misses are produced together
+     * so the delegate still decodes once and cascades.
+     */
+    @Override
+    public Map<String, ByteArrayOutputStream> renditions(List<? extends FrameProperties> frames) throws IOException {
+        Map<String, ByteArrayOutputStream> renditions = new LinkedHashMap<>();
+        List<FrameProperties> missing = new ArrayList<>();
+        for (FrameProperties frame : frames) {
+            String renditionKey = ImageTransformer.renditionKey(frame);
+            ByteBuffer hit = cache.get(key("scaleDown", renditionKey));
+            renditions.put(renditionKey, hit == null ? null : toOutputStream(hit));
+            if (hit == null) missing.add(frame);
+        }
+        if (!missing.isEmpty()) {
+            for (Map.Entry<String, ByteArrayOutputStream> rendition : delegate.renditions(missing).entrySet()) {
+                cache.put(key("scaleDown", rendition.getKey()), rendition.getValue().toByteArray());
+                renditions.put(rendition.getKey(), rendition.getValue());
+            }
+        }
+        return renditions;
+    }
+
+    private ByteArrayOutputStream cached(String operation, String arguments, Loader loader) throws IOException {
+        String key = key(operation, arguments);
+        ByteBuffer hit = cache.get(key);
+        if (hit != null) return toOutputStream(hit);
+        ByteArrayOutputStream outputStream = loader.load();
+        cache.put(key, outputStream.toByteArray());
+        return outputStream;
+    }
+
+    private String key(String operation, String arguments) {
+        String key = renditionHash + '|' + variant + '|' + operation + '|' + arguments;
+        return hex(sha256(key.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (ownsDelegate) {
+            delegate.close();
+        } else {
+            cache.releaseSource(sourceKey, delegate);
+        }
+    }
+
+    private interface Loader {
+        ByteArrayOutputStream load() throws IOException;
+    }
+
+    private static ByteArrayOutputStream toOutputStream(ByteBuffer buffer) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(buffer.remaining());
+        if (buffer.hasArray()) {
+            outputStream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else {
+            byte[] chunk = new byte[Math.min(buffer.remaining(), 64*1024)];
+            ByteBuffer view = buffer.duplicate();
+            while (view.hasRemaining()) {
+                int length = Math.min(chunk.length, view.remaining());
+                view.get(chunk, 0, length);
+                outputStream.write(chunk, 0, length);
+            }
+        }
+        return outputStream;
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length*2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit(b >> 4 & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+}
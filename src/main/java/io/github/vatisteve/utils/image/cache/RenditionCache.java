@@ -0,0 +1,398 @@
+package io.github.vatisteve.utils.image.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.github.vatisteve.utils.image.ImageTransformer;
+import io.github.vatisteve.utils.image.hash.NearDuplicateIndex;
+import io.github.vatisteve.utils.image.hash.PerceptualHash;
+
+/**
+ * RenditionCache
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Shared store of encoded renditions for {@link CachingImageTransformer}.
+ * <p>      The heap tier is an LRU bounded by the total size of the cached bytes, not by the entry count.
+ *          The optional disk tier keeps one file per key, bounded by total file size too, and serves hits
+ *          through read-only memory-mapped {@link FileChannel}s.
+ * <p>      A third tier keeps the transformers of hot sources, bounded by their decoded pixel bytes,
+ *          so different operations on the same image decode it only once.
+ * <p>      Near duplicate sources of the same size, e.g. the same photo re-encoded by another client, can share
+ *          their renditions: the first one seen of a group names them and the others are served its renditions.
+ *          A resized copy is not shared, the results of <code>scale</code>, <code>scaleUp</code> and of the
+ *          calls returning the source as it is depend on the source size. The index of the sources naming
+ *          renditions keeps the {@value #MAX_ORIGINALS} used last.
+ * <p>      Thread-safe, meant to be shared by every transformer of the application.
+ */
+public class RenditionCache {
+
+    private static final String SUFFIX = ".bin";
+    private static final int MAX_ORIGINALS = 100_000;
+
+    private final long maxHeapBytes;
+    private final long maxDiskBytes;
+    private final long maxSourceBytes;
+    private final Path directory;
+    private final int duplicateDistance;
+
+    private final LinkedHashMap<String, byte[]> heap = new LinkedHashMap<>(64, 0.75f, true);
+    private final LinkedHashMap<String, Long> disk = new LinkedHashMap<>(64, 0.75f, true);
+    private final LinkedHashMap<String, SourceEntry> sources = new LinkedHashMap<>(16, 0.75f, true);
+    // evicted sources still used by a transformer, closed by the last one
+    private final Map<ImageTransformer, SourceEntry> retired = new IdentityHashMap<>();
+    private final NearDuplicateIndex<Original> originals = new NearDuplicateIndex<>();
+    // the same originals by content hash, least recently matched first
+    private final LinkedHashMap<String, Original> recentOriginals = new LinkedHashMap<>(16, 0.75f, true);
+    private long heapBytes;
+    private long diskBytes;
+    private long sourceBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong sourceHits = new AtomicLong();
+    private final AtomicLong duplicateHits = new AtomicLong();
+
+    /**
+     * @param maxHeapBytes  The budget of encoded bytes kept in heap
+     */
+    public RenditionCache(long maxHeapBytes) {
+        this(maxHeapBytes, 0, null, 0);
+    }
+
+    /**
+     * @param maxHeapBytes      The budget of encoded bytes kept in heap
+     * @param maxSourceBytes    The budget of decoded pixel bytes of the kept source transformers, 0 to disable
+     * @param directory         The disk tier directory, <code>null</code> to disable the disk tier
+     * @param maxDiskBytes      The budget of encoded bytes kept on disk
+     * @throws UncheckedIOException when the disk tier directory can not be created or listed
+     */
+    public RenditionCache(long maxHeapBytes, long maxSourceBytes, Path directory, long maxDiskBytes) {
+        this(maxHeapBytes, maxSourceBytes, directory, maxDiskBytes, -1);
+    }
+
+    /**
+     * @param maxHeapBytes      The budget of encoded bytes kept in heap
+     * @param maxSourceBytes    The budget of decoded pixel bytes of the kept source transformers, 0 to disable
+     * @param directory         The disk tier directory, <code>null</code> to disable the disk tier
+     * @param maxDiskBytes      The budget of encoded bytes kept on disk
+     * @param duplicateDistance The largest Hamming distance between the {@link PerceptualHash.Algorithm#PHASH}
+     *                          of two sources of the same size sharing their renditions, about 4 for
+     *                          re-encodes, -1 to disable
+     * @throws UncheckedIOException when the disk tier directory can not be created or listed
+     */
+    public RenditionCache(long maxHeapBytes, long maxSourceBytes, Path directory, long maxDiskBytes,
+            int duplicateDistance) {
+        this.maxHeapBytes = maxHeapBytes;
+        this.maxSourceBytes = maxSourceBytes;
+        this.directory = directory;
+        this.maxDiskBytes = directory == null ? 0 : maxDiskBytes;
+        this.duplicateDistance = duplicateDistance;
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+                // files of a previous run are still valid, their keys are content hashes
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                    for (Path file : files) {
+                        String name = file.getFileName().toString();
+                        long size = Files.size(file);
+                        disk.put(name.substring(0, name.length() - SUFFIX.length()), size);
+                        diskBytes += size;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * @param key   The rendition key
+     * @return      The read-only encoded rendition, <code>null</code> on miss
+     * @throws IOException when the disk tier can not be read
+     */
+    public ByteBuffer get(String key) throws IOException {
+        byte[] bytes;
+        synchronized (heap) {
+            bytes = heap.get(key);
+        }
+        if (bytes != null) {
+            hits.incrementAndGet();
+            return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+        }
+        if (directory != null) {
+            boolean present;
+            synchronized (disk) {
+                present = disk.get(key) != null;
+            }
+            if (present) {
+                try (FileChannel channel = FileChannel.open(file(key), StandardOpenOption.READ)) {
+                    ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    diskHits.incrementAndGet();
+                    return mapped;
+                } catch (NoSuchFileException e) {
+                    // evicted concurrently
+                }
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * @param key   The rendition key
+     * @param bytes The encoded rendition, not copied, it must not be modified afterwards
+     * @throws IOException when the disk tier can not be written
+     */
+    public void put(String key, byte[] bytes) throws IOException {
+        if (bytes.length <= maxHeapBytes) {
+            synchronized (heap) {
+                byte[] previous = heap.put(key, bytes);
+                heapBytes += bytes.length - (previous == null ? 0 : previous.length);
+                Iterator<byte[]> eldest = heap.values().iterator();
+                while (heapBytes > maxHeapBytes && eldest.hasNext()) {
+                    heapBytes -= eldest.next().length;
+                    eldest.remove();
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+        if (directory != null && bytes.length <= maxDiskBytes) {
+            synchronized (disk) {
+                if (disk.containsKey(key)) return;
+            }
+            Path temp = Files.createTempFile(directory, "put", ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (disk) {
+                Long previous = disk.put(key, (long) bytes.length);
+                diskBytes += bytes.length - (previous == null ? 0 : previous);
+                Iterator<Map.Entry<String, Long>> eldest = disk.entrySet().iterator();
+                while (diskBytes > maxDiskBytes && eldest.hasNext()) {
+                    Map.Entry<String, Long> entry = eldest.next();
+                    diskBytes -= entry.getValue();
+                    eldest.remove();
+                    Files.deleteIfExists(file(entry.getKey()));
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * @param key   The source key
+     * @return      The kept transformer of the source, <code>null</code> when not kept,
+     *              {@link #releaseSource(String, ImageTransformer)} must follow
+     */
+    ImageTransformer source(String key) {
+        synchronized (sources) {
+            SourceEntry entry = sources.get(key);
+            if (entry == null) return null;
+            sourceHits.incrementAndGet();
+            entry.users++;
+            return entry.transformer;
+        }
+    }
+
+    /**
+     * @param key           The source key
+     * @param transformer   A kept transformer not used anymore by the caller,
+     *                      closed when it was evicted and this was its last user
+     */
+    void releaseSource(String key, ImageTransformer transformer) {
+        synchronized (sources) {
+            SourceEntry entry = sources.get(key);
+            if (entry == null || entry.transformer != transformer) entry = retired.get(transformer);
+            if (entry == null || --entry.users > 0) return;
+            if (retired.remove(transformer) != null) close(transformer);
+        }
+    }
+
+    /**
+     * @param key           The source key
+     * @param transformer   The transformer of the source, closed once evicted and released by every user
+     * @param weight        The decoded pixel bytes of the source
+     * @return              <code>true</code> when kept, the cache then owns <code>transformer</code>,
+     *                      {@link #releaseSource(String, ImageTransformer)} must follow
+     */
+    boolean keepSource(String key, ImageTransformer transformer, long weight) {
+        if (weight > maxSourceBytes) return false;
+        synchronized (sources) {
+            if (sources.containsKey(key)) return false;
+            SourceEntry kept = new SourceEntry(transformer, weight);
+            kept.users = 1;
+            sources.put(key, kept);
+            sourceBytes += weight;
+            Iterator<SourceEntry> eldest = sources.values().iterator();
+            while (sourceBytes > maxSourceBytes && eldest.hasNext()) {
+                SourceEntry entry = eldest.next();
+                sourceBytes -= entry.weight;
+                eldest.remove();
+                evictions.incrementAndGet();
+                if (entry.users > 0) {
+                    retired.put(entry.transformer, entry);
+                } else {
+                    close(entry.transformer);
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @return  <code>true</code> when near duplicate sources share their renditions
+     */
+    boolean isDeduplicating() {
+        return duplicateDistance >= 0;
+    }
+
+    /**
+     * Only a near duplicate of the same width and height is taken: the renditions are keyed by the operation
+     * and its arguments, several of them depend on the source size. Taking an original marks it used, the
+     * least recently used one is dropped from the index beyond {@value #MAX_ORIGINALS}.
+     *
+     * @param sourceHash    The content hash of the source
+     * @param hash          The {@link PerceptualHash.Algorithm#PHASH} of the source
+     * @param width         The source width
+     * @param height        The source height
+     * @return              The content hash naming the renditions of the source: the one of an earlier near
+     *                      duplicate, or <code>sourceHash</code> which is indexed then
+     */
+    String canonicalSource(String sourceHash, long hash, int width, int height) {
+        synchronized (recentOriginals) {
+            for (NearDuplicateIndex.Match<Original> match : originals.search(hash, duplicateDistance)) {
+                Original original = match.getValue();
+                if (original.sourceHash.equals(sourceHash)) {
+                    recentOriginals.get(sourceHash);
+                    return sourceHash;
+                }
+                if (original.width == width && original.height == height) {
+                    recentOriginals.get(original.sourceHash);
+                    duplicateHits.incrementAndGet();
+                    return original.sourceHash;
+                }
+            }
+            Original original = new Original(sourceHash, hash, width, height);
+            originals.add(hash, original);
+            recentOriginals.put(sourceHash, original);
+            Iterator<Original> eldest = recentOriginals.values().iterator();
+            while (recentOriginals.size() > MAX_ORIGINALS) {
+                Original dropped = eldest.next();
+                eldest.remove();
+                originals.remove(dropped.hash, dropped);
+            }
+            return sourceHash;
+        }
+    }
+
+    /**
+     * @return  The sources indexed as originals of near duplicates
+     */
+    int getOriginals() {
+        synchronized (recentOriginals) {
+            return recentOriginals.size();
+        }
+    }
+
+    private static void close(ImageTransformer transformer) {
+        try {
+            transformer.close();
+        } catch (IOException e) {
+            // nothing left to release
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getSourceHits() {
+        return sourceHits.get();
+    }
+
+    /**
+     * @return  The sources served the renditions of a near duplicate
+     */
+    public long getDuplicateHits() {
+        return duplicateHits.get();
+    }
+
+    public long getHeapBytes() {
+        synchronized (heap) {
+            return heapBytes;
+        }
+    }
+
+    public long getDiskBytes() {
+        synchronized (disk) {
+            return diskBytes;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RenditionCache[hits=%d, diskHits=%d, misses=%d, evictions=%d, sourceHits=%d, duplicateHits=%d, heap=%d B, disk=%d B]",
+                getHits(), getDiskHits(), getMisses(), getEvictions(), getSourceHits(), getDuplicateHits(),
+                getHeapBytes(), getDiskBytes());
+    }
+
+    private static final class SourceEntry {
+
+        private final ImageTransformer transformer;
+        private final long weight;
+        private int users;
+
+        private SourceEntry(ImageTransformer transformer, long weight) {
+            this.transformer = transformer;
+            this.weight = weight;
+        }
+    }
+
+    private static final class Original {
+
+        private final String sourceHash;
+        private final long hash;
+        private final int width;
+        private final int height;
+
+        private Original(String sourceHash, long hash, int width, int height) {
+            this.sourceHash = sourceHash;
+            this.hash = hash;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+}
@@ -0,0 +1,458 @@
+package io.github.vatisteve.utils.image.engine;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import io.github.vatisteve.utils.image.EncodeOptions;
+import io.github.vatisteve.utils.image.FrameProperties;
+import io.github.vatisteve.utils.image.ImageStreams;
+import io.github.vatisteve.utils.image.ImageTransformer;
+import io.github.vatisteve.utils.image.ImageTransformerFactory;
+import io.github.vatisteve.utils.image.MimeTypeNotSupportedException;
+import io.github.vatisteve.utils.image.TransformPlan;
+import io.github.vatisteve.utils.image.TransformerOptions;
+
+/**
+ * AutoImageTransformer
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      {@link ImageTransformer} running every operation on the engine its {@link CostModel} expects to be the
+ *          fastest for the format, the size of the image and the {@link EngineOperation}.
+ * <p>      The first operation picks the engine and decodes the image with it, its time, decode and encode
+ *          included, is recorded in the model. The next operations reuse that engine, the image being decoded
+ *          already, unless it does not run them: another engine is then chosen the same way.
+ * <p>      Thread-safe like the engine transformers: concurrent first operations may each build a transformer of
+ *          the same engine, only the first one kept is used and the others are closed before any decode.
+ */
+public class AutoImageTransformer implements ImageTransformer {
+
+    private final List<ImageTransformerEngine> engines;
+    private final CostModel costModel;
+    private final byte[] data;
+    private final String mimeType;
+    private final long pixels;
+    private final TransformerOptions options;
+    private final ConcurrentMap<String, ImageTransformer> delegates = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * Chooses among the engines of the {@link EngineRegistry} with the {@link CostModel#shared() shared} model
+     *
+     * @param inputStream   The image input stream data
+     * @param mimeType      The image extension
+     * @param options       The {@link TransformerOptions}
+     * @throws MimeTypeNotSupportedException    no engine supports the extension
+     * @throws IOException                      when the image header can not be read
+     */
+    public AutoImageTransformer(InputStream inputStream, String mimeType, TransformerOptions options)
+            throws MimeTypeNotSupportedException, IOException {
+        this(EngineRegistry.engines(), CostModel.shared(), inputStream, mimeType, options);
+    }
+
+    /**
+     * @param engines       The engines to choose from
+     * @param costModel     The {@link CostModel} choosing and learning
+     * @param inputStream   The image input stream data
+     * @param mimeType      The image extension
+     * @param options       The {@link TransformerOptions}
+     * @throws MimeTypeNotSupportedException    none of the engines supports the extension
+     * @throws IOException                      when the image header can not be read
+     */
+    public AutoImageTransformer(List<ImageTransformerEngine> engines, CostModel costModel, InputStream inputStream,
+            String mimeType, TransformerOptions options) throws MimeTypeNotSupportedException, IOException {
+        List<ImageTransformerEngine> supporting = new ArrayList<>();
+        for (ImageTransformerEngine engine : engines) {
+            if (mimeType != null && engine.supports(mimeType, null)) supporting.add(engine);
+        }
+        if (supporting.isEmpty()) throw new MimeTypeNotSupportedException(mimeType);
+        this.engines = supporting;
+        this.costModel = costModel;
+        this.data = ImageStreams.readAll(inputStream);
+        this.mimeType = mimeType;
+        this.pixels = ImageTransformerFactory.probe(new ByteArrayInputStream(data)).getPixels();
+        this.options = options == null ? TransformerOptions.defaults() : options;
+    }
+
+    /**
+     * @return  The names of the engines which ran an operation so far
+     */
+    public List<String> getEnginesUsed() {
+        return new ArrayList<>(delegates.keySet());
+    }
+
+    @Override
+    public TransformPlan plan() {
+        return new TransformPlan(new TransformPlan.Runner() {
+            @Override
+            public ByteArrayOutputStream encode(TransformPlan plan, EncodeOptions encodeOptions) throws IOException {
+                return route(EngineOperation.PLAN, delegate -> delegate.plan().then(plan).encode(encodeOptions));
+            }
+
+            @Override
+            public void encode(TransformPlan plan, EncodeOptions encodeOptions, OutputStream outputStream)
+                    throws IOException {
+                route(EngineOperation.PLAN, delegate -> {
+                    delegate.plan().then(plan).encode(encodeOptions, outputStream);
+                    return null;
+                });
+            }
+        });
+    }
+
+    @Override
+    public ByteArrayOutputStream resize(FrameProperties frame) throws IOException {
+        return route(EngineOperation.RESIZE, delegate -> delegate.resize(frame));
+    }
+
+    @Override
+    public ByteArrayOutputStream resize(int width, int height) throws IOException {
+        return route(EngineOperation.RESIZE, delegate -> delegate.resize(width, height));
+    }
+
+    @Override
+    public ByteArrayOutputStream scale(double scale) throws IOException {
+        return route(EngineOperation.RESIZE, delegate -> delegate.scale(scale));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleByWidth(FrameProperties frame) throws IOException {
+        return route(EngineOperation.RESIZE, delegate -> delegate.scaleByWidth(frame));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleByWidth(int width) throws IOException {
+        return route(EngineOperation.RESIZE, delegate -> delegate.scaleByWidth(width));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleByHeight(FrameProperties frame) throws IOException {
+        return route(EngineOperation.RESIZE, delegate -> delegate.scaleByHeight(frame));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleByHeight(int height) throws IOException {
+        return route(EngineOperation.RESIZE, delegate -> delegate.scaleByHeight(height));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleDown(FrameProperties frame) throws IOException {
+        return route(EngineOperation.RESIZE, delegate -> delegate.scaleDown(frame));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleDown(int width, int height) throws IOException {
+        return route(EngineOperation.RESIZE, delegate -> delegate.scaleDown(width, height));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleDownWithBackground(FrameProperties frame) throws IOException {
+        return scaleDownWithBackground(frame, Color.WHITE);
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleDownWithBackground(FrameProperties frame, Color bgColor) throws IOException {
+        return route(EngineOperation.PAD, delegate -> delegate.scaleDownWithBackground(frame, bgColor));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleDownWithBackground(int width, int height) throws IOException {
+        return scaleDownWithBackground(width, height, Color.WHITE);
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleDownWithBackground(int width, int height, Color bgColor) throws IOException {
+        return route(EngineOperation.PAD, delegate -> delegate.scaleDownWithBackground(width, height, bgColor));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleUp(FrameProperties frame) throws IOException {
+        return route(EngineOperation.RESIZE, delegate -> delegate.scaleUp(frame));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleUp(int width, int height) throws IOException {
+        return route(EngineOperation.RESIZE, delegate -> delegate.scaleUp(width, height));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleUpAndCrop(FrameProperties frame) throws IOException {
+        return route(EngineOperation.CROP, delegate -> delegate.scaleUpAndCrop(frame));
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleUpAndCrop(int width, int height) throws IOException {
+        return route(EngineOperation.CROP, delegate -> delegate.scaleUpAndCrop(width, height));
+    }
+
+    @Override
+    public void resize(FrameProperties frame, OutputStream outputStream) throws IOException {
+        route(EngineOperation.RESIZE, delegate -> {
+            delegate.resize(frame, outputStream);
+            return null;
+        });
+    }
+
+    @Override
+    public void resize(FrameProperties frame, WritableByteChannel channel) throws IOException {
+        route(EngineOperation.RESIZE, delegate -> {
+            delegate.resize(frame, channel);
+            return null;
+        });
+    }
+
+    @Override
+    public void scaleByWidth(FrameProperties frame, OutputStream outputStream) throws IOException {
+        route(EngineOperation.RESIZE, delegate -> {
+            delegate.scaleByWidth(frame, outputStream);
+            return null;
+        });
+    }
+
+    @Override
+    public void scaleByWidth(FrameProperties frame, WritableByteChannel channel) throws IOException {
+        route(EngineOperation.RESIZE, delegate -> {
+            delegate.scaleByWidth(frame, channel);
+            return null;
+        });
+    }
+
+    @Override
+    public void scaleByHeight(FrameProperties frame, OutputStream outputStream) throws IOException {
+        route(EngineOperation.RESIZE, delegate -> {
+            delegate.scaleByHeight(frame, outputStream);
+            return null;
+        });
+    }
+
+    @Override
+    public void scaleByHeight(FrameProperties frame, WritableByteChannel channel) throws IOException {
+        route(EngineOperation.RESIZE, delegate -> {
+            delegate.scaleByHeight(frame, channel);
+            return null;
+        });
+    }
+
+    @Override
+    public void scaleDown(FrameProperties frame, OutputStream outputStream) throws IOException {
+        route(EngineOperation.RESIZE, delegate -> {
+            delegate.scaleDown(frame, outputStream);
+            return null;
+        });
+    }
+
+    @Override
+    public void scaleDown(FrameProperties frame, WritableByteChannel channel) throws IOException {
+        route(EngineOperation.RESIZE, delegate -> {
+            delegate.scaleDown(frame, channel);
+            return null;
+        });
+    }
+
+    @Override
+    public void scaleDownWithBackground(FrameProperties frame, OutputStream outputStream) throws IOException {
+        scaleDownWithBackground(frame, Color.WHITE, outputStream);
+    }
+
+    @Override
+    public void scaleDownWithBackground(FrameProperties frame, Color bgColor, OutputStream outputStream)
+            throws IOException {
+        route(EngineOperation.PAD, delegate -> {
+            delegate.scaleDownWithBackground(frame, bgColor, outputStream);
+            return null;
+        });
+    }
+
+    @Override
+    public void scaleDownWithBackground(FrameProperties frame, WritableByteChannel channel) throws IOException {
+        scaleDownWithBackground(frame, Color.WHITE, channel);
+    }
+
+    @Override
+    public void scaleDownWithBackground(FrameProperties frame, Color bgColor, WritableByteChannel channel)
+            throws IOException {
+        route(EngineOperation.PAD, delegate -> {
+            delegate.scaleDownWithBackground(frame, bgColor, channel);
+            return null;
+        });
+    }
+
+    @Override
+    public void scaleUp(FrameProperties frame, OutputStream outputStream) throws IOException {
+        route(EngineOperation.RESIZE, delegate -> {
+            delegate.scaleUp(frame, outputStream);
+            return null;
+        });
+    }
+
+    @Override
+    public void scaleUp(FrameProperties frame, WritableByteChannel channel) throws IOException {
+        route(EngineOperation.RESIZE, delegate -> {
+            delegate.scaleUp(frame, channel);
+            return null;
+        });
+    }
+
+    @Override
+    public void scaleUpAndCrop(FrameProperties frame, OutputStream outputStream) throws IOException {
+        route(EngineOperation.CROP, delegate -> {
+            delegate.scaleUpAndCrop(frame, outputStream);
+            return null;
+        });
+    }
+
+    @Override
+    public void scaleUpAndCrop(FrameProperties frame, WritableByteChannel channel) throws IOException {
+        route(EngineOperation.CROP, delegate -> {
+            delegate.scaleUpAndCrop(frame, channel);
+            return null;
+        });
+    }
+
+    @Override
+    public void resize(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        route(EngineOperation.RESIZE, delegate -> {
+            delegate.resize(frame, encodeOptions, outputStream);
+            return null;
+        });
+    }
+
+    @Override
+    public void scaleByWidth(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        route(EngineOperation.RESIZE, delegate -> {
+            delegate.scaleByWidth(frame, encodeOptions, outputStream);
+            return null;
+        });
+    }
+
+    @Override
+    public void scaleByHeight(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        route(EngineOperation.RESIZE, delegate -> {
+            delegate.scaleByHeight(frame, encodeOptions, outputStream);
+            return null;
+        });
+    }
+
+    @Override
+    public void scaleDown(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        route(EngineOperation.RESIZE, delegate -> {
+            delegate.scaleDown(frame, encodeOptions, outputStream);
+            return null;
+        });
+    }
+
+    @Override
+    public void scaleDownWithBackground(FrameProperties frame, Color bgColor, EncodeOptions encodeOptions,
+            OutputStream outputStream) throws IOException {
+        route(EngineOperation.PAD, delegate -> {
+            delegate.scaleDownWithBackground(frame, bgColor, encodeOptions, outputStream);
+            return null;
+        });
+    }
+
+    @Override
+    public void scaleUp(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        route(EngineOperation.RESIZE, delegate -> {
+            delegate.scaleUp(frame, encodeOptions, outputStream);
+            return null;
+        });
+    }
+
+    @Override
+    public void scaleUpAndCrop(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        route(EngineOperation.CROP, delegate -> {
+            delegate.scaleUpAndCrop(frame, encodeOptions, outputStream);
+            return null;
+        });
+    }
+
+    /**
+     * Routed whole, so the chosen engine still decodes once and cascades.
+     */
+    @Override
+    public Map<String, ByteArrayOutputStream> renditions(List<? extends FrameProperties> frames) throws IOException {
+        return route(EngineOperation.RENDITIONS, delegate -> delegate.renditions(frames));
+    }
+
+    private <T> T route(EngineOperation operation, Call<T> call) throws IOException {
+        if (closed) throw new IOException("The transformer is closed");
+        ImageTransformerEngine engine = engine(operation);
+        ImageTransformer delegate = delegates.get(engine.getName());
+        if (delegate != null) return call.apply(delegate);
+        long start = System.nanoTime();
+        try {
+            delegate = engine.create(new ByteArrayInputStream(data), mimeType, options);
+        } catch (MimeTypeNotSupportedException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        ImageTransformer kept = delegates.putIfAbsent(engine.getName(), delegate);
+        if (kept != null) {
+            // another call built one first, this one has only read the header
+            delegate.close();
+            return call.apply(kept);
+        }
+        if (closed) {
+            delegates.remove(engine.getName(), delegate);
+            delegate.close();
+            throw new IOException("The transformer is closed");
+        }
+        T result = call.apply(delegate);
+        // failures are not recorded, a broken image says nothing about the engine
+        costModel.record(engine.getName(), mimeType, pixels, operation, System.nanoTime() - start);
+        return result;
+    }
+
+    private ImageTransformerEngine engine(EngineOperation operation) throws IOException {
+        List<ImageTransformerEngine> candidates = new ArrayList<>();
+        for (ImageTransformerEngine engine : engines) {
+            if (engine.supports(mimeType, operation)) {
+                // an engine which decoded the image already wins, the decode is paid
+                if (delegates.containsKey(engine.getName())) return engine;
+                candidates.add(engine);
+            }
+        }
+        if (candidates.isEmpty()) {
+            throw new UnsupportedOperationException(String.format("No engine runs %s on %s", operation, mimeType));
+        }
+        return costModel.choose(candidates, mimeType, pixels, operation);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        IOException failure = null;
+        for (String name : new ArrayList<>(delegates.keySet())) {
+            ImageTransformer delegate = delegates.remove(name);
+            if (delegate == null) continue;
+            try {
+                delegate.close();
+            } catch (IOException e) {
+                if (failure == null) failure = e; else failure.addSuppressed(e);
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    @FunctionalInterface
+    private interface Call<T> {
+        T apply(ImageTransformer delegate) throws IOException;
+    }
+
+}
@@ -0,0 +1,279 @@
+package io.github.vatisteve.utils.image.engine;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.ImageIO;
+
+import io.github.vatisteve.utils.image.FrameProperties;
+import io.github.vatisteve.utils.image.ImageTransformer;
+import io.github.vatisteve.utils.image.Measure;
+import io.github.vatisteve.utils.image.MimeTypeNotSupportedException;
+import io.github.vatisteve.utils.image.TransformerOptions;
+
+/**
+ * CostModel
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Learns how long each {@link ImageTransformerEngine} takes, so the {@link AutoImageTransformer} can pick
+ *          the fastest one for an image. The cost is kept in nanoseconds per source pixel, as a moving average
+ *          weighting the last measures by the decay, for every engine, format, {@link EngineOperation} and size
+ *          class, a power of two of pixels apart. A size class not measured yet falls back on the average of
+ *          the engine over every size.
+ * <p>      An engine with no measure for the format and operation is tried first. Then the cheapest one is
+ *          chosen, except once every exploration interval where the engine measured the longest ago is tried
+ *          again, so a model following a changed load does not lock on a stale winner.
+ * <p>      The model starts empty and learns from the live calls, {@link #calibrate()} fills it ahead with a
+ *          short benchmark on synthetic images. Thread-safe.
+ */
+public final class CostModel {
+
+    public static final double DEFAULT_DECAY = 0.2;
+    public static final int DEFAULT_EXPLORATION_INTERVAL = 50;
+
+    private static final int ANY_SIZE = -1;
+    private static final int[][] CALIBRATION_SIZES = {{640, 480}, {1600, 1200}};
+    private static final String[] CALIBRATION_FORMATS = {"jpg", "png"};
+
+    private final double decay;
+    private final int explorationInterval;
+    private final ConcurrentMap<String, Estimate> estimates = new ConcurrentHashMap<>();
+    private final AtomicLong choices = new AtomicLong();
+    private final AtomicLong clock = new AtomicLong();
+
+    public CostModel() {
+        this(DEFAULT_DECAY, DEFAULT_EXPLORATION_INTERVAL);
+    }
+
+    /**
+     * @param decay                 The weight of a new measure in the moving average, in <code>(0, 1]</code>
+     * @param explorationInterval   Every how many choices the engine measured the longest ago is tried again,
+     *                              0 to never explore
+     */
+    public CostModel(double decay, int explorationInterval) {
+        if (!(decay > 0 && decay <= 1)) throw new IllegalArgumentException("The decay must be in (0, 1]");
+        if (explorationInterval < 0) throw new IllegalArgumentException("The interval can not be negative");
+        this.decay = decay;
+        this.explorationInterval = explorationInterval;
+    }
+
+    /**
+     * @return  The model of the transformers built with the <code>AUTO</code> engine, not calibrated
+     */
+    public static CostModel shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * @param engines   The candidates, all supporting the format and the operation
+     * @param mimeType  The image extension
+     * @param pixels    The pixels of the source image
+     * @param operation The {@link EngineOperation} to run
+     * @return          The engine to run the operation with
+     * @throws IllegalArgumentException when there is no candidate
+     */
+    public ImageTransformerEngine choose(List<ImageTransformerEngine> engines, String mimeType, long pixels,
+            EngineOperation operation) {
+        if (engines.isEmpty()) throw new IllegalArgumentException("No engine to choose from");
+        if (engines.size() == 1) return engines.get(0);
+        ImageTransformerEngine cheapest = null;
+        double lowest = Double.POSITIVE_INFINITY;
+        ImageTransformerEngine stalest = null;
+        long oldest = Long.MAX_VALUE;
+        for (ImageTransformerEngine engine : engines) {
+            Estimate estimate = lookup(engine.getName(), mimeType, pixels, operation);
+            if (estimate == null) return engine;
+            double nanosPerPixel = estimate.nanosPerPixel();
+            if (nanosPerPixel < lowest) {
+                lowest = nanosPerPixel;
+                cheapest = engine;
+            }
+            if (estimate.updated() < oldest) {
+                oldest = estimate.updated();
+                stalest = engine;
+            }
+        }
+        boolean explore = explorationInterval > 0 && choices.incrementAndGet()%explorationInterval == 0;
+        return explore ? stalest : cheapest;
+    }
+
+    /**
+     * @param engine    The name of the engine measured
+     * @param mimeType  The image extension
+     * @param pixels    The pixels of the source image
+     * @param operation The {@link EngineOperation} measured
+     * @param nanos     How long the operation took, decode and encode included
+     */
+    public void record(String engine, String mimeType, long pixels, EngineOperation operation, long nanos) {
+        if (pixels <= 0 || nanos < 0) return;
+        double nanosPerPixel = (double) nanos/pixels;
+        long now = clock.incrementAndGet();
+        estimates.computeIfAbsent(key(engine, mimeType, sizeClass(pixels), operation), k -> new Estimate())
+                .add(nanosPerPixel, decay, now);
+        estimates.computeIfAbsent(key(engine, mimeType, ANY_SIZE, operation), k -> new Estimate())
+                .add(nanosPerPixel, decay, now);
+    }
+
+    /**
+     * @param engine    The name of the engine
+     * @param mimeType  The image extension
+     * @param pixels    The pixels of the source image
+     * @param operation The {@link EngineOperation}
+     * @return          The expected nanoseconds of the operation, <code>NaN</code> when never measured
+     */
+    public double estimate(String engine, String mimeType, long pixels, EngineOperation operation) {
+        Estimate estimate = lookup(engine, mimeType, pixels, operation);
+        return estimate == null ? Double.NaN : estimate.nanosPerPixel()*pixels;
+    }
+
+    /**
+     * Forgets every measure
+     */
+    public void clear() {
+        estimates.clear();
+    }
+
+    /**
+     * Runs every operation of every engine of the {@link EngineRegistry} on synthetic JPEG and PNG photos of
+     * two sizes and records the times. Takes a few seconds, call it once at startup.
+     *
+     * @throws IOException  when an engine fails on the synthetic images
+     */
+    public void calibrate() throws IOException {
+        calibrate(EngineRegistry.engines());
+    }
+
+    /**
+     * @param engines       The engines to benchmark
+     * @throws IOException  when an engine fails on the synthetic images
+     * @see #calibrate()
+     */
+    public void calibrate(List<ImageTransformerEngine> engines) throws IOException {
+        for (int[] size : CALIBRATION_SIZES) {
+            BufferedImage image = syntheticPhoto(size[0], size[1]);
+            long pixels = (long) size[0]*size[1];
+            for (String format : CALIBRATION_FORMATS) {
+                ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+                if (!ImageIO.write(image, format, encoded)) continue;
+                byte[] data = encoded.toByteArray();
+                for (ImageTransformerEngine engine : engines) {
+                    for (EngineOperation operation : EngineOperation.values()) {
+                        if (!engine.supports(format, operation)) continue;
+                        if (size == CALIBRATION_SIZES[0]) {
+                            // warms the engine up on the small size, not recorded
+                            time(engine, data, format, operation, size[0]/3, size[1]/3);
+                        }
+                        record(engine.getName(), format, pixels, operation,
+                                time(engine, data, format, operation, size[0]/3, size[1]/3));
+                    }
+                }
+            }
+        }
+    }
+
+    private static long time(ImageTransformerEngine engine, byte[] data, String format, EngineOperation operation,
+            int width, int height) throws IOException {
+        long start = System.nanoTime();
+        try (ImageTransformer transformer = engine.create(new ByteArrayInputStream(data), format,
+                TransformerOptions.defaults())) {
+            switch (operation) {
+                case PAD:
+                    transformer.scaleDownWithBackground(width, height, Color.WHITE);
+                    break;
+                case CROP:
+                    transformer.scaleUpAndCrop(width, height);
+                    break;
+                case RENDITIONS:
+                    transformer.renditions(Arrays.asList(FrameProperties.of(width*2, height*2, Measure.PIXEL),
+                            FrameProperties.of(width, height, Measure.PIXEL),
+                            FrameProperties.of(width/4, height/4, Measure.PIXEL)));
+                    break;
+                case PLAN:
+                    transformer.plan().fit(width, height).encode();
+                    break;
+                default:
+                    transformer.scaleDown(width, height);
+            }
+        } catch (MimeTypeNotSupportedException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Gradients under seeded noise, compressing about like a photo
+     */
+    private static BufferedImage syntheticPhoto(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(width*31L + height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int noise = random.nextInt(24) - 12;
+                int r = clamp(x*255/width + noise);
+                int g = clamp(y*255/height + noise);
+                int b = clamp((x + y)*255/(width + height) + noise);
+                image.setRGB(x, y, r << 16 | g << 8 | b);
+            }
+        }
+        return image;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+
+    private Estimate lookup(String engine, String mimeType, long pixels, EngineOperation operation) {
+        Estimate estimate = estimates.get(key(engine, mimeType, sizeClass(pixels), operation));
+        return estimate != null ? estimate : estimates.get(key(engine, mimeType, ANY_SIZE, operation));
+    }
+
+    private static int sizeClass(long pixels) {
+        return 63 - Long.numberOfLeadingZeros(Math.max(1, pixels));
+    }
+
+    private static String key(String engine, String mimeType, int sizeClass, EngineOperation operation) {
+        // JPG and JPEG are the same decoder and encoder
+        String format = mimeType == null ? "" : mimeType.toUpperCase(Locale.ROOT);
+        if ("JPEG".equals(format)) format = "JPG";
+        return engine.toUpperCase(Locale.ROOT) + '|' + format + '|' + operation + '|' + sizeClass;
+    }
+
+    /**
+     * A moving average and when it was last updated
+     */
+    private static final class Estimate {
+
+        private double nanosPerPixel = Double.NaN;
+        private long updated;
+
+        synchronized void add(double measure, double decay, long now) {
+            nanosPerPixel = Double.isNaN(nanosPerPixel) ? measure : nanosPerPixel + decay*(measure - nanosPerPixel);
+            updated = now;
+        }
+
+        synchronized double nanosPerPixel() {
+            return nanosPerPixel;
+        }
+
+        synchronized long updated() {
+            return updated;
+        }
+    }
+
+    private static final class Shared {
+        private static final CostModel INSTANCE = new CostModel();
+    }
+
+}
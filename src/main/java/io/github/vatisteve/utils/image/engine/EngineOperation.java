@@ -0,0 +1,38 @@
+package io.github.vatisteve.utils.image.engine;
+
+import io.github.vatisteve.utils.image.ImageTransformer;
+
+/**
+ * EngineOperation
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      The kinds of {@link ImageTransformer} operations an {@link ImageTransformerEngine} declares and the
+ *          {@link CostModel} measures separately
+ */
+public enum EngineOperation {
+
+    /**
+     * One resample to the target size: <code>resize</code>, <code>scale*</code>, <code>scaleDown</code>,
+     * <code>scaleUp</code>
+     */
+    RESIZE,
+    /**
+     * A resample painted on a background: <code>scaleDownWithBackground</code>
+     */
+    PAD,
+    /**
+     * A resample cropped to the target: <code>scaleUpAndCrop</code>
+     */
+    CROP,
+    /**
+     * Several sizes from one decode: <code>renditions</code>
+     */
+    RENDITIONS,
+    /**
+     * Any <code>TransformPlan</code>
+     */
+    PLAN
+
+}
@@ -0,0 +1,73 @@
+package io.github.vatisteve.utils.image.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * EngineRegistry
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      The {@link ImageTransformerEngine}s found on the class path, loaded once in the order of their
+ *          <code>META-INF/services</code> entries. The built-in engines come first.
+ */
+public final class EngineRegistry {
+
+    private static volatile List<ImageTransformerEngine> engines;
+
+    private EngineRegistry() {}
+
+    /**
+     * @return  Every engine discovered, in discovery order
+     */
+    public static List<ImageTransformerEngine> engines() {
+        List<ImageTransformerEngine> loaded = engines;
+        if (loaded == null) {
+            synchronized (EngineRegistry.class) {
+                loaded = engines;
+                if (loaded == null) {
+                    List<ImageTransformerEngine> found = new ArrayList<>();
+                    for (ImageTransformerEngine engine : ServiceLoader.load(ImageTransformerEngine.class,
+                            ImageTransformerEngine.class.getClassLoader())) {
+                        if (engine(found, engine.getName()) == null) found.add(engine);
+                    }
+                    loaded = Collections.unmodifiableList(found);
+                    engines = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * @param name  The name of the engine, any case
+     * @return      The engine, <code>null</code> when none of that name was discovered
+     */
+    public static ImageTransformerEngine engine(String name) {
+        return engine(engines(), name);
+    }
+
+    /**
+     * @param mimeType  The image extension, <code>null</code> for any
+     * @param operation The {@link EngineOperation} to run, <code>null</code> for any
+     * @return          The engines supporting both, in discovery order
+     */
+    public static List<ImageTransformerEngine> supporting(String mimeType, EngineOperation operation) {
+        List<ImageTransformerEngine> supporting = new ArrayList<>();
+        for (ImageTransformerEngine engine : engines()) {
+            if (engine.supports(mimeType, operation)) supporting.add(engine);
+        }
+        return supporting;
+    }
+
+    private static ImageTransformerEngine engine(List<ImageTransformerEngine> engines, String name) {
+        for (ImageTransformerEngine engine : engines) {
+            if (engine.getName().equalsIgnoreCase(name)) return engine;
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,66 @@
+package io.github.vatisteve.utils.image.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+import io.github.vatisteve.utils.image.ImageTransformer;
+import io.github.vatisteve.utils.image.MimeTypeNotSupportedException;
+import io.github.vatisteve.utils.image.TransformerOptions;
+
+/**
+ * ImageTransformerEngine
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Service provider of an {@link ImageTransformer} implementation, discovered by the {@link EngineRegistry}
+ *          through <code>java.util.ServiceLoader</code>. Register an implementation by listing its class in
+ *          <code>META-INF/services/io.github.vatisteve.utils.image.engine.ImageTransformerEngine</code>, it needs
+ *          a public no-argument constructor.
+ * <p>      Implementations must be thread-safe, a single instance creates every transformer of the engine.
+ */
+public interface ImageTransformerEngine {
+
+    /**
+     * @return  The unique name of the engine, e.g. <code>MARVIN</code>, matched ignoring case
+     */
+    String getName();
+
+    /**
+     * @return  The upper case extensions the engine reads and writes, e.g. <code>JPG</code>
+     */
+    Set<String> getFormats();
+
+    /**
+     * @return  The {@link EngineOperation}s the engine runs, all of them by default
+     */
+    default Set<EngineOperation> getOperations() {
+        return Collections.unmodifiableSet(EnumSet.allOf(EngineOperation.class));
+    }
+
+    /**
+     * @param mimeType  The image extension, <code>null</code> for the engine default
+     * @param operation The {@link EngineOperation} to run, <code>null</code> for any
+     * @return          <code>true</code> when the engine can run <code>operation</code> on <code>mimeType</code>
+     */
+    default boolean supports(String mimeType, EngineOperation operation) {
+        return (mimeType == null || getFormats().contains(mimeType.toUpperCase(Locale.ROOT)))
+                && (operation == null || getOperations().contains(operation));
+    }
+
+    /**
+     * @param inputStream   The image input stream data
+     * @param mimeType      The image extension
+     * @param options       The {@link TransformerOptions}
+     * @return              A new {@link ImageTransformer} of the image
+     * @throws MimeTypeNotSupportedException    the extension does not supported
+     * @throws IOException                      when the image can not be read
+     */
+    ImageTransformer create(InputStream inputStream, String mimeType, TransformerOptions options)
+            throws MimeTypeNotSupportedException, IOException;
+
+}
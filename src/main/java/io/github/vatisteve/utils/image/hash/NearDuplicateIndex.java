@@ -0,0 +1,255 @@
+package io.github.vatisteve.utils.image.hash;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * NearDuplicateIndex
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      In-memory index of {@link PerceptualHash} values, finding every value whose hash is within a Hamming
+ *          distance of a query.
+ * <p>      Multi-index hashing: the 64 bits are cut in {@value #CHUNKS} chunks of 16 bits, each one indexed in its
+ *          own table. Two hashes within a distance <code>d</code> have at least one chunk within
+ *          <code>d/4</code> bits, so a query only reads the buckets of its chunks and of their few neighbours,
+ *          whatever the size of the index. Distances above {@value #MAX_PROBED_DISTANCE} scan every hash instead.
+ * <p>      Thread-safe. A removed value leaves a hole in the hash array until more than half of them are holes,
+ *          the index is then rebuilt.
+ *
+ * @param <V>   The value type, e.g. the content hash of the source
+ */
+public final class NearDuplicateIndex<V> {
+
+    private static final int CHUNKS = 4;
+    private static final int CHUNK_BITS = 16;
+    private static final int MAX_PROBED_DISTANCE = 11;
+
+    private final List<Map<Integer, Bucket>> tables = new ArrayList<>(CHUNKS);
+    private final List<V> values = new ArrayList<>();
+    private long[] hashes = new long[16];
+    private int removed;
+
+    public NearDuplicateIndex() {
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            tables.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * @param hash      The {@link PerceptualHash} of the value
+     * @param value     The indexed value, not <code>null</code>
+     */
+    public synchronized void add(long hash, V value) {
+        Objects.requireNonNull(value, "value");
+        int id = values.size();
+        if (id == hashes.length) hashes = Arrays.copyOf(hashes, id*2);
+        hashes[id] = hash;
+        values.add(value);
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            tables.get(chunk).computeIfAbsent(chunk(hash, chunk), key -> new Bucket()).add(id);
+        }
+    }
+
+    /**
+     * @param hash      The hash the value was indexed with
+     * @param value     The indexed value
+     * @return          <code>true</code> when it was indexed, only its first occurrence is removed
+     */
+    public synchronized boolean remove(long hash, V value) {
+        Bucket candidates = tables.get(0).get(chunk(hash, 0));
+        if (candidates == null) return false;
+        int found = -1;
+        for (int i = 0; i < candidates.size; i++) {
+            int id = candidates.ids[i];
+            if (hashes[id] == hash && value.equals(values.get(id)) && (found == -1 || id < found)) found = id;
+        }
+        if (found == -1) return false;
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            Map<Integer, Bucket> table = tables.get(chunk);
+            int key = chunk(hash, chunk);
+            Bucket bucket = table.get(key);
+            if (bucket.remove(found)) table.remove(key);
+        }
+        values.set(found, null);
+        if (++removed > values.size()/2) compact();
+        return true;
+    }
+
+    /**
+     * @param hash          The {@link PerceptualHash} looked for
+     * @param maxDistance   The largest Hamming distance accepted, inclusive
+     * @return              The matches, closest first then in insertion order
+     */
+    public synchronized List<Match<V>> search(long hash, int maxDistance) {
+        List<Match<V>> matches = new ArrayList<>();
+        if (maxDistance < 0) return matches;
+        if (maxDistance > MAX_PROBED_DISTANCE) {
+            for (int id = 0; id < values.size(); id++) {
+                collect(id, hash, maxDistance, matches);
+            }
+        } else {
+            BitSet seen = new BitSet(values.size());
+            int chunkDistance = maxDistance/CHUNKS;
+            for (int chunk = 0; chunk < CHUNKS; chunk++) {
+                probe(chunk, chunk(hash, chunk), 0, chunkDistance, hash, maxDistance, seen, matches);
+            }
+        }
+        Collections.sort(matches, Comparator.<Match<V>>comparingInt(Match::getDistance)
+                .thenComparingInt(match -> match.id));
+        return matches;
+    }
+
+    /**
+     * @param hash          The {@link PerceptualHash} looked for
+     * @param maxDistance   The largest Hamming distance accepted, inclusive
+     * @return              The closest match, <code>null</code> when none is close enough
+     */
+    public Match<V> nearest(long hash, int maxDistance) {
+        List<Match<V>> matches = search(hash, maxDistance);
+        return matches.isEmpty() ? null : matches.get(0);
+    }
+
+    /**
+     * @return  The number of indexed values
+     */
+    public synchronized int size() {
+        return values.size() - removed;
+    }
+
+    /**
+     * Drops every value
+     */
+    public synchronized void clear() {
+        for (Map<Integer, Bucket> table : tables) {
+            table.clear();
+        }
+        values.clear();
+        hashes = new long[16];
+        removed = 0;
+    }
+
+    /**
+     * Re-indexes the values left, in their insertion order
+     */
+    private void compact() {
+        long[] liveHashes = hashes;
+        List<V> liveValues = new ArrayList<>(values);
+        clear();
+        for (int id = 0; id < liveValues.size(); id++) {
+            if (liveValues.get(id) != null) add(liveHashes[id], liveValues.get(id));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NearDuplicateIndex[size=" + size() + "]";
+    }
+
+    /**
+     * Reads the bucket of <code>key</code> then flips one more of its bits above <code>fromBit</code>,
+     * up to <code>flips</code> bits, so every key within that distance is read once.
+     */
+    private void probe(int chunk, int key, int fromBit, int flips, long hash, int maxDistance, BitSet seen,
+            List<Match<V>> matches) {
+        Bucket bucket = tables.get(chunk).get(key);
+        if (bucket != null) {
+            for (int i = 0; i < bucket.size; i++) {
+                int id = bucket.ids[i];
+                if (seen.get(id)) continue;
+                seen.set(id);
+                collect(id, hash, maxDistance, matches);
+            }
+        }
+        if (flips == 0) return;
+        for (int bit = fromBit; bit < CHUNK_BITS; bit++) {
+            probe(chunk, key ^ 1 << bit, bit + 1, flips - 1, hash, maxDistance, seen, matches);
+        }
+    }
+
+    private void collect(int id, long hash, int maxDistance, List<Match<V>> matches) {
+        if (values.get(id) == null) return;
+        int distance = PerceptualHash.distance(hashes[id], hash);
+        if (distance <= maxDistance) matches.add(new Match<>(hashes[id], values.get(id), distance, id));
+    }
+
+    private static int chunk(long hash, int chunk) {
+        return (int) (hash >>> chunk*CHUNK_BITS) & 0xFFFF;
+    }
+
+    private static final class Bucket {
+
+        private int[] ids = new int[2];
+        private int size;
+
+        private void add(int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size*2);
+            ids[size++] = id;
+        }
+
+        /**
+         * @return  <code>true</code> when the bucket is empty afterwards
+         */
+        private boolean remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    break;
+                }
+            }
+            return size == 0;
+        }
+    }
+
+    /**
+     * One indexed value close to the query
+     *
+     * @param <V>   The value type
+     */
+    public static final class Match<V> {
+
+        private final long hash;
+        private final V value;
+        private final int distance;
+        private final int id;
+
+        private Match(long hash, V value, int distance, int id) {
+            this.hash = hash;
+            this.value = value;
+            this.distance = distance;
+            this.id = id;
+        }
+
+        /**
+         * @return  The hash the value was indexed with
+         */
+        public long getHash() {
+            return hash;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        /**
+         * @return  The Hamming distance to the query
+         */
+        public int getDistance() {
+            return distance;
+        }
+
+        @Override
+        public String toString() {
+            return "Match[value=" + value + ", distance=" + distance + "]";
+        }
+    }
+
+}
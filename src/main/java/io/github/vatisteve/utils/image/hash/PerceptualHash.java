@@ -0,0 +1,150 @@
+package io.github.vatisteve.utils.image.hash;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * PerceptualHash
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      64-bit hashes which stay close when an image is re-encoded, resized or slightly retouched, compared by
+ *          their {@link #distance(long, long) Hamming distance}.
+ * <p>      Only a fixed grid of points is read from the image, a few per cell of the hash grid, so a hash costs the
+ *          same few microseconds whatever the image size. Give it the decoded image or a subsampled decode.
+ */
+public final class PerceptualHash {
+
+    private static final int DCT_SIZE = 32;
+    private static final int DCT_KEPT = 8;
+    private static final double[][] COSINES = new double[DCT_KEPT][DCT_SIZE];
+
+    static {
+        for (int u = 0; u < DCT_KEPT; u++) {
+            for (int x = 0; x < DCT_SIZE; x++) {
+                COSINES[u][x] = Math.cos((2*x + 1)*u*Math.PI/(2*DCT_SIZE));
+            }
+        }
+    }
+
+    private PerceptualHash() {
+    }
+
+    /**
+     * @param image     The image
+     * @param algorithm The {@link Algorithm}
+     * @return          The hash of <code>image</code>
+     */
+    public static long of(BufferedImage image, Algorithm algorithm) {
+        return algorithm == Algorithm.PHASH ? pHash(image) : dHash(image);
+    }
+
+    /**
+     * Difference hash: the image is reduced to 9x8 grey cells and each bit tells whether a cell is brighter
+     * than its right neighbour.
+     *
+     * @param image     The image
+     * @return          The hash of <code>image</code>
+     */
+    public static long dHash(BufferedImage image) {
+        double[] grey = grey(image, 9, 8, 4);
+        long hash = 0;
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                if (grey[y*9 + x] > grey[y*9 + x + 1]) hash |= 1L << (y*8 + x);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * DCT hash: the image is reduced to 32x32 grey cells and each bit tells whether one of the 8x8 lowest
+     * frequencies of their cosine transform is above the median of them. It resists contrast changes and
+     * light filtering better than {@link #dHash(BufferedImage)}.
+     *
+     * @param image     The image
+     * @return          The hash of <code>image</code>
+     */
+    public static long pHash(BufferedImage image) {
+        double[] grey = grey(image, DCT_SIZE, DCT_SIZE, 2);
+        // separable transform, only the kept frequencies are computed
+        double[] rows = new double[DCT_SIZE*DCT_KEPT];
+        for (int y = 0; y < DCT_SIZE; y++) {
+            for (int u = 0; u < DCT_KEPT; u++) {
+                double sum = 0;
+                for (int x = 0; x < DCT_SIZE; x++) {
+                    sum += grey[y*DCT_SIZE + x]*COSINES[u][x];
+                }
+                rows[y*DCT_KEPT + u] = sum;
+            }
+        }
+        double[] coefficients = new double[DCT_KEPT*DCT_KEPT];
+        for (int v = 0; v < DCT_KEPT; v++) {
+            for (int u = 0; u < DCT_KEPT; u++) {
+                double sum = 0;
+                for (int y = 0; y < DCT_SIZE; y++) {
+                    sum += rows[y*DCT_KEPT + u]*COSINES[v][y];
+                }
+                coefficients[v*DCT_KEPT + u] = sum;
+            }
+        }
+        double[] sorted = coefficients.clone();
+        Arrays.sort(sorted);
+        double median = (sorted[31] + sorted[32])/2;
+        long hash = 0;
+        for (int i = 0; i < coefficients.length; i++) {
+            if (coefficients[i] > median) hash |= 1L << i;
+        }
+        return hash;
+    }
+
+    /**
+     * @param a     A hash
+     * @param b     Another hash of the same {@link Algorithm}
+     * @return      The number of differing bits, 0 to 64
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    /**
+     * @return  The mean luminance of each cell of the grid, transparent pixels blended over white
+     */
+    private static double[] grey(BufferedImage image, int gridWidth, int gridHeight, int samples) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double cellWidth = (double) width/gridWidth;
+        double cellHeight = (double) height/gridHeight;
+        double[] grey = new double[gridWidth*gridHeight];
+        for (int gy = 0; gy < gridHeight; gy++) {
+            for (int gx = 0; gx < gridWidth; gx++) {
+                double sum = 0;
+                for (int sy = 0; sy < samples; sy++) {
+                    int y = Math.min(height - 1, (int) ((gy + (sy + 0.5)/samples)*cellHeight));
+                    for (int sx = 0; sx < samples; sx++) {
+                        int x = Math.min(width - 1, (int) ((gx + (sx + 0.5)/samples)*cellWidth));
+                        int argb = image.getRGB(x, y);
+                        int alpha = argb >>> 24;
+                        double luminance = 0.299*(argb >> 16 & 0xFF) + 0.587*(argb >> 8 & 0xFF) + 0.114*(argb & 0xFF);
+                        sum += (luminance*alpha + 255.0*(255 - alpha))/255;
+                    }
+                }
+                grey[gy*gridWidth + gx] = sum/(samples*samples);
+            }
+        }
+        return grey;
+    }
+
+    /**
+     * The hash algorithms, hashes of different algorithms can not be compared
+     */
+    public enum Algorithm {
+
+        /** {@link PerceptualHash#dHash(BufferedImage)}, the cheapest */
+        DHASH,
+        /** {@link PerceptualHash#pHash(BufferedImage)}, the most robust */
+        PHASH
+    }
+
+}
@@ -0,0 +1,112 @@
+package io.github.vatisteve.utils.image.impl;
+
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriter;
+import javax.imageio.event.IIOReadProgressListener;
+import javax.imageio.event.IIOWriteProgressListener;
+
+import io.github.vatisteve.utils.image.CancellationToken;
+
+/**
+ * AbortListener
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Aborts an ImageIO read or write as soon as its {@link CancellationToken} is cancelled. The JDK readers
+ *          and writers report their progress every few rows and check the abort flag at the same place, a call
+ *          aborted that way returns early and the caller throws.
+ */
+final class AbortListener implements IIOReadProgressListener, IIOWriteProgressListener {
+
+    private final CancellationToken token;
+
+    private AbortListener(CancellationToken token) {
+        this.token = token;
+    }
+
+    /**
+     * @param reader    The reader to abort, its listener is dropped by <code>dispose</code>
+     * @param token     The {@link CancellationToken} watched
+     */
+    static void watch(ImageReader reader, CancellationToken token) {
+        if (token != CancellationToken.NONE) reader.addIIOReadProgressListener(new AbortListener(token));
+    }
+
+    /**
+     * @param writer    The writer to abort, its listener is dropped by <code>reset</code>
+     * @param token     The {@link CancellationToken} watched
+     */
+    static void watch(ImageWriter writer, CancellationToken token) {
+        if (token != CancellationToken.NONE) writer.addIIOWriteProgressListener(new AbortListener(token));
+    }
+
+    @Override
+    public void imageProgress(ImageReader source, float percentageDone) {
+        if (token.isCancelled()) source.abort();
+    }
+
+    @Override
+    public void thumbnailProgress(ImageReader source, float percentageDone) {
+        if (token.isCancelled()) source.abort();
+    }
+
+    @Override
+    public void imageProgress(ImageWriter source, float percentageDone) {
+        if (token.isCancelled()) source.abort();
+    }
+
+    @Override
+    public void thumbnailProgress(ImageWriter source, float percentageDone) {
+        if (token.isCancelled()) source.abort();
+    }
+
+    @Override
+    public void sequenceStarted(ImageReader source, int minIndex) {
+    }
+
+    @Override
+    public void sequenceComplete(ImageReader source) {
+    }
+
+    @Override
+    public void imageStarted(ImageReader source, int imageIndex) {
+    }
+
+    @Override
+    public void imageComplete(ImageReader source) {
+    }
+
+    @Override
+    public void thumbnailStarted(ImageReader source, int imageIndex, int thumbnailIndex) {
+    }
+
+    @Override
+    public void thumbnailComplete(ImageReader source) {
+    }
+
+    @Override
+    public void readAborted(ImageReader source) {
+    }
+
+    @Override
+    public void imageStarted(ImageWriter source, int imageIndex) {
+    }
+
+    @Override
+    public void imageComplete(ImageWriter source) {
+    }
+
+    @Override
+    public void thumbnailStarted(ImageWriter source, int imageIndex, int thumbnailIndex) {
+    }
+
+    @Override
+    public void thumbnailComplete(ImageWriter source) {
+    }
+
+    @Override
+    public void writeAborted(ImageWriter source) {
+    }
+
+}
@@ -0,0 +1,1102 @@
+package io.github.vatisteve.utils.image.impl;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+import io.github.vatisteve.utils.image.CancellationToken;
+import io.github.vatisteve.utils.image.Measure;
+import io.github.vatisteve.utils.image.EncodeOptions;
+import io.github.vatisteve.utils.image.FrameProperties;
+import io.github.vatisteve.utils.image.ImageInfo;
+import io.github.vatisteve.utils.image.ImageTooLargeException;
+import io.github.vatisteve.utils.image.ImageTransformer;
+import io.github.vatisteve.utils.image.MimeTypeNotSupportedException;
+import io.github.vatisteve.utils.image.OutputTooLargeException;
+import io.github.vatisteve.utils.image.PixelArena;
+import io.github.vatisteve.utils.image.ResampleFilter;
+import io.github.vatisteve.utils.image.TransformCancelledException;
+import io.github.vatisteve.utils.image.TransformPlan;
+import io.github.vatisteve.utils.image.TransformerOptions;
+import io.github.vatisteve.utils.image.hash.PerceptualHash;
+import io.github.vatisteve.utils.image.metrics.TransformEvent;
+import io.github.vatisteve.utils.image.metrics.TransformListener;
+import io.github.vatisteve.utils.image.metrics.TransformStage;
+
+/**
+ * AbstractImageTransformer
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      The operations shared by every engine: frame detection, lazy decoding, backgrounds, renditions and encoding.
+ * <p>      Engines only scale and crop their own image type <code>I</code>.
+ * <p>      Pixel buffers are leased from the {@link PixelArena} of the options: the ones leased by an operation
+ *          go back when it ends, the others and the source bytes when the transformer is closed.
+ * <p>      Each operation watches the {@link CancellationToken} of the options, bounded by their timeout, and is
+ *          refused up front when its estimated pixels are above their limit.
+ * <p>      Frames and plans are laid out on the upright image of the EXIF orientation. Decodes, crops and resamples
+ *          run on the pixels as stored, mapped back from the upright areas, and the result is turned upright
+ *          while copied out for the encoder or onto the canvas: only output pixels are ever remapped.
+ *
+ * @param <I>   The engine image type
+ */
+public abstract class AbstractImageTransformer<I> implements ImageTransformer {
+
+    private static final int HASH_PROXY_SIZE = 64;
+
+    private final ImageSource source;
+    private final int orientation;
+    protected final String formatName;
+    protected final TransformerOptions options;
+    protected final Resampler resampler;
+    private final Resampler frameResampler;
+    private final TransformListener listener;
+    private final PixelArena arena;
+    private final TransformPlan.Runner planRunner = new PlanRunner();
+    private final List<int[]> leases = new ArrayList<>();
+    private final ThreadLocal<Operation> operation = new ThreadLocal<>();
+    private final Map<PerceptualHash.Algorithm, Long> hashes = new EnumMap<>(PerceptualHash.Algorithm.class);
+    private I decoded;
+    private int decodedSubsampling;
+    private SaliencyMap saliency;
+
+    /**
+     * Only the image header is read here, pixels are decoded by the first operation which needs them.
+     *
+     * @param imageInputStream  The image input stream data
+     * @param mimeType          The image extension
+     * @param typesSupported    The upper case extensions supported by the engine
+     * @param options           The {@link TransformerOptions}
+     * @throws MimeTypeNotSupportedException    the extension does not supported
+     * @throws IOException                      when the image header can not be read
+     */
+    protected AbstractImageTransformer(InputStream imageInputStream, String mimeType, List<String> typesSupported,
+            TransformerOptions options) throws MimeTypeNotSupportedException, IOException {
+        if (mimeType != null && !typesSupported.contains(mimeType.toUpperCase())) {
+            throw new MimeTypeNotSupportedException(mimeType);
+        }
+        this.options = options == null ? TransformerOptions.defaults() : options;
+        this.arena = this.options.getArena();
+        this.source = new ImageSource(imageInputStream, arena);
+        this.orientation = this.options.isAutoOrient() ? source.getInfo().getOrientation() : 1;
+        this.formatName = mimeType == null ? "jpg" : mimeType;
+        this.resampler = this.options.getResampleFilter() == null ? null
+                : new Resampler(this.options.getResampleFilter(), ForkJoinPool.commonPool(), arena);
+        this.frameResampler = resampler != null ? resampler
+                : new Resampler(ResampleFilter.BILINEAR, ForkJoinPool.commonPool(), arena);
+        this.listener = this.options.getListener();
+    }
+
+    /**
+     * @param length    The needed length
+     * @return          A pixel array of at least <code>length</code>, not cleared, owned by the running operation
+     *                  or by the transformer until it is closed
+     */
+    protected int[] lease(int length) {
+        int[] pixels = arena.ints(length);
+        Operation scope = operation.get();
+        if (scope != null) {
+            scope.leases.add(pixels);
+        } else {
+            synchronized (leases) {
+                leases.add(pixels);
+            }
+        }
+        return pixels;
+    }
+
+    /**
+     * @param width     The image width
+     * @param height    The image height
+     * @param alpha     <code>true</code> for <code>TYPE_INT_ARGB</code>, <code>TYPE_INT_RGB</code> otherwise
+     * @return          An image backed by a {@link #lease(int)}, not cleared
+     */
+    protected BufferedImage leaseImage(int width, int height, boolean alpha) {
+        return Resampler.wrap(lease(width*height), width, height, alpha);
+    }
+
+    /**
+     * @param pixels    The packed source pixels, row by row
+     * @param sWidth    The source width
+     * @param sHeight   The source height
+     * @param width     The expected width
+     * @param height    The expected height
+     * @return          The pixels resampled by the in-house resampler into a {@link #lease(int)}, partly written
+     *                  when the operation is cancelled
+     */
+    protected int[] resamplePixels(int[] pixels, int sWidth, int sHeight, int width, int height) {
+        return resampler.resampleUntil(pixels, sWidth, sHeight, width, height, lease(width*height), cancellation());
+    }
+
+    /**
+     * @return  The {@link CancellationToken} of the running operation, the one of the options outside of them
+     */
+    protected CancellationToken cancellation() {
+        Operation scope = operation.get();
+        return scope != null ? scope.token : options.getCancellationToken();
+    }
+
+    /**
+     * @return  The operation starting, <code>null</code> when it runs inside another one
+     */
+    private Operation beginOperation() {
+        if (operation.get() != null) return null;
+        Operation scope = new Operation(options.getCancellationToken().withTimeout(options.getTimeout()));
+        operation.set(scope);
+        return scope;
+    }
+
+    private void endOperation(Operation scope) {
+        if (scope == null) return;
+        operation.remove();
+        for (int[] pixels : scope.leases) {
+            arena.release(pixels);
+        }
+    }
+
+    /**
+     * @param pixels    The estimated pixels decoded and written by the operation
+     * @throws ImageTooLargeException when they are above the limit of the options
+     */
+    private void checkPixels(long pixels) throws ImageTooLargeException {
+        if (pixels > options.getMaxPixels()) throw new ImageTooLargeException(pixels, options.getMaxPixels());
+    }
+
+    /**
+     * @return  The pixels of every frame of the source read and of the kept ones written at the given size
+     */
+    private long animationPixels(long writtenPixels) throws IOException {
+        int frames = source.getFrameCount();
+        int kept = GifAnimation.keptFrames(frames, options.getMaxFrames(), options.getFrameStep());
+        return frames*source.getInfo().getPixels() + kept*writtenPixels;
+    }
+
+    private static final class Operation {
+
+        private final List<int[]> leases = new ArrayList<>();
+        private final CancellationToken token;
+
+        private Operation(CancellationToken token) {
+            this.token = token;
+        }
+    }
+
+    /**
+     * @return  The source {@link ImageInfo}, read from the header only
+     */
+    public ImageInfo getImageInfo() {
+        return source.getInfo();
+    }
+
+    /**
+     * Hashed from the decoded image when there is one, from a decode subsampled to about {@value #HASH_PROXY_SIZE}
+     * pixels on its shortest side otherwise, then kept.
+     *
+     * @param algorithm     The {@link PerceptualHash.Algorithm}
+     * @return              The {@link PerceptualHash} of the source, of its first frame for an animation
+     * @throws IOException  when the image can not be decoded
+     */
+    public synchronized long perceptualHash(PerceptualHash.Algorithm algorithm) throws IOException {
+        Long hash = hashes.get(algorithm);
+        if (hash == null) {
+            BufferedImage proxy = decoded != null ? toBufferedImage(decoded)
+                    : source.decode(Math.max(1, Math.min(source.getWidth(), source.getHeight())/HASH_PROXY_SIZE),
+                            cancellation());
+            hash = PerceptualHash.of(upright(proxy), algorithm);
+            hashes.put(algorithm, hash);
+        }
+        return hash;
+    }
+
+    /**
+     * @param image     The decoded source image
+     * @return          The engine image
+     */
+    protected abstract I toEngineImage(BufferedImage image);
+
+    /**
+     * @param image     The engine image
+     * @return          The image without alpha channel, ready to encode
+     */
+    protected abstract BufferedImage toBufferedImage(I image);
+
+    protected abstract int widthOf(I image);
+
+    protected abstract int heightOf(I image);
+
+    /**
+     * @param imgIn     The engine image
+     * @param width     The expected width
+     * @param height    The expected height
+     * @return          The scaled image
+     */
+    protected abstract I scale(I imgIn, int width, int height);
+
+    /**
+     * @param imgIn     The engine image
+     * @param x         The left of the kept area
+     * @param y         The top of the kept area
+     * @param width     The width of the kept area
+     * @param height    The height of the kept area
+     * @return          The cropped image
+     */
+    protected abstract I crop(I imgIn, int x, int y, int width, int height);
+
+    /**
+     * @return  The full resolution image
+     * @throws IOException when the image can not be decoded
+     */
+    protected I image() throws IOException {
+        return image(source.getWidth(), source.getHeight());
+    }
+
+    /**
+     * Sources above the streaming threshold are decoded in strips straight to the target size instead,
+     * that image is not kept.
+     *
+     * @param targetWidth   The width the image will be resampled to
+     * @param targetHeight  The height the image will be resampled to
+     * @return              The decoded image, subsampled when enabled but never smaller than the target
+     * @throws IOException  when the image can not be decoded
+     */
+    protected synchronized I image(int targetWidth, int targetHeight) throws IOException {
+        if (decoded == null && isStreamed(targetWidth, targetHeight)) {
+            long start = startTime();
+            I streamed = toEngineImage(source.decodeInStrips(targetWidth, targetHeight, options.getStripPixels(),
+                    lease(targetWidth*targetHeight), cancellation()));
+            report(TransformStage.DECODE, source.getFormatName(), start, source.getInfo().getPixels(),
+                    (long) targetWidth*targetHeight, source.size());
+            return streamed;
+        }
+        int subsampling = options.isDecodeSubsampling() ? source.subsamplingFor(targetWidth, targetHeight) : 1;
+        if (decoded == null || decodedSubsampling > subsampling) {
+            // keep the finest decode only, it can serve every coarser request
+            long start = startTime();
+            decoded = toEngineImage(source.decode(subsampling, cancellation()));
+            decodedSubsampling = subsampling;
+            report(TransformStage.DECODE, source.getFormatName(), start, source.getInfo().getPixels(),
+                    (long) widthOf(decoded)*heightOf(decoded), source.size());
+        }
+        return decoded;
+    }
+
+    private boolean isStreamed(int targetWidth, int targetHeight) {
+        return source.getInfo().getPixels() >= options.getStreamingThreshold()
+                && targetWidth > 0 && targetHeight > 0
+                && targetWidth <= source.getWidth() && targetHeight <= source.getHeight()
+                && !isSourceSize(targetWidth, targetHeight);
+    }
+
+    /**
+     * @param region        The source area
+     * @param targetWidth   The width the area will be resampled to
+     * @param targetHeight  The height the area will be resampled to
+     * @return              The area cut from the decoded image when there is one, decoded alone otherwise
+     * @throws IOException  when the image can not be decoded
+     */
+    protected I image(Rectangle region, int targetWidth, int targetHeight) throws IOException {
+        int subsampling = options.isDecodeSubsampling()
+                ? Math.max(1, Math.min(region.width/targetWidth, region.height/targetHeight)) : 1;
+        synchronized (this) {
+            if (decoded != null && decodedSubsampling <= subsampling) {
+                int x = region.x/decodedSubsampling;
+                int y = region.y/decodedSubsampling;
+                return cropTo(decoded, x, y, Math.min(widthOf(decoded) - x, region.width/decodedSubsampling),
+                        Math.min(heightOf(decoded) - y, region.height/decodedSubsampling));
+            }
+        }
+        long start = startTime();
+        I area = toEngineImage(source.decode(region, subsampling, cancellation()));
+        report(TransformStage.DECODE, source.getFormatName(), start, (long) region.width*region.height,
+                (long) widthOf(area)*heightOf(area), source.size());
+        return area;
+    }
+
+    @Override
+    public TransformPlan plan() {
+        return new TransformPlan(planRunner);
+    }
+
+    @Override
+    public ByteArrayOutputStream resize(FrameProperties frame) throws IOException {
+        if (isRatioFrame(frame)) return original(options.getEncodeOptions());
+        return resize(frame.getWidth(), frame.getHeight());
+    }
+
+    @Override
+    public void resize(FrameProperties frame, OutputStream outputStream) throws IOException {
+        resize(frame, options.getEncodeOptions(), outputStream);
+    }
+
+    @Override
+    public void resize(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        if (isRatioFrame(frame)) {
+            original(encodeOptions, outputStream);
+        } else {
+            plan().resize(frame.getWidth(), frame.getHeight()).encode(encodeOptions, outputStream);
+        }
+    }
+
+    @Override
+    public ByteArrayOutputStream resize(int width, int height) throws IOException {
+        return plan().resize(width, height).encode();
+    }
+
+    @Override
+    public ByteArrayOutputStream scale(double scale) throws IOException {
+        int newWidth = (int) Math.round(scale*width());
+        int newHeight = (int) Math.round(scale*height());
+        return resize(newWidth, newHeight);
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleByWidth(FrameProperties frame) throws IOException {
+        if (isRatioFrame(frame)) return original(options.getEncodeOptions());
+        return scaleByWidth(frame.getWidth());
+    }
+
+    @Override
+    public void scaleByWidth(FrameProperties frame, OutputStream outputStream) throws IOException {
+        scaleByWidth(frame, options.getEncodeOptions(), outputStream);
+    }
+
+    @Override
+    public void scaleByWidth(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        if (isRatioFrame(frame)) {
+            original(encodeOptions, outputStream);
+        } else {
+            plan().scaleByWidth(frame.getWidth()).encode(encodeOptions, outputStream);
+        }
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleByWidth(int width) throws IOException {
+        return plan().scaleByWidth(width).encode();
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleByHeight(FrameProperties frame) throws IOException {
+        if (isRatioFrame(frame)) return original(options.getEncodeOptions());
+        return scaleByHeight(frame.getHeight());
+    }
+
+    @Override
+    public void scaleByHeight(FrameProperties frame, OutputStream outputStream) throws IOException {
+        scaleByHeight(frame, options.getEncodeOptions(), outputStream);
+    }
+
+    @Override
+    public void scaleByHeight(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        if (isRatioFrame(frame)) {
+            original(encodeOptions, outputStream);
+        } else {
+            plan().scaleByHeight(frame.getHeight()).encode(encodeOptions, outputStream);
+        }
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleByHeight(int height) throws IOException {
+        return plan().scaleByHeight(height).encode();
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleDown(FrameProperties frame) throws IOException {
+        frame = detectScaleDownFrame(frame);
+        return scaleDown(frame.getWidth(), frame.getHeight());
+    }
+
+    @Override
+    public void scaleDown(FrameProperties frame, OutputStream outputStream) throws IOException {
+        scaleDown(frame, options.getEncodeOptions(), outputStream);
+    }
+
+    @Override
+    public void scaleDown(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        FrameProperties newFrame = detectScaleDownFrame(frame);
+        plan().fit(newFrame.getWidth(), newFrame.getHeight()).encode(encodeOptions, outputStream);
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleDown(int width, int height) throws IOException {
+        return plan().fit(width, height).encode();
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleDownWithBackground(FrameProperties frame) throws IOException {
+        FrameProperties newFrame = detectScaleDownFrame(frame);
+        return scaleDownWithBackground(newFrame.getWidth(), newFrame.getHeight());
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleDownWithBackground(FrameProperties frame, Color bgColor) throws IOException {
+        FrameProperties newFrame = detectScaleDownFrame(frame);
+        return scaleDownWithBackground(newFrame.getWidth(), newFrame.getHeight(), bgColor);
+    }
+
+    @Override
+    public void scaleDownWithBackground(FrameProperties frame, OutputStream outputStream) throws IOException {
+        scaleDownWithBackground(frame, Color.WHITE, outputStream);
+    }
+
+    @Override
+    public void scaleDownWithBackground(FrameProperties frame, Color bgColor, OutputStream outputStream)
+            throws IOException {
+        scaleDownWithBackground(frame, bgColor, options.getEncodeOptions(), outputStream);
+    }
+
+    @Override
+    public void scaleDownWithBackground(FrameProperties frame, Color bgColor, EncodeOptions encodeOptions,
+            OutputStream outputStream) throws IOException {
+        FrameProperties newFrame = detectScaleDownFrame(frame);
+        plan().fit(newFrame.getWidth(), newFrame.getHeight()).pad(bgColor).encode(encodeOptions, outputStream);
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleDownWithBackground(int width, int height) throws IOException {
+        return scaleDownWithBackground(width, height, Color.WHITE);
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleDownWithBackground(int width, int height, Color bgColor) throws IOException {
+        return plan().fit(width, height).pad(bgColor).encode();
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleUp(FrameProperties frame) throws IOException {
+        FrameProperties newFrame = detectScaleUpFrame(frame);
+        return scaleUp(newFrame.getWidth(), newFrame.getHeight());
+    }
+
+    @Override
+    public void scaleUp(FrameProperties frame, OutputStream outputStream) throws IOException {
+        scaleUp(frame, options.getEncodeOptions(), outputStream);
+    }
+
+    @Override
+    public void scaleUp(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        FrameProperties newFrame = detectScaleUpFrame(frame);
+        plan().cover(newFrame.getWidth(), newFrame.getHeight()).encode(encodeOptions, outputStream);
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleUp(int width, int height) throws IOException {
+        return plan().cover(width, height).encode();
+    }
+
+    @Override
+    public ByteArrayOutputStream scaleUpAndCrop(FrameProperties frame) throws IOException {
+        FrameProperties newFrame = detectScaleUpFrame(frame);
+        return scaleUpAndCrop(newFrame.getWidth(), newFrame.getHeight());
+    }
+
+    @Override
+    public void scaleUpAndCrop(FrameProperties frame, OutputStream outputStream) throws IOException {
+        scaleUpAndCrop(frame, options.getEncodeOptions(), outputStream);
+    }
+
+    @Override
+    public void scaleUpAndCrop(FrameProperties frame, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        FrameProperties newFrame = detectScaleUpFrame(frame);
+        int width = newFrame.getWidth();
+        int height = newFrame.getHeight();
+        plan().cover(width, height).crop(width, height, options.getCropStrategy()).encode(encodeOptions, outputStream);
+    }
+
+    /**
+     * Only the source area kept by the crop is decoded, then resampled straight to the frame.
+     */
+    @Override
+    public ByteArrayOutputStream scaleUpAndCrop(int width, int height) throws IOException {
+        return plan().cover(width, height).crop(width, height, options.getCropStrategy()).encode();
+    }
+
+    private ByteArrayOutputStream execute(TransformPlan plan, EncodeOptions encodeOptions) throws IOException {
+        EncodeOptions encoding = encodeOptions == null ? options.getEncodeOptions() : encodeOptions;
+        Operation scope = beginOperation();
+        try {
+            PlanGeometry geometry = geometry(plan);
+            if (geometry.isIdentity()) return original(encoding);
+            if (isAnimation()) {
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream(ImageEncoder.estimateSize(formatName,
+                        geometry.getCanvasWidth(), geometry.getCanvasHeight()));
+                writeAnimation(plan, encoding, outputStream);
+                return outputStream;
+            }
+            return toByteArrayOutputStream(render(geometry), encoding);
+        } finally {
+            endOperation(scope);
+        }
+    }
+
+    private void execute(TransformPlan plan, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        EncodeOptions encoding = encodeOptions == null ? options.getEncodeOptions() : encodeOptions;
+        Operation scope = beginOperation();
+        try {
+            PlanGeometry geometry = geometry(plan);
+            if (geometry.isIdentity()) {
+                original(encoding, outputStream);
+            } else if (isAnimation()) {
+                writeAnimation(plan, encoding, outputStream);
+            } else {
+                write(render(geometry), encoding, outputStream, cancellation());
+            }
+        } finally {
+            endOperation(scope);
+        }
+    }
+
+    /**
+     * The cost is checked on the geometry without focus, the attention crop moves the decoded area but
+     * does not change its size.
+     */
+    private PlanGeometry geometry(TransformPlan plan) throws IOException {
+        PlanGeometry geometry = PlanGeometry.of(plan, width(), height());
+        if (!geometry.isIdentity()) {
+            Rectangle region = geometry.getRegion();
+            long canvas = (long) geometry.getCanvasWidth()*geometry.getCanvasHeight();
+            checkPixels(isAnimation() ? animationPixels(canvas) : (long) region.width*region.height + canvas);
+        }
+        PlanGeometry.Focus focus = focus(plan);
+        return focus == null ? geometry : PlanGeometry.of(plan, width(), height(), focus);
+    }
+
+    /**
+     * Decodes the source area, resamples it once to the target size and, only when the target does not
+     * fill the canvas, paints it once on the background. The geometry is upright, the area and the resample
+     * are stored ones, the copy out turns the result upright.
+     */
+    private BufferedImage render(PlanGeometry geometry) throws IOException {
+        Rectangle region = geometry.getRegion();
+        Rectangle target = geometry.getTarget();
+        boolean transposed = Orientation.isTransposed(orientation);
+        I image = null;
+        if (!target.isEmpty()) {
+            int targetWidth = transposed ? target.height : target.width;
+            int targetHeight = transposed ? target.width : target.height;
+            image = geometry.isFullSource() ? image(targetWidth, targetHeight)
+                    : image(Orientation.storedRegion(orientation, region, source.getWidth(), source.getHeight()),
+                            targetWidth, targetHeight);
+            image = resample(image, targetWidth, targetHeight);
+        }
+        if (image != null && geometry.coversCanvas()) {
+            return upright(image);
+        }
+        long start = startTime();
+        int width = geometry.getCanvasWidth();
+        int height = geometry.getCanvasHeight();
+        int[] pixels = lease(width*height);
+        BufferedImage canvas = Resampler.wrap(pixels, width, height, false);
+        Graphics2D graphics = canvas.createGraphics();
+        graphics.setColor(geometry.getBackground() == null ? Color.WHITE : geometry.getBackground());
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        if (image != null && orientation != 1) {
+            Orientation.copy(toBufferedImage(image), orientation, pixels, target.y*width + target.x, width);
+        } else if (image != null) {
+            paint(image, canvas, target.x, target.y);
+        }
+        report(TransformStage.COMPOSITE, formatName, start, (long) target.width*target.height,
+                (long) width*height, -1);
+        return canvas;
+    }
+
+    /**
+     * Engines holding packed pixels override it with a straight copy.
+     *
+     * @param image     The engine image, it fits in the canvas at <code>x, y</code>
+     * @param canvas    The <code>TYPE_INT_RGB</code> output
+     * @param x         The left of the image on the canvas
+     * @param y         The top of the image on the canvas
+     */
+    protected void paint(I image, BufferedImage canvas, int x, int y) {
+        Graphics2D graphics = canvas.createGraphics();
+        graphics.drawImage(toBufferedImage(image), x, y, null);
+        graphics.dispose();
+    }
+
+    /**
+     * @return  The {@link SaliencyMap} of the source when the plan has an attention crop, <code>null</code> otherwise
+     */
+    private PlanGeometry.Focus focus(TransformPlan plan) throws IOException {
+        return plan.contains(TransformPlan.Operation.CROP_ATTENTION) ? saliency() : null;
+    }
+
+    /**
+     * The map is built from the decoded source, which the render then crops from, or from a subsampled decode
+     * when the source is too big to be decoded whole.
+     */
+    private synchronized SaliencyMap saliency() throws IOException {
+        if (saliency == null) {
+            int width = width();
+            int height = height();
+            BufferedImage proxy = source.getInfo().getPixels() >= options.getStreamingThreshold()
+                    ? source.decode(Math.max(1, Math.max(width, height)/SaliencyMap.PROXY_SIZE), cancellation())
+                    : toBufferedImage(image());
+            saliency = SaliencyMap.of(proxy, orientation, width, height);
+        }
+        return saliency;
+    }
+
+    /**
+     * @return  <code>true</code> when the source is an animated GIF written as GIF with its animation
+     */
+    private boolean isAnimation() throws IOException {
+        return options.isAnimated() && ImageEncoder.sameFormat(formatName, "GIF") && source.getFrameCount() > 1;
+    }
+
+    /**
+     * Runs the plan on every kept frame in parallel, each frame composited on the full screen first.
+     */
+    private void writeAnimation(TransformPlan plan, EncodeOptions encodeOptions, OutputStream outputStream)
+            throws IOException {
+        PlanGeometry.Focus focus = focus(plan);
+        // the frames are transformed on the pool, out of the operation of this thread
+        CancellationToken token = cancellation();
+        GifAnimation animation = source.decodeAnimation(options.getMaxFrames(), options.getFrameStep(),
+                frame -> renderFrame(PlanGeometry.of(plan, frame.getWidth(), frame.getHeight(),
+                        isSourceSize(frame.getWidth(), frame.getHeight()) ? focus : null), frame, token), token);
+        List<BufferedImage> frames = animation.getFrames();
+        Integer maxBytes = encodeOptions.getMaxBytes();
+        if (listener == null && maxBytes == null) {
+            ImageEncoder.encodeAnimation(frames, animation.getDelays(), animation.getLoops(), encodeOptions,
+                    outputStream, token);
+            return;
+        }
+        long start = startTime();
+        CountingOutputStream countingOutputStream = new CountingOutputStream(outputStream);
+        ImageEncoder.encodeAnimation(frames, animation.getDelays(), animation.getLoops(), encodeOptions,
+                countingOutputStream, token);
+        long pixels = frames.isEmpty() ? 0 : (long) frames.get(0).getWidth()*frames.get(0).getHeight()*frames.size();
+        report(TransformStage.ENCODE, formatName, start, pixels, pixels, countingOutputStream.getCount());
+        // the frames have no quality to lower, the partial output is dropped by the caller
+        if (maxBytes != null && countingOutputStream.getCount() > maxBytes) {
+            throw new OutputTooLargeException(countingOutputStream.getCount(), maxBytes);
+        }
+    }
+
+    /**
+     * Same as {@link #render(PlanGeometry)} on one frame, keeping its transparency: the colors are premultiplied
+     * by the alpha while resampled, the uncovered canvas is transparent unless padded.
+     */
+    private BufferedImage renderFrame(PlanGeometry geometry, BufferedImage frame, CancellationToken token)
+            throws TransformCancelledException {
+        Rectangle region = geometry.getRegion();
+        Rectangle target = geometry.getTarget();
+        int[] pixels = null;
+        if (!target.isEmpty()) {
+            pixels = frame.getRGB(region.x, region.y, region.width, region.height, null, 0, region.width);
+            if (region.width != target.width || region.height != target.height) {
+                long start = startTime();
+                Resampler.premultiply(pixels);
+                pixels = frameResampler.resample(pixels, region.width, region.height, target.width, target.height,
+                        new int[target.width*target.height], token);
+                Resampler.unpremultiply(pixels);
+                report(TransformStage.RESAMPLE, formatName, start, (long) region.width*region.height,
+                        (long) target.width*target.height, -1);
+            }
+        }
+        if (pixels != null && geometry.coversCanvas()) {
+            return Resampler.wrap(pixels, target.width, target.height, true);
+        }
+        BufferedImage canvas = new BufferedImage(geometry.getCanvasWidth(), geometry.getCanvasHeight(),
+                BufferedImage.TYPE_INT_ARGB);
+        if (geometry.getBackground() != null) {
+            Graphics2D graphics = canvas.createGraphics();
+            graphics.setColor(geometry.getBackground());
+            graphics.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            graphics.dispose();
+        }
+        if (pixels != null) {
+            canvas.getRaster().setDataElements(target.x, target.y, target.width, target.height, pixels);
+        }
+        return canvas;
+    }
+
+    private final class PlanRunner implements TransformPlan.Runner {
+
+        @Override
+        public ByteArrayOutputStream encode(TransformPlan plan, EncodeOptions encodeOptions) throws IOException {
+            return execute(plan, encodeOptions);
+        }
+
+        @Override
+        public void encode(TransformPlan plan, EncodeOptions encodeOptions, OutputStream outputStream)
+                throws IOException {
+            execute(plan, encodeOptions, outputStream);
+        }
+    }
+
+    /**
+     * Decodes once, resamples the renditions from the biggest to the smallest, each one from the previous result,
+     * and encodes them in parallel while the next one is resampled.
+     */
+    @Override
+    public Map<String, ByteArrayOutputStream> renditions(List<? extends FrameProperties> frames) throws IOException {
+        List<Rendition> plan = new ArrayList<>(frames.size());
+        for (FrameProperties frame : frames) {
+            FrameProperties newFrame = detectScaleDownFrame(frame);
+            int[] size = PlanGeometry.fitSize(width(), height(), newFrame.getWidth(), newFrame.getHeight());
+            if (size == null) size = new int[] {width(), height()};
+            plan.add(new Rendition(ImageTransformer.renditionKey(frame), size[0], size[1]));
+        }
+        List<Rendition> cascade = new ArrayList<>(plan);
+        cascade.sort(Comparator.comparingLong(Rendition::area).reversed());
+        EncodeOptions encodeOptions = options.getEncodeOptions();
+        Operation scope = beginOperation();
+        try {
+            if (!isAnimation()) {
+                // every animated rendition is an operation checking its own cost
+                long pixels = source.getInfo().getPixels();
+                for (Rendition rendition : plan) {
+                    pixels += rendition.area();
+                }
+                checkPixels(pixels);
+            }
+            return renditions(plan, cascade, encodeOptions);
+        } finally {
+            // the encodes still running read leased pixels, wait for them even when one failed
+            for (Rendition rendition : cascade) {
+                if (rendition.output != null) rendition.output.handle((output, e) -> null).join();
+            }
+            endOperation(scope);
+        }
+    }
+
+    private Map<String, ByteArrayOutputStream> renditions(List<Rendition> plan, List<Rendition> cascade,
+            EncodeOptions encodeOptions) throws IOException {
+        I current = null;
+        // the encodes run on the pool, out of the operation of this thread
+        CancellationToken token = cancellation();
+        boolean transposed = Orientation.isTransposed(orientation);
+        for (Rendition rendition : cascade) {
+            // the cascade resamples the stored pixels, each rendition is turned upright as it is handed out
+            int width = transposed ? rendition.height : rendition.width;
+            int height = transposed ? rendition.width : rendition.height;
+            if (isSourceSize(width, height) && canPassThrough(encodeOptions)) {
+                rendition.output = CompletableFuture.completedFuture(original(encodeOptions));
+                continue;
+            }
+            if (isAnimation()) {
+                // every frame is resampled from the source, there is no single image to cascade from
+                rendition.output = CompletableFuture.completedFuture(
+                        execute(plan().resize(rendition.width, rendition.height), encodeOptions));
+                continue;
+            }
+            if (current == null) {
+                current = image(width, height);
+            }
+            if (widthOf(current) != width || heightOf(current) != height) {
+                current = resample(current, width, height);
+            }
+            BufferedImage image = upright(current);
+            rendition.output = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return toByteArrayOutputStream(image, encodeOptions, token);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        Map<String, ByteArrayOutputStream> renditions = new LinkedHashMap<>();
+        for (Rendition rendition : plan) {
+            try {
+                renditions.put(rendition.key, rendition.output.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof UncheckedIOException) throw ((UncheckedIOException) e.getCause()).getCause();
+                throw e;
+            }
+        }
+        return renditions;
+    }
+
+    private static final class Rendition {
+
+        private final String key;
+        private final int width;
+        private final int height;
+        private CompletableFuture<ByteArrayOutputStream> output;
+
+        private Rendition(String key, int width, int height) {
+            this.key = key;
+            this.width = width;
+            this.height = height;
+        }
+
+        private long area() {
+            return (long) width*height;
+        }
+    }
+
+    /**
+     * @return  The source bytes unchanged when no re-encoding is needed, the re-encoded source otherwise
+     * @throws IOException when writing the image to output occur error
+     */
+    private ByteArrayOutputStream original(EncodeOptions encodeOptions) throws IOException {
+        if (canPassThrough(encodeOptions)) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(source.size());
+            source.writeTo(outputStream);
+            return outputStream;
+        }
+        Operation scope = beginOperation();
+        try {
+            checkPixels(isAnimation() ? animationPixels(source.getInfo().getPixels()) : source.getInfo().getPixels()*2);
+            if (isAnimation()) {
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream(source.size());
+                writeAnimation(plan(), encodeOptions, outputStream);
+                return outputStream;
+            }
+            return toOutputStream(image(), encodeOptions);
+        } finally {
+            endOperation(scope);
+        }
+    }
+
+    private void original(EncodeOptions encodeOptions, OutputStream outputStream) throws IOException {
+        if (canPassThrough(encodeOptions)) {
+            source.writeTo(outputStream);
+            return;
+        }
+        Operation scope = beginOperation();
+        try {
+            checkPixels(isAnimation() ? animationPixels(source.getInfo().getPixels()) : source.getInfo().getPixels()*2);
+            if (isAnimation()) {
+                writeAnimation(plan(), encodeOptions, outputStream);
+            } else {
+                writeImage(image(), encodeOptions, outputStream);
+            }
+        } finally {
+            endOperation(scope);
+        }
+    }
+
+    /**
+     * The untouched source can be returned as is when the output format is the source format,
+     * which skips both the decode and another lossy encode. Explicit writer parameters or metadata stripping
+     * always encode, so does a source bigger than the byte budget.
+     */
+    private boolean canPassThrough(EncodeOptions encodeOptions) {
+        return !options.isForceReencode() && !encodeOptions.isStripMetadata() && encodeOptions.isWriterDefault()
+                && (encodeOptions.getMaxBytes() == null || source.size() <= encodeOptions.getMaxBytes())
+                && ImageEncoder.sameFormat(formatName, source.getFormatName());
+    }
+
+    /**
+     * @param width     A stored width
+     * @param height    A stored height
+     * @return          <code>true</code> when they are the stored size of the source
+     */
+    private boolean isSourceSize(int width, int height) {
+        return width == source.getWidth() && height == source.getHeight();
+    }
+
+    /**
+     * @return  The width of the upright source
+     */
+    private int width() {
+        return Orientation.isTransposed(orientation) ? source.getHeight() : source.getWidth();
+    }
+
+    /**
+     * @return  The height of the upright source
+     */
+    private int height() {
+        return Orientation.isTransposed(orientation) ? source.getWidth() : source.getHeight();
+    }
+
+    /**
+     * @param image     The engine image, as stored
+     * @return          The image turned upright, ready to encode
+     */
+    private BufferedImage upright(I image) {
+        return upright(toBufferedImage(image));
+    }
+
+    /**
+     * @param image     An image as stored, without alpha
+     * @return          The same image when the source is upright, an upright {@link #lease(int)} copy otherwise
+     */
+    private BufferedImage upright(BufferedImage image) {
+        if (orientation == 1) return image;
+        boolean transposed = Orientation.isTransposed(orientation);
+        int width = transposed ? image.getHeight() : image.getWidth();
+        int height = transposed ? image.getWidth() : image.getHeight();
+        int[] pixels = lease(width*height);
+        Orientation.copy(image, orientation, pixels, 0, width);
+        return Resampler.wrap(pixels, width, height, false);
+    }
+
+    private ByteArrayOutputStream toOutputStream(I image, EncodeOptions encodeOptions) throws IOException {
+        return toByteArrayOutputStream(upright(image), encodeOptions, cancellation());
+    }
+
+    private ByteArrayOutputStream toByteArrayOutputStream(BufferedImage image, EncodeOptions encodeOptions)
+            throws IOException {
+        return toByteArrayOutputStream(image, encodeOptions, cancellation());
+    }
+
+    private ByteArrayOutputStream toByteArrayOutputStream(BufferedImage image, EncodeOptions encodeOptions,
+            CancellationToken token) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(
+                ImageEncoder.estimateSize(formatName, image.getWidth(), image.getHeight()));
+        write(image, encodeOptions, outputStream, token);
+        return outputStream;
+    }
+
+    private void writeImage(I image, EncodeOptions encodeOptions, OutputStream outputStream) throws IOException {
+        write(upright(image), encodeOptions, outputStream, cancellation());
+    }
+
+    private void write(BufferedImage image, EncodeOptions encodeOptions, OutputStream outputStream,
+            CancellationToken token) throws IOException {
+        if (encodeOptions.getMaxBytes() != null) {
+            long start = startTime();
+            // every quality tried reuses the rendered raster, a step down resamples it with the engine
+            int bytes = SizeTargetEncoder.encode(image, formatName, encodeOptions, outputStream,
+                    (rendered, width, height) -> toBufferedImage(resample(toEngineImage(rendered), width, height)),
+                    token);
+            long pixels = (long) image.getWidth()*image.getHeight();
+            report(TransformStage.ENCODE, formatName, start, pixels, pixels, bytes);
+            return;
+        }
+        if (listener == null) {
+            ImageEncoder.encode(image, formatName, encodeOptions, outputStream, token);
+            return;
+        }
+        long start = startTime();
+        CountingOutputStream countingOutputStream = new CountingOutputStream(outputStream);
+        ImageEncoder.encode(image, formatName, encodeOptions, countingOutputStream, token);
+        long pixels = (long) image.getWidth()*image.getHeight();
+        report(TransformStage.ENCODE, formatName, start, pixels, pixels, countingOutputStream.getCount());
+    }
+
+    /**
+     * The engine scaling may not stop on cancellation, the token is checked around it.
+     */
+    private I resample(I imgIn, int width, int height) throws TransformCancelledException {
+        if (widthOf(imgIn) == width && heightOf(imgIn) == height) {
+            return imgIn;
+        }
+        CancellationToken token = cancellation();
+        token.throwIfCancelled();
+        long start = startTime();
+        I imgOut = scale(imgIn, width, height);
+        token.throwIfCancelled();
+        report(TransformStage.RESAMPLE, formatName, start, (long) widthOf(imgIn)*heightOf(imgIn),
+                (long) width*height, -1);
+        return imgOut;
+    }
+
+    private I cropTo(I imgIn, int x, int y, int width, int height) {
+        long start = startTime();
+        I imgOut = crop(imgIn, x, y, width, height);
+        report(TransformStage.CROP, formatName, start, (long) widthOf(imgIn)*heightOf(imgIn), (long) width*height, -1);
+        return imgOut;
+    }
+
+    private long startTime() {
+        return listener == null ? 0 : System.nanoTime();
+    }
+
+    private void report(TransformStage stage, String format, long start, long inputPixels, long outputPixels,
+            long bytes) {
+        if (listener != null) {
+            listener.onStage(new TransformEvent(stage, format, System.nanoTime() - start, inputPixels, outputPixels,
+                    bytes));
+        }
+    }
+
+    /**
+     * @param   frame the frame
+     * @return  the smaller frame
+     */
+    private FrameProperties detectScaleUpFrame(FrameProperties frame) {
+        if (!frame.getMeasure().equals(Measure.RATIO)) return frame;
+        int rWidth = frame.getWidth();
+        int rHeight = frame.getHeight();
+        int iWidth = width();
+        int iHeight = height();
+        int width = 0;
+        int height = 0;
+        if (rWidth == rHeight) {
+            width = height = iWidth >= iHeight ? iHeight : iWidth;
+        } else if (rWidth < rHeight) {
+            height = iHeight;
+            width = iHeight*rWidth/rHeight;
+        } else {
+            width = iWidth;
+            height = iWidth*rHeight/rWidth;
+        }
+        return FrameProperties.of(width, height, Measure.PIXEL);
+    }
+
+    /**
+     * @param   frame the frame
+     * @return  the bigger frame
+     */
+    private FrameProperties detectScaleDownFrame(FrameProperties frame) {
+        if (!frame.getMeasure().equals(Measure.RATIO)) return frame;
+        int rWidth = frame.getWidth();
+        int rHeight = frame.getHeight();
+        int iWidth = width();
+        int iHeight = height();
+        int width = 0;
+        int height = 0;
+        if (rWidth == rHeight) {
+            width = height = iWidth >= iHeight ? iWidth : iHeight;
+        } else if (rWidth < rHeight) {
+            width = iWidth;
+            height = iWidth*rHeight/rWidth;
+        } else {
+            height = iHeight;
+            width = iHeight*rWidth/rHeight;
+        }
+        return FrameProperties.of(width, height, Measure.PIXEL);
+    }
+
+    private boolean isRatioFrame(FrameProperties frame) {
+        return Measure.RATIO.equals(frame.getMeasure());
+    }
+
+    /**
+     * Returns the source bytes and the buffers leased outside an operation to the arena and drops the decoded
+     * image. The transformer can not be used anymore, an operation still running ends normally.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            decoded = null;
+            saliency = null;
+        }
+        source.close();
+        synchronized (leases) {
+            for (int[] pixels : leases) {
+                arena.release(pixels);
+            }
+            leases.clear();
+        }
+    }
+
+}
@@ -0,0 +1,159 @@
+package io.github.vatisteve.utils.image.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import javax.imageio.ImageWriter;
+import javax.imageio.event.IIOWriteProgressListener;
+import javax.imageio.stream.ImageOutputStreamImpl;
+
+/**
+ * BudgetImageOutputStream
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      In-memory, seekable destination of an ImageIO writer that fails the write as soon as it would grow past
+ *          its budget. It also listens to the writer progress, so the size of a cut write can be estimated from
+ *          the share of the image written when it was cut. Reused from one try to the next by {@link #reset(int)}.
+ */
+final class BudgetImageOutputStream extends ImageOutputStreamImpl implements IIOWriteProgressListener {
+
+    private byte[] buffer = new byte[8192];
+    private int length;
+    private int maxBytes;
+    private boolean exceeded;
+    private long attemptedLength;
+    private float percentageDone;
+
+    BudgetImageOutputStream(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Empties the stream for another write, keeping its buffer
+     *
+     * @param maxBytes  The budget of the next write
+     */
+    void reset(int maxBytes) {
+        this.maxBytes = maxBytes;
+        length = 0;
+        streamPos = 0;
+        flushedPos = 0;
+        bitOffset = 0;
+        exceeded = false;
+        attemptedLength = 0;
+        percentageDone = 0;
+    }
+
+    /**
+     * @return  <code>true</code> when the last write was cut at the budget
+     */
+    boolean isExceeded() {
+        return exceeded;
+    }
+
+    /**
+     * @return  The bytes written, or when the write was cut, the size it would have reached at the same rate
+     */
+    long estimatedLength() {
+        if (!exceeded) return length;
+        float done = percentageDone/100;
+        if (done > 0.95f) return attemptedLength;
+        // cut before any real progress, the image is likely much bigger
+        if (done < 0.05f) return Math.max(attemptedLength, 2L*maxBytes);
+        return Math.max(attemptedLength, (long) (attemptedLength/done));
+    }
+
+    int size() {
+        return length;
+    }
+
+    void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(buffer, 0, length);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        flushBits();
+        ensure(streamPos + 1);
+        buffer[(int) streamPos++] = (byte) b;
+        length = Math.max(length, (int) streamPos);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        flushBits();
+        ensure(streamPos + len);
+        System.arraycopy(b, off, buffer, (int) streamPos, len);
+        streamPos += len;
+        length = Math.max(length, (int) streamPos);
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+        bitOffset = 0;
+        return streamPos < length ? buffer[(int) streamPos++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkClosed();
+        bitOffset = 0;
+        if (len == 0) return 0;
+        if (streamPos >= length) return -1;
+        int count = Math.min(len, length - (int) streamPos);
+        System.arraycopy(buffer, (int) streamPos, b, off, count);
+        streamPos += count;
+        return count;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    private void ensure(long end) throws IOException {
+        if (end > maxBytes) {
+            // writers flush in chunks, the chunk cut is part of the size reached
+            exceeded = true;
+            attemptedLength = end;
+            throw new IOException(String.format("The output exceeds %d bytes", maxBytes));
+        }
+        if (end > buffer.length) {
+            buffer = Arrays.copyOf(buffer, (int) Math.min(maxBytes, Math.max(end, buffer.length*2L)));
+        }
+    }
+
+    @Override
+    public void imageProgress(ImageWriter source, float percentageDone) {
+        this.percentageDone = percentageDone;
+    }
+
+    @Override
+    public void imageStarted(ImageWriter source, int imageIndex) {
+    }
+
+    @Override
+    public void imageComplete(ImageWriter source) {
+    }
+
+    @Override
+    public void thumbnailStarted(ImageWriter source, int imageIndex, int thumbnailIndex) {
+    }
+
+    @Override
+    public void thumbnailProgress(ImageWriter source, float percentageDone) {
+    }
+
+    @Override
+    public void thumbnailComplete(ImageWriter source) {
+    }
+
+    @Override
+    public void writeAborted(ImageWriter source) {
+    }
+
+}
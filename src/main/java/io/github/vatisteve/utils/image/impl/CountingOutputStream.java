@@ -0,0 +1,47 @@
+package io.github.vatisteve.utils.image.impl;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * CountingOutputStream
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Counts the bytes written through to the destination
+ */
+class CountingOutputStream extends FilterOutputStream {
+
+    private long count;
+
+    CountingOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        count += len;
+    }
+
+    /**
+     * The destination is not closed, it belongs to the caller.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    long getCount() {
+        return count;
+    }
+
+}
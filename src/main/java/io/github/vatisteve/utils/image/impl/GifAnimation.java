@@ -0,0 +1,224 @@
+package io.github.vatisteve.utils.image.impl;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+
+import org.w3c.dom.Node;
+
+import io.github.vatisteve.utils.image.CancellationToken;
+
+/**
+ * GifAnimation
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      The frames of an animated GIF, each one composited on the full logical screen as a viewer shows it,
+ *          with their delays and the loop count.
+ * <p>      Frames are read one after the other, since each one is drawn over the previous ones, and handed to
+ *          the frame transform on the common <code>ForkJoinPool</code> as soon as they are composited.
+ */
+final class GifAnimation {
+
+    static final String IMAGE_METADATA_FORMAT = "javax_imageio_gif_image_1.0";
+    private static final String STREAM_METADATA_FORMAT = "javax_imageio_gif_stream_1.0";
+
+    private final List<BufferedImage> frames;
+    private final int[] delays;
+    private final int loops;
+
+    private GifAnimation(List<BufferedImage> frames, int[] delays, int loops) {
+        this.frames = frames;
+        this.delays = delays;
+        this.loops = loops;
+    }
+
+    /**
+     * @return  The transformed frames, in order
+     */
+    List<BufferedImage> getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return  The delay of every frame in hundredths of a second
+     */
+    int[] getDelays() {
+        return delays;
+    }
+
+    /**
+     * @return  The loop count of the NETSCAPE2.0 extension, 0 to loop forever, -1 when played once
+     */
+    int getLoops() {
+        return loops;
+    }
+
+    /**
+     * Frames are dropped evenly when the animation has more than <code>maxFrames</code> frames or a frame step
+     * above 1 is given, the delays of the dropped frames are added to the kept one before them so the animation
+     * keeps its duration.
+     *
+     * @param reader        The GIF reader, its input set
+     * @param frameCount    The number of frames of the image
+     * @param maxFrames     The most frames kept
+     * @param frameStep     Keep every <code>frameStep</code>-th frame
+     * @param transform     Transforms each kept frame, an ARGB image of the logical screen
+     * @param token         The {@link CancellationToken} checked after every frame, the reader watches it too
+     * @return              The transformed animation
+     * @throws IOException  when a frame can not be decoded or transformed, or the read is cancelled
+     */
+    static GifAnimation read(ImageReader reader, int frameCount, int maxFrames, int frameStep,
+            FrameTransform transform, CancellationToken token) throws IOException {
+        int step = step(frameCount, maxFrames, frameStep);
+        int[] screen = screenSize(reader);
+        BufferedImage canvas = new BufferedImage(screen[0], screen[1], BufferedImage.TYPE_INT_ARGB);
+        int window = ForkJoinPool.commonPool().getParallelism()*2;
+        List<CompletableFuture<BufferedImage>> outputs = new ArrayList<>();
+        Deque<CompletableFuture<BufferedImage>> running = new ArrayDeque<>();
+        int[] delays = new int[(frameCount + step - 1)/step];
+        int loops = -1;
+        try {
+            for (int i = 0; i < frameCount; i++) {
+                IIOMetadataNode root = (IIOMetadataNode) reader.getImageMetadata(i).getAsTree(IMAGE_METADATA_FORMAT);
+                if (i == 0) loops = loops(root);
+                IIOMetadataNode descriptor = child(root, "ImageDescriptor");
+                IIOMetadataNode control = child(root, "GraphicControlExtension");
+                int left = intAttribute(descriptor, "imageLeftPosition", 0);
+                int top = intAttribute(descriptor, "imageTopPosition", 0);
+                String disposal = control == null ? "none" : control.getAttribute("disposalMethod");
+                BufferedImage frame = reader.read(i);
+                token.throwIfCancelled();
+                BufferedImage previous = "restoreToPrevious".equals(disposal) ? copy(canvas) : null;
+                Graphics2D graphics = canvas.createGraphics();
+                graphics.drawImage(frame, left, top, null);
+                graphics.dispose();
+                delays[i/step] += intAttribute(control, "delayTime", 0);
+                if (i % step == 0) {
+                    BufferedImage composited = copy(canvas);
+                    if (running.size() >= window) running.removeFirst().join();
+                    CompletableFuture<BufferedImage> output = CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return transform.apply(composited);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    outputs.add(output);
+                    running.addLast(output);
+                }
+                if ("restoreToBackgroundColor".equals(disposal)) {
+                    graphics = canvas.createGraphics();
+                    graphics.setComposite(AlphaComposite.Clear);
+                    graphics.fillRect(left, top, frame.getWidth(), frame.getHeight());
+                    graphics.dispose();
+                } else if (previous != null) {
+                    canvas.setData(previous.getRaster());
+                }
+            }
+            List<BufferedImage> frames = new ArrayList<>(outputs.size());
+            for (CompletableFuture<BufferedImage> output : outputs) {
+                frames.add(output.join());
+            }
+            return new GifAnimation(frames, delays, loops);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) throw ((UncheckedIOException) e.getCause()).getCause();
+            throw e;
+        } finally {
+            // frames still running must not outlive the read
+            for (CompletableFuture<BufferedImage> output : outputs) {
+                output.handle((frame, e) -> null).join();
+            }
+        }
+    }
+
+    /**
+     * @param frameCount    The number of frames of the image
+     * @param maxFrames     The most frames kept
+     * @param frameStep     Keep every <code>frameStep</code>-th frame
+     * @return              The number of frames kept
+     */
+    static int keptFrames(int frameCount, int maxFrames, int frameStep) {
+        int step = step(frameCount, maxFrames, frameStep);
+        return (frameCount + step - 1)/step;
+    }
+
+    private static int step(int frameCount, int maxFrames, int frameStep) {
+        return Math.max(frameStep, (frameCount + maxFrames - 1)/maxFrames);
+    }
+
+    private static int[] screenSize(ImageReader reader) throws IOException {
+        IIOMetadata metadata = reader.getStreamMetadata();
+        IIOMetadataNode screen = metadata == null ? null
+                : child((IIOMetadataNode) metadata.getAsTree(STREAM_METADATA_FORMAT), "LogicalScreenDescriptor");
+        int width = intAttribute(screen, "logicalScreenWidth", 0);
+        int height = intAttribute(screen, "logicalScreenHeight", 0);
+        if (width <= 0 || height <= 0) {
+            width = reader.getWidth(0);
+            height = reader.getHeight(0);
+        }
+        return new int[] {width, height};
+    }
+
+    private static int loops(IIOMetadataNode root) {
+        IIOMetadataNode extensions = child(root, "ApplicationExtensions");
+        if (extensions == null) return -1;
+        for (Node node = extensions.getFirstChild(); node != null; node = node.getNextSibling()) {
+            IIOMetadataNode extension = (IIOMetadataNode) node;
+            Object data = extension.getUserObject();
+            if ("NETSCAPE".equals(extension.getAttribute("applicationID")) && data instanceof byte[]
+                    && ((byte[]) data).length >= 3 && ((byte[]) data)[0] == 1) {
+                byte[] bytes = (byte[]) data;
+                return (bytes[1] & 0xFF) | (bytes[2] & 0xFF) << 8;
+            }
+        }
+        return -1;
+    }
+
+    static IIOMetadataNode child(IIOMetadataNode parent, String name) {
+        if (parent == null) return null;
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (name.equals(node.getNodeName())) return (IIOMetadataNode) node;
+        }
+        return null;
+    }
+
+    private static int intAttribute(IIOMetadataNode node, String name, int defaultValue) {
+        if (node == null || node.getAttribute(name).isEmpty()) return defaultValue;
+        return Integer.parseInt(node.getAttribute(name));
+    }
+
+    private static BufferedImage copy(BufferedImage image) {
+        BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        copy.getRaster().setRect(0, 0, image.getRaster());
+        return copy;
+    }
+
+    /**
+     * Transforms one composited frame
+     */
+    interface FrameTransform {
+
+        /**
+         * @param frame         The frame on the full logical screen, <code>TYPE_INT_ARGB</code>
+         * @return              The transformed frame
+         * @throws IOException  when the frame can not be transformed
+         */
+        BufferedImage apply(BufferedImage frame) throws IOException;
+    }
+
+}
@@ -0,0 +1,269 @@
+package io.github.vatisteve.utils.image.impl;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.event.IIOWriteProgressListener;
+import javax.imageio.metadata.IIOInvalidTreeException;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import io.github.vatisteve.utils.image.CancellationToken;
+import io.github.vatisteve.utils.image.EncodeOptions;
+
+/**
+ * ImageEncoder
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Encodes images straight to the destination stream. A cancelled {@link CancellationToken} aborts the
+ *          writer, the encode then throws and the partial output must be dropped.
+ */
+final class ImageEncoder {
+
+    /**
+     * How many idle writers are kept per format, enough for every core to encode at once
+     */
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * ImageIO writers are not thread safe but can be reused once reset: an encode borrows one of the format
+     * and gives it back when done, so the writers kept are bounded whatever the number of threads.
+     */
+    private static final ConcurrentMap<String, BlockingQueue<ImageWriter>> WRITERS = new ConcurrentHashMap<>();
+
+    private ImageEncoder() {}
+
+    /**
+     * Unlike <code>ImageIO.write</code>, never goes through a temporary cache file.
+     * <p>      The writer of <code>formatName</code> is borrowed from a pool and reset after each image.
+     *
+     * @param image         The image to encode
+     * @param formatName    The output format
+     * @param encodeOptions The {@link EncodeOptions} of the output
+     * @param outputStream  The destination, it is not closed
+     * @param token         The {@link CancellationToken} aborting the writer
+     * @throws IOException  when no writer supports <code>formatName</code>, writing fails or is cancelled
+     */
+    static void encode(BufferedImage image, String formatName, EncodeOptions encodeOptions, OutputStream outputStream,
+            CancellationToken token) throws IOException {
+        try (ImageOutputStream imageOutputStream = new MemoryCacheImageOutputStream(outputStream)) {
+            write(image, formatName, encodeOptions, imageOutputStream, token, null);
+        }
+    }
+
+    /**
+     * Encodes into a {@link BudgetImageOutputStream}, the write stops as soon as the budget is exceeded.
+     *
+     * @param image         The image to encode
+     * @param formatName    The output format
+     * @param encodeOptions The {@link EncodeOptions} of the output, its quality included
+     * @param sink          The destination, {@link BudgetImageOutputStream#reset(int) reset} by the caller
+     * @param token         The {@link CancellationToken} aborting the writer
+     * @return              <code>true</code> when the image fits, <code>false</code> when it was cut at the budget
+     * @throws IOException  when no writer supports <code>formatName</code>, writing fails or is cancelled
+     */
+    static boolean encodeWithin(BufferedImage image, String formatName, EncodeOptions encodeOptions,
+            BudgetImageOutputStream sink, CancellationToken token) throws IOException {
+        try {
+            write(image, formatName, encodeOptions, sink, token, sink);
+            return true;
+        } catch (IOException e) {
+            if (!sink.isExceeded()) throw e;
+            token.throwIfCancelled();
+            return false;
+        }
+    }
+
+    /**
+     * @return  <code>true</code> when the writer of <code>formatName</code> takes a compression quality
+     */
+    static boolean hasQuality(String formatName) {
+        return "JPEG".equals(canonical(formatName));
+    }
+
+    private static void write(BufferedImage image, String formatName, EncodeOptions encodeOptions,
+            ImageOutputStream imageOutputStream, CancellationToken token, IIOWriteProgressListener progress)
+            throws IOException {
+        token.throwIfCancelled();
+        String format = canonical(formatName);
+        ImageWriter writer = writer(format);
+        boolean reusable = false;
+        try {
+            writer.setOutput(imageOutputStream);
+            AbortListener.watch(writer, token);
+            if (progress != null) writer.addIIOWriteProgressListener(progress);
+            writer.write(null, new IIOImage(image, null, null), writeParam(writer, format, encodeOptions));
+            token.throwIfCancelled();
+            reusable = true;
+        } finally {
+            giveBack(format, writer, reusable);
+        }
+    }
+
+    /**
+     * Writes an animated GIF with the sequence API of the GIF writer. Every frame covers the whole screen and
+     * is cleared before the next one, the writer builds the palette and the transparent index of each frame.
+     *
+     * @param frames        The frames, all of the same size
+     * @param delays        The delay of every frame in hundredths of a second
+     * @param loops         The loop count, 0 to loop forever, -1 to play once
+     * @param encodeOptions The {@link EncodeOptions} of the output
+     * @param outputStream  The destination, it is not closed
+     * @param token         The {@link CancellationToken} aborting the writer
+     * @throws IOException  when writing fails or is cancelled
+     */
+    static void encodeAnimation(List<BufferedImage> frames, int[] delays, int loops, EncodeOptions encodeOptions,
+            OutputStream outputStream, CancellationToken token) throws IOException {
+        token.throwIfCancelled();
+        ImageWriter writer = writer("GIF");
+        boolean reusable = false;
+        try (ImageOutputStream imageOutputStream = new MemoryCacheImageOutputStream(outputStream)) {
+            writer.setOutput(imageOutputStream);
+            AbortListener.watch(writer, token);
+            writer.prepareWriteSequence(null);
+            ImageWriteParam param = writeParam(writer, "GIF", encodeOptions);
+            for (int i = 0; i < frames.size(); i++) {
+                BufferedImage frame = frames.get(i);
+                IIOMetadata metadata = writer.getDefaultImageMetadata(
+                        ImageTypeSpecifier.createFromRenderedImage(frame), param);
+                frameMetadata(metadata, delays[i], i == 0 ? loops : -1);
+                writer.writeToSequence(new IIOImage(frame, null, metadata), param);
+                token.throwIfCancelled();
+            }
+            writer.endWriteSequence();
+            reusable = true;
+        } finally {
+            giveBack("GIF", writer, reusable);
+        }
+    }
+
+    private static void frameMetadata(IIOMetadata metadata, int delay, int loops) throws IIOInvalidTreeException {
+        String format = GifAnimation.IMAGE_METADATA_FORMAT;
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+        IIOMetadataNode control = GifAnimation.child(root, "GraphicControlExtension");
+        if (control == null) {
+            control = new IIOMetadataNode("GraphicControlExtension");
+            root.appendChild(control);
+        }
+        control.setAttribute("disposalMethod", "restoreToBackgroundColor");
+        control.setAttribute("userInputFlag", "FALSE");
+        control.setAttribute("transparentColorFlag", "FALSE");
+        control.setAttribute("delayTime", Integer.toString(delay));
+        control.setAttribute("transparentColorIndex", "0");
+        if (loops >= 0) {
+            IIOMetadataNode extensions = new IIOMetadataNode("ApplicationExtensions");
+            IIOMetadataNode extension = new IIOMetadataNode("ApplicationExtension");
+            extension.setAttribute("applicationID", "NETSCAPE");
+            extension.setAttribute("authenticationCode", "2.0");
+            extension.setUserObject(new byte[] {1, (byte) loops, (byte) (loops >> 8)});
+            extensions.appendChild(extension);
+            root.appendChild(extensions);
+        }
+        metadata.setFromTree(format, root);
+    }
+
+    /**
+     * @return  An idle writer of the pool, a new one when they are all borrowed
+     */
+    private static ImageWriter writer(String format) throws IOException {
+        ImageWriter writer = pool(format).poll();
+        if (writer != null) return writer;
+        Iterator<ImageWriter> found = ImageIO.getImageWritersByFormatName(format);
+        if (!found.hasNext()) {
+            throw new IOException(String.format("No ImageIO writer for format: %s", format));
+        }
+        return found.next();
+    }
+
+    /**
+     * Returns a writer to the pool once reset. A failed writer may be left in any state and a writer finding
+     * the pool full is not needed anymore, both are disposed.
+     */
+    private static void giveBack(String format, ImageWriter writer, boolean reusable) {
+        if (reusable) {
+            writer.reset();
+            if (pool(format).offer(writer)) return;
+        }
+        writer.dispose();
+    }
+
+    private static BlockingQueue<ImageWriter> pool(String format) {
+        return WRITERS.computeIfAbsent(format, f -> new ArrayBlockingQueue<>(POOL_SIZE));
+    }
+
+    private static ImageWriteParam writeParam(ImageWriter writer, String format, EncodeOptions encodeOptions) {
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        if (encodeOptions.isProgressive() && param.canWriteProgressive()) {
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        }
+        if (!param.canWriteCompressed()) return param;
+        if ("JPEG".equals(format) && encodeOptions.getQuality() != null) {
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(encodeOptions.getQuality());
+        } else if ("PNG".equals(format) && encodeOptions.getPngCompressionLevel() != null) {
+            // the JDK writer deflates at level 9 - round(9*quality)
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(1 - encodeOptions.getPngCompressionLevel()/9f);
+        }
+        return param;
+    }
+
+    /**
+     * @param formatName    The output format, e.g. <code>jpg</code>
+     * @param sourceFormat  The format name of the source reader, e.g. <code>JPEG</code>
+     * @return              <code>true</code> when both name the same format
+     */
+    static boolean sameFormat(String formatName, String sourceFormat) {
+        return sourceFormat != null && canonical(formatName).equals(canonical(sourceFormat));
+    }
+
+    private static String canonical(String formatName) {
+        String name = formatName.toUpperCase();
+        return "JPG".equals(name) ? "JPEG" : name;
+    }
+
+    /**
+     * @param formatName    The output format
+     * @param width         The image width
+     * @param height        The image height
+     * @return              The expected encoded size in bytes, used to pre-size output buffers
+     */
+    static int estimateSize(String formatName, int width, int height) {
+        long pixels = (long) width*height;
+        long estimate;
+        switch (formatName.toUpperCase()) {
+            case "BMP":
+            case "PPM":
+                estimate = (width*3L + 3)/4*4*height + 138;
+                break;
+            case "PNG":
+                estimate = pixels*2;
+                break;
+            case "GIF":
+                estimate = pixels*3/4;
+                break;
+            default:
+                // JPEG at the default quality is about 2 bits per pixel
+                estimate = pixels/4;
+                break;
+        }
+        return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1024, estimate + 1024));
+    }
+
+}
@@ -0,0 +1,163 @@
+package io.github.vatisteve.utils.image.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import io.github.vatisteve.utils.image.ImageInfo;
+
+/**
+ * ImageProbe
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Reads dimensions, format and EXIF orientation from the image header only
+ */
+public final class ImageProbe {
+
+    private static final int SOI = 0xD8;
+    private static final int EOI = 0xD9;
+    private static final int SOS = 0xDA;
+    private static final int APP1 = 0xE1;
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    private ImageProbe() {}
+
+    /**
+     * @param inputStream   The image input stream, it is not closed. Reads ahead in blocks, so it is consumed
+     *                      past the header by an unknown amount and should be discarded afterwards
+     * @return              The {@link ImageInfo}
+     * @throws IOException  when no ImageIO reader recognizes the data
+     */
+    public static ImageInfo probe(InputStream inputStream) throws IOException {
+        try (ImageInputStream imageInputStream = new MemoryCacheImageInputStream(inputStream)) {
+            return probe(imageInputStream);
+        }
+    }
+
+    /**
+     * @param path          The image file
+     * @return              The {@link ImageInfo}
+     * @throws IOException  when the file can not be read or no ImageIO reader recognizes it
+     */
+    public static ImageInfo probe(Path path) throws IOException {
+        try (ImageInputStream imageInputStream = new FileImageInputStream(path.toFile())) {
+            return probe(imageInputStream);
+        }
+    }
+
+    static ImageInfo probe(ImageInputStream imageInputStream) throws IOException {
+        ImageReader reader = reader(imageInputStream);
+        try {
+            return probe(reader);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * @param imageInputStream  The image data
+     * @return                  The first reader recognizing the data, its input set to <code>imageInputStream</code>
+     * @throws IOException      when no reader recognizes the data
+     */
+    static ImageReader reader(ImageInputStream imageInputStream) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+        if (!readers.hasNext()) {
+            throw new IOException("No ImageIO reader can decode the image data");
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(imageInputStream, false, true);
+        return reader;
+    }
+
+    static ImageInfo probe(ImageReader reader) throws IOException {
+        int orientation = 1;
+        if ("JPEG".equalsIgnoreCase(reader.getFormatName()) && reader.getInput() instanceof ImageInputStream) {
+            ImageInputStream imageInputStream = (ImageInputStream) reader.getInput();
+            imageInputStream.mark();
+            try {
+                orientation = jpegOrientation(imageInputStream);
+            } finally {
+                imageInputStream.reset();
+            }
+        }
+        return new ImageInfo(reader.getWidth(0), reader.getHeight(0), reader.getFormatName(), orientation);
+    }
+
+    /**
+     * Walks the JPEG marker segments up to the first scan and reads the orientation of the EXIF APP1 segment.
+     * <p>      The JPEG reader's metadata tree is not used, it rejects common files with EXIF before JFIF.
+     *
+     * @param imageInputStream  The JPEG data, positioned on the SOI marker
+     * @return                  The EXIF orientation, 1 when absent
+     * @throws IOException      when reading the stream fails
+     */
+    static int jpegOrientation(ImageInputStream imageInputStream) throws IOException {
+        if (imageInputStream.read() != 0xFF || imageInputStream.read() != SOI) return 1;
+        while (true) {
+            int marker = imageInputStream.read();
+            if (marker != 0xFF) return 1;
+            while (marker == 0xFF) {
+                marker = imageInputStream.read();
+            }
+            if (marker < 0 || marker == SOS || marker == EOI) return 1;
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) continue;
+            int length = imageInputStream.readUnsignedShort() - 2;
+            if (length < 0) return 1;
+            if (marker == APP1 && length >= 14) {
+                byte[] app1 = new byte[length];
+                imageInputStream.readFully(app1);
+                int orientation = exifOrientation(app1);
+                if (orientation > 0) return orientation;
+            } else if (imageInputStream.skipBytes(length) < length) {
+                return 1;
+            }
+        }
+    }
+
+    /**
+     * @param app1  The APP1 payload, starting with <code>Exif\0\0</code>
+     * @return      The orientation of IFD0, 0 when absent
+     */
+    static int exifOrientation(byte[] app1) {
+        if (app1.length < 14 || app1[0] != 'E' || app1[1] != 'x' || app1[2] != 'i' || app1[3] != 'f') return 0;
+        final int tiff = 6;
+        boolean little = app1[tiff] == 'I' && app1[tiff + 1] == 'I';
+        if (!little && !(app1[tiff] == 'M' && app1[tiff + 1] == 'M')) return 0;
+        long ifd = tiff + readInt(app1, tiff + 4, little);
+        if (ifd + 2 > app1.length) return 0;
+        int entries = readShort(app1, (int) ifd, little);
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i*12;
+            if (entry + 12 > app1.length) return 0;
+            if (readShort(app1, entry, little) == ORIENTATION_TAG) {
+                return readShort(app1, entry + 8, little);
+            }
+        }
+        return 0;
+    }
+
+    private static int readShort(byte[] data, int offset, boolean little) {
+        int b0 = data[offset] & 0xFF;
+        int b1 = data[offset + 1] & 0xFF;
+        return little ? b1 << 8 | b0 : b0 << 8 | b1;
+    }
+
+    private static long readInt(byte[] data, int offset, boolean little) {
+        long value = 0;
+        for (int i = 0; i < 4; i++) {
+            int b = data[offset + (little ? 3 - i : i)] & 0xFF;
+            value = value << 8 | b;
+        }
+        return value;
+    }
+
+}
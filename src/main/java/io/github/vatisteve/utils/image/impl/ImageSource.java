@@ -0,0 +1,368 @@
+package io.github.vatisteve.utils.image.impl;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import io.github.vatisteve.utils.image.CancellationToken;
+import io.github.vatisteve.utils.image.ImageInfo;
+import io.github.vatisteve.utils.image.PixelArena;
+
+/**
+ * ImageSource
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      The encoded source image, only the header is read up front and pixels are decoded on demand.
+ * <p>      The encoded bytes are held in an array of the {@link PixelArena}, returned to it by {@link #close()}
+ *          once the last decode reading them is done.
+ * <p>      Decodes watch a {@link CancellationToken}: the reader is aborted once it is cancelled and the decode
+ *          throws a {@link io.github.vatisteve.utils.image.TransformCancelledException}.
+ */
+final class ImageSource implements Closeable {
+
+    private final PixelArena arena;
+    private byte[] data;
+    private final int length;
+    private final ImageInfo info;
+    private int readers;
+    private boolean closed;
+    private int frameCount = -1;
+
+    ImageSource(InputStream inputStream, PixelArena arena) throws IOException {
+        this.arena = arena;
+        // one byte more so a stream reporting its exact length is read without growing the buffer
+        byte[] buffer = arena.bytes(Math.max(8192, inputStream.available() + 1));
+        int count = 0;
+        int read;
+        while ((read = inputStream.read(buffer, count, buffer.length - count)) != -1) {
+            count += read;
+            if (count == buffer.length) {
+                byte[] bigger = arena.bytes(buffer.length*2);
+                System.arraycopy(buffer, 0, bigger, 0, count);
+                arena.release(buffer);
+                buffer = bigger;
+            }
+        }
+        this.data = buffer;
+        this.length = count;
+        try (ImageInputStream imageInputStream = new MemoryCacheImageInputStream(
+                new ByteArrayInputStream(data, 0, length))) {
+            this.info = ImageProbe.probe(imageInputStream);
+        } catch (IOException | RuntimeException e) {
+            arena.release(data);
+            throw e;
+        }
+    }
+
+    /**
+     * @return  The encoded size in bytes
+     */
+    int size() {
+        return length;
+    }
+
+    /**
+     * @param outputStream  Receives the encoded source bytes unchanged
+     * @throws IOException  when writing fails
+     */
+    void writeTo(OutputStream outputStream) throws IOException {
+        byte[] bytes = acquire();
+        try {
+            outputStream.write(bytes, 0, length);
+        } finally {
+            release();
+        }
+    }
+
+    ImageInfo getInfo() {
+        return info;
+    }
+
+    String getFormatName() {
+        return info.getFormatName();
+    }
+
+    int getWidth() {
+        return info.getWidth();
+    }
+
+    int getHeight() {
+        return info.getHeight();
+    }
+
+    /**
+     * @return  The full resolution image
+     * @throws IOException when the image data can not be decoded
+     */
+    BufferedImage decode() throws IOException {
+        return decode(1, CancellationToken.NONE);
+    }
+
+    /**
+     * @param subsampling   Keep every <code>subsampling</code>-th column and row
+     * @param token         The {@link CancellationToken} aborting the decode
+     * @return              The decoded image
+     * @throws IOException  when the image data can not be decoded or the decode is cancelled
+     */
+    BufferedImage decode(int subsampling, CancellationToken token) throws IOException {
+        ImageReader reader = open(true, token);
+        try {
+            ImageReadParam param = reader.getDefaultReadParam();
+            if (subsampling > 1) {
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+            }
+            return read(reader, param, token);
+        } finally {
+            close(reader);
+        }
+    }
+
+    /**
+     * @param region        The source area to decode
+     * @param subsampling   Keep every <code>subsampling</code>-th column and row
+     * @param token         The {@link CancellationToken} aborting the decode
+     * @return              The decoded area only, the rest of the image is never held in memory
+     * @throws IOException  when the image data can not be decoded or the decode is cancelled
+     */
+    BufferedImage decode(Rectangle region, int subsampling, CancellationToken token) throws IOException {
+        ImageReader reader = open(true, token);
+        try {
+            ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceRegion(region);
+            if (subsampling > 1) {
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+            }
+            return read(reader, param, token);
+        } finally {
+            close(reader);
+        }
+    }
+
+    /**
+     * Decodes horizontal strips of at most <code>stripPixels</code> pixels and averages each one into the
+     * output as it goes (box filter), so the heap holds one strip plus the output instead of the whole source.
+     * <p>      JPEG and PNG readers decode every row above a strip again to reach it, the decode time therefore
+     *          grows with the number of strips: bigger strips are faster, smaller ones use less heap.
+     *
+     * @param targetWidth   The output width, not bigger than the source width
+     * @param targetHeight  The output height, not bigger than the source height
+     * @param stripPixels   The pixels decoded at once
+     * @param pixels        Receives the output pixels, at least <code>targetWidth*targetHeight</code> long
+     * @param token         The {@link CancellationToken} aborting the decode
+     * @return              The downscaled image backed by <code>pixels</code>, without alpha
+     * @throws IOException  when the image data can not be decoded or the decode is cancelled
+     */
+    BufferedImage decodeInStrips(int targetWidth, int targetHeight, int stripPixels, int[] pixels,
+            CancellationToken token) throws IOException {
+        int width = getWidth();
+        int height = getHeight();
+        int[] column = new int[width];
+        int[] columnCount = new int[targetWidth];
+        for (int x = 0; x < width; x++) {
+            column[x] = (int) ((long) x*targetWidth/width);
+            columnCount[column[x]]++;
+        }
+        long[] sums = new long[targetWidth*3];
+        int[] row = new int[width];
+        int stripHeight = Math.max(1, Math.min(height, stripPixels/width));
+        int outputRow = 0;
+        int rows = 0;
+        ImageReader reader = open(false, token);
+        try {
+            for (int y = 0; y < height; y += stripHeight) {
+                int h = Math.min(stripHeight, height - y);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(new Rectangle(0, y, width, h));
+                BufferedImage strip = read(reader, param, token);
+                for (int r = 0; r < h; r++) {
+                    int target = (int) ((long) (y + r)*targetHeight/height);
+                    if (target != outputRow) {
+                        flush(sums, columnCount, rows, pixels, outputRow*targetWidth);
+                        outputRow = target;
+                        rows = 0;
+                    }
+                    accumulate(rgbRow(strip, r, row), column, sums);
+                    rows++;
+                }
+            }
+            flush(sums, columnCount, rows, pixels, outputRow*targetWidth);
+        } finally {
+            close(reader);
+        }
+        return Resampler.wrap(pixels, targetWidth, targetHeight, false);
+    }
+
+    private static int[] rgbRow(BufferedImage strip, int y, int[] row) {
+        int width = strip.getWidth();
+        if (strip.getType() == BufferedImage.TYPE_3BYTE_BGR
+                && strip.getRaster().getSampleModel() instanceof ComponentSampleModel) {
+            // JPEG decodes to interleaved BGR bytes, read them without the per pixel color model lookup
+            ComponentSampleModel sampleModel = (ComponentSampleModel) strip.getRaster().getSampleModel();
+            byte[] data = ((DataBufferByte) strip.getRaster().getDataBuffer()).getData();
+            int offset = y*sampleModel.getScanlineStride();
+            for (int x = 0; x < width; x++, offset += 3) {
+                row[x] = (data[offset + 2] & 0xFF) << 16 | (data[offset + 1] & 0xFF) << 8 | data[offset] & 0xFF;
+            }
+            return row;
+        }
+        return strip.getRGB(0, y, width, 1, row, 0, width);
+    }
+
+    private static void accumulate(int[] row, int[] column, long[] sums) {
+        for (int x = 0; x < column.length; x++) {
+            int rgb = row[x];
+            int i = column[x]*3;
+            sums[i] += rgb >> 16 & 0xFF;
+            sums[i + 1] += rgb >> 8 & 0xFF;
+            sums[i + 2] += rgb & 0xFF;
+        }
+    }
+
+    private static void flush(long[] sums, int[] columnCount, int rows, int[] pixels, int offset) {
+        if (rows == 0) return;
+        for (int x = 0; x < columnCount.length; x++) {
+            long count = (long) columnCount[x]*rows;
+            int i = x*3;
+            if (count > 0) {
+                pixels[offset + x] = (int) (sums[i]/count) << 16 | (int) (sums[i + 1]/count) << 8
+                        | (int) (sums[i + 2]/count);
+            }
+            sums[i] = sums[i + 1] = sums[i + 2] = 0;
+        }
+    }
+
+    /**
+     * @return  The number of frames, only GIF images are searched for more than one
+     * @throws IOException when the image data can not be read
+     */
+    synchronized int getFrameCount() throws IOException {
+        if (frameCount < 0) {
+            if ("gif".equalsIgnoreCase(getFormatName())) {
+                ImageReader reader = open(false, CancellationToken.NONE);
+                try {
+                    frameCount = reader.getNumImages(true);
+                } finally {
+                    close(reader);
+                }
+            } else {
+                frameCount = 1;
+            }
+        }
+        return frameCount;
+    }
+
+    /**
+     * @param maxFrames     The most frames kept
+     * @param frameStep     Keep every <code>frameStep</code>-th frame
+     * @param transform     Transforms each kept frame, composited on the full logical screen
+     * @param token         The {@link CancellationToken} aborting the decode
+     * @return              The transformed {@link GifAnimation}
+     * @throws IOException  when the image data can not be decoded, a frame transformed or the decode is cancelled
+     */
+    GifAnimation decodeAnimation(int maxFrames, int frameStep, GifAnimation.FrameTransform transform,
+            CancellationToken token) throws IOException {
+        int frames = getFrameCount();
+        ImageReader reader = open(false, token);
+        try {
+            return GifAnimation.read(reader, frames, maxFrames, frameStep, transform, token);
+        } finally {
+            close(reader);
+        }
+    }
+
+    /**
+     * @param targetWidth   The width the image will be resampled to
+     * @param targetHeight  The height the image will be resampled to
+     * @return              The largest subsampling factor keeping the decoded image at least the target size
+     */
+    int subsamplingFor(int targetWidth, int targetHeight) {
+        if (targetWidth <= 0 || targetHeight <= 0) return 1;
+        return Math.max(1, Math.min(getWidth()/targetWidth, getHeight()/targetHeight));
+    }
+
+    /**
+     * @param seekForwardOnly   <code>false</code> when the image is read more than once
+     * @param token             The {@link CancellationToken} aborting the reads
+     */
+    private ImageReader open(boolean seekForwardOnly, CancellationToken token) throws IOException {
+        token.throwIfCancelled();
+        ImageInputStream imageInputStream = new MemoryCacheImageInputStream(
+                new ByteArrayInputStream(acquire(), 0, length));
+        try {
+            ImageReader reader = ImageProbe.reader(imageInputStream);
+            reader.setInput(imageInputStream, seekForwardOnly, true);
+            AbortListener.watch(reader, token);
+            return reader;
+        } catch (IOException | RuntimeException e) {
+            imageInputStream.close();
+            release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return  The first image of the reader, an aborted read throws instead of returning the partial image
+     */
+    private static BufferedImage read(ImageReader reader, ImageReadParam param, CancellationToken token)
+            throws IOException {
+        BufferedImage image = reader.read(0, param);
+        token.throwIfCancelled();
+        return image;
+    }
+
+    private void close(ImageReader reader) throws IOException {
+        Object input = reader.getInput();
+        reader.dispose();
+        try {
+            if (input instanceof ImageInputStream) {
+                ((ImageInputStream) input).close();
+            }
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * @return  The encoded bytes, {@link #release()} must follow
+     * @throws IOException when the source is closed
+     */
+    private synchronized byte[] acquire() throws IOException {
+        if (closed) throw new IOException("The image source is closed");
+        readers++;
+        return data;
+    }
+
+    private synchronized void release() {
+        readers--;
+        if (closed && readers == 0) free();
+    }
+
+    /**
+     * Returns the encoded bytes to the arena, right away or when the running decodes end
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        if (readers == 0) free();
+    }
+
+    private void free() {
+        arena.release(data);
+        data = null;
+    }
+
+}
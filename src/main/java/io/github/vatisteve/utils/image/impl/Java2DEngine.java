@@ -0,0 +1,45 @@
+package io.github.vatisteve.utils.image.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import io.github.vatisteve.utils.image.ImageTransformer;
+import io.github.vatisteve.utils.image.MimeTypeNotSupportedException;
+import io.github.vatisteve.utils.image.TransformerOptions;
+import io.github.vatisteve.utils.image.engine.ImageTransformerEngine;
+
+/**
+ * Java2DEngine
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      The {@link ImageTransformerEngine} of the {@link Java2DImageTransformer}, resampling with plain Java 2D
+ */
+public final class Java2DEngine implements ImageTransformerEngine {
+
+    public static final String NAME = "JAVA2D";
+
+    private static final Set<String> FORMATS = Collections.unmodifiableSet(
+            new LinkedHashSet<>(Java2DImageTransformer.TYPES_SUPPORTED));
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Set<String> getFormats() {
+        return FORMATS;
+    }
+
+    @Override
+    public ImageTransformer create(InputStream inputStream, String mimeType, TransformerOptions options)
+            throws MimeTypeNotSupportedException, IOException {
+        return new Java2DImageTransformer(inputStream, mimeType, options);
+    }
+
+}
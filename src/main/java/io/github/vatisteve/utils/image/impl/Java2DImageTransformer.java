@@ -0,0 +1,121 @@
+package io.github.vatisteve.utils.image.impl;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.github.vatisteve.utils.image.MimeTypeNotSupportedException;
+import io.github.vatisteve.utils.image.TransformerOptions;
+
+/**
+ * Java2DImageTransformer
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Dependency-free engine scaling with {@link Graphics2D}.
+ * <p>      Downscaling halves the image with bilinear interpolation until the next halving would pass the target,
+ *          then draws the exact size: each step averages 2x2 pixels, which is close to area averaging in quality
+ *          at a fraction of the cost of a single wide-kernel pass.
+ */
+public class Java2DImageTransformer extends AbstractImageTransformer<BufferedImage> {
+
+    public static final List<String> TYPES_SUPPORTED = Collections.unmodifiableList(
+            Arrays.asList("BMP", "GIF", "JPEG", "JPG", "PNG")
+    );
+
+    public Java2DImageTransformer(InputStream imageInputStream, String mimeType)
+        throws MimeTypeNotSupportedException, IOException {
+        this(imageInputStream, mimeType, TransformerOptions.defaults());
+    }
+
+    /**
+     * Only the image header is read here, pixels are decoded by the first operation which needs them.
+     *
+     * @param imageInputStream  The image input stream data
+     * @param mimeType          The image extension
+     * @param options           The {@link TransformerOptions}
+     * @throws MimeTypeNotSupportedException    the extension does not supported
+     * @throws IOException                      when the image header can not be read
+     */
+    public Java2DImageTransformer(InputStream imageInputStream, String mimeType, TransformerOptions options)
+        throws MimeTypeNotSupportedException, IOException {
+        super(imageInputStream, mimeType, TYPES_SUPPORTED, options);
+    }
+
+    @Override
+    protected BufferedImage toEngineImage(BufferedImage image) {
+        return image;
+    }
+
+    /**
+     * Same as Marvin, the alpha channel is dropped so every format, JPEG included, can be written.
+     */
+    @Override
+    protected BufferedImage toBufferedImage(BufferedImage image) {
+        int type = image.getType();
+        if (type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_3BYTE_BGR) {
+            return image;
+        }
+        BufferedImage imageOut = leaseImage(image.getWidth(), image.getHeight(), false);
+        // leased pixels are not cleared, the alpha is blended over black as on a new image
+        Arrays.fill(((DataBufferInt) imageOut.getRaster().getDataBuffer()).getData(), 0);
+        Graphics2D graphics = imageOut.createGraphics();
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+        return imageOut;
+    }
+
+    @Override
+    protected int widthOf(BufferedImage image) {
+        return image.getWidth();
+    }
+
+    @Override
+    protected int heightOf(BufferedImage image) {
+        return image.getHeight();
+    }
+
+    @Override
+    protected BufferedImage scale(BufferedImage imgIn, int width, int height) {
+        if (resampler != null) {
+            return resampler.resample(imgIn, width, height, lease(width*height), cancellation());
+        }
+        BufferedImage current = imgIn;
+        int cWidth = imgIn.getWidth();
+        int cHeight = imgIn.getHeight();
+        while (cWidth/2 >= width && cHeight/2 >= height) {
+            cWidth /= 2;
+            cHeight /= 2;
+            current = draw(current, cWidth, cHeight, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
+        boolean upscale = width > cWidth || height > cHeight;
+        return draw(current, width, height, upscale
+                ? RenderingHints.VALUE_INTERPOLATION_BICUBIC : RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+    }
+
+    @Override
+    protected BufferedImage crop(BufferedImage imgIn, int x, int y, int width, int height) {
+        return imgIn.getSubimage(x, y, width, height);
+    }
+
+    private BufferedImage draw(BufferedImage imgIn, int width, int height, Object interpolation) {
+        BufferedImage imgOut = leaseImage(width, height, imgIn.getColorModel().hasAlpha());
+        Graphics2D graphics = imgOut.createGraphics();
+        // every pixel is replaced, the leased pixels underneath are not blended in
+        graphics.setComposite(AlphaComposite.Src);
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.drawImage(imgIn, 0, 0, width, height, null);
+        graphics.dispose();
+        return imgOut;
+    }
+
+}
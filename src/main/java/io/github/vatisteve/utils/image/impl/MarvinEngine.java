@@ -0,0 +1,46 @@
+package io.github.vatisteve.utils.image.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import io.github.vatisteve.utils.image.ImageTransformer;
+import io.github.vatisteve.utils.image.MimeTypeNotSupportedException;
+import io.github.vatisteve.utils.image.TransformerOptions;
+import io.github.vatisteve.utils.image.engine.ImageTransformerEngine;
+
+/**
+ * MarvinEngine
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      The {@link ImageTransformerEngine} of the {@link MarvinFrameworkImageTransformer}, resampling with the
+ *          Marvin framework
+ */
+public final class MarvinEngine implements ImageTransformerEngine {
+
+    public static final String NAME = "MARVIN";
+
+    private static final Set<String> FORMATS = Collections.unmodifiableSet(
+            new LinkedHashSet<>(MarvinFrameworkImageTransformer.TYPES_SUPPORTED));
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Set<String> getFormats() {
+        return FORMATS;
+    }
+
+    @Override
+    public ImageTransformer create(InputStream inputStream, String mimeType, TransformerOptions options)
+            throws MimeTypeNotSupportedException, IOException {
+        return new MarvinFrameworkImageTransformer(inputStream, mimeType, options);
+    }
+
+}
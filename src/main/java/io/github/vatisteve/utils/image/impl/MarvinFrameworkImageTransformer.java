@@ -1,299 +1,136 @@
 package io.github.vatisteve.utils.image.impl;
 
-import java.awt.Color;
-import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
-import javax.imageio.ImageIO;
-
-import io.github.vatisteve.utils.image.Measure;
-import io.github.vatisteve.utils.image.FrameProperties;
-import io.github.vatisteve.utils.image.ImageTransformer;
 import io.github.vatisteve.utils.image.MimeTypeNotSupportedException;
+import io.github.vatisteve.utils.image.TransformerOptions;
 import marvin.image.MarvinImage;
 import marvinplugins.MarvinPluginCollection;
 
-public class MarvinFrameworkImageTransformer implements ImageTransformer {
+public class MarvinFrameworkImageTransformer extends AbstractImageTransformer<MarvinImage> {
 
     public static final List<String> TYPES_SUPPORTED = Collections.unmodifiableList(
             Arrays.asList("BMP", "GIF", "JPEG", "JPG", "PNG", "PPM")
     );
 
-    private final MarvinImage marvinImage;
-
     public MarvinFrameworkImageTransformer(InputStream imageInputStream, String mimeType)
         throws MimeTypeNotSupportedException, IOException {
-        if (mimeType != null && !TYPES_SUPPORTED.contains(mimeType.toUpperCase())) {
-            throw new MimeTypeNotSupportedException(mimeType);
-        }
-        BufferedImage img = ImageIO.read(imageInputStream);
-        this.marvinImage = mimeType == null ? new MarvinImage(img) : new MarvinImage(img, mimeType);
-    }
-
-    @Override
-    public ByteArrayOutputStream resize(FrameProperties frame) throws IOException {
-        if (isRatioFrame(frame)) return toOutputStream(marvinImage);
-        return resize(frame.getWidth(), frame.getHeight());
-    }
-
-    @Override
-    public ByteArrayOutputStream resize(int width, int height) throws IOException {
-        return toOutputStream(doResize(width, height));
-    }
-
-    private MarvinImage doResize(int width, int height) {
-        MarvinImage imgOut = new MarvinImage(); // ...
-        MarvinPluginCollection.scale(marvinImage, imgOut, width, height);
-        return imgOut;
-    }
-
-    @Override
-    public ByteArrayOutputStream scale(double scale) throws IOException {
-        int newWidth = (int) Math.round(scale*marvinImage.getWidth());
-        int newHeight = (int) Math.round(scale*marvinImage.getHeight());
-        return resize(newWidth, newHeight);
-    }
-
-    @Override
-    public ByteArrayOutputStream scaleByWidth(FrameProperties frame) throws IOException {
-        if (isRatioFrame(frame)) return toOutputStream(marvinImage);
-        return scaleByWidth(frame.getWidth());
-    }
-
-    @Override
-    public ByteArrayOutputStream scaleByWidth(int width) throws IOException {
-        return toOutputStream(doScaleByWidth(width));
-    }
-
-    private MarvinImage doScaleByWidth(int width) {
-        double scale = (double) width/marvinImage.getWidth();
-        int newHeight = (int) Math.round(scale*marvinImage.getHeight());
-        return doResize(width, newHeight);
-    }
-
-    @Override
-    public ByteArrayOutputStream scaleByHeight(FrameProperties frame) throws IOException {
-        if (isRatioFrame(frame)) return toOutputStream(marvinImage);
-        return scaleByHeight(frame.getHeight());
-    }
-
-    @Override
-    public ByteArrayOutputStream scaleByHeight(int height) throws IOException {
-        return toOutputStream(doScaleByHeight(height));
-    }
-
-    private MarvinImage doScaleByHeight(int height) {
-        double scale = (double) height/marvinImage.getHeight();
-        int newWidth = (int) Math.round(scale*marvinImage.getWidth());
-        return doResize(newWidth, height);
-    }
-
-    @Override
-    public ByteArrayOutputStream scaleDown(FrameProperties frame) throws IOException {
-        frame = detectScaleDownFrame(frame);
-        return scaleDown(frame.getWidth(), frame.getHeight());
-    }
-
-    @Override
-    public ByteArrayOutputStream scaleDown(int width, int height) throws IOException {
-        return toOutputStream(doScaleDown(width, height));
-    }
-
-    private MarvinImage doScaleDown(int width, int height) {
-        int iWidth = marvinImage.getWidth();
-        int iHeight = marvinImage.getHeight();
-        if (iHeight <= height && iWidth <= width) {
-            return marvinImage;
-        }
-        if ((iHeight - height) >= (iWidth - width)) {
-            return doScaleByHeight(height);
-        } else {
-            return doScaleByWidth(width);
-        }
+        this(imageInputStream, mimeType, TransformerOptions.defaults());
     }
 
-    @Override
-    public ByteArrayOutputStream scaleDownWithBackground(FrameProperties frame) throws IOException {
-        FrameProperties newFrame = detectScaleDownFrame(frame);
-        return scaleDownWithBackground(newFrame.getWidth(), newFrame.getHeight());
+    /**
+     * Only the image header is read here, pixels are decoded by the first operation which needs them.
+     *
+     * @param imageInputStream  The image input stream data
+     * @param mimeType          The image extension
+     * @param options           The {@link TransformerOptions}
+     * @throws MimeTypeNotSupportedException    the extension does not supported
+     * @throws IOException                      when the image header can not be read
+     */
+    public MarvinFrameworkImageTransformer(InputStream imageInputStream, String mimeType, TransformerOptions options)
+        throws MimeTypeNotSupportedException, IOException {
+        super(imageInputStream, mimeType, TYPES_SUPPORTED, options);
     }
 
+    /**
+     * Unlike <code>new MarvinImage(image, format)</code>, no blank ARGB image of the same size is allocated.
+     * Packed <code>TYPE_INT_RGB</code> and <code>TYPE_INT_ARGB</code> images, like the resampled and the strip
+     * decoded ones, share their pixel array with the Marvin image and nothing is copied. Other types, like the
+     * decoded JPEG, are read once into a new array.
+     */
     @Override
-    public ByteArrayOutputStream scaleDownWithBackground(FrameProperties frame, Color bgColor) throws IOException {
-        FrameProperties newFrame = detectScaleDownFrame(frame);
-        return scaleDownWithBackground(newFrame.getWidth(), newFrame.getHeight(), bgColor);
+    protected MarvinImage toEngineImage(BufferedImage image) {
+        MarvinImage marvinImage = new PackedMarvinImage();
+        marvinImage.setBufferedImage(image);
+        return marvinImage;
     }
 
+    /**
+     * The packed pixels are wrapped as they are, the alpha byte is ignored, nothing is copied.
+     */
     @Override
-    public ByteArrayOutputStream scaleDownWithBackground(int width, int height) throws IOException {
-        return scaleDownWithBackground(width, height, Color.WHITE);
+    protected BufferedImage toBufferedImage(MarvinImage image) {
+        return Resampler.wrap(image.getIntColorArray(), image.getWidth(), image.getHeight(), false);
     }
 
     @Override
-    public ByteArrayOutputStream scaleDownWithBackground(int width, int height, Color bgColor) throws IOException {
-        MarvinImage imgOut = doScaleDown(width, height);
-        return toByteArrayOutputStream(withBackground(imgOut.getBufferedImageNoAlpha(), width, height, bgColor));
+    protected int widthOf(MarvinImage image) {
+        return image.getWidth();
     }
 
     @Override
-    public ByteArrayOutputStream scaleUp(FrameProperties frame) throws IOException {
-        FrameProperties newFrame = detectScaleUpFrame(frame);
-        return scaleUp(newFrame.getWidth(), newFrame.getHeight());
+    protected int heightOf(MarvinImage image) {
+        return image.getHeight();
     }
 
     @Override
-    public ByteArrayOutputStream scaleUp(int width, int height) throws IOException {
-        return toOutputStream(doScaleUp(width, height));
-    }
-
-    private MarvinImage doScaleUp(int width, int height) {
-        int iWidth = marvinImage.getWidth();
-        int iHeight = marvinImage.getHeight();
-        if (iHeight >= height && iWidth >= width) {
-            return marvinImage;
-        }
-        if ((iHeight - height) <= (iWidth - width)) {
-            return doScaleByHeight(height);
-        } else {
-            return doScaleByWidth(width);
+    protected MarvinImage scale(MarvinImage imgIn, int width, int height) {
+        if (resampler != null) {
+            int[] pixels = resamplePixels(imgIn.getIntColorArray(), imgIn.getWidth(), imgIn.getHeight(),
+                    width, height);
+            return toEngineImage(Resampler.wrap(pixels, width, height, false));
         }
+        MarvinImage imgOut = new MarvinImage(); // ...
+        MarvinPluginCollection.scale(imgIn, imgOut, width, height);
+        return imgOut;
     }
 
+    /**
+     * Copies the packed pixels straight into the canvas, without an intermediate <code>BufferedImage</code>.
+     */
     @Override
-    public ByteArrayOutputStream scaleUpAndCrop(FrameProperties frame) throws IOException {
-        FrameProperties newFrame = detectScaleUpFrame(frame);
-        return scaleUpAndCrop(newFrame.getWidth(), newFrame.getHeight());
+    protected void paint(MarvinImage image, BufferedImage canvas, int x, int y) {
+        canvas.getRaster().setDataElements(x, y, image.getWidth(), image.getHeight(), image.getIntColorArray());
     }
 
     @Override
-    public ByteArrayOutputStream scaleUpAndCrop(int width, int height) throws IOException {
-        MarvinImage imgOut = doScaleUp(width, height);
-        if (imgOut.getWidth() > width || imgOut.getHeight() > height) {
-            MarvinImage cropped = new MarvinImage(/* width, height */);
-            MarvinPluginCollection.crop(imgOut, cropped,
-                    (imgOut.getWidth() - width)/2, (imgOut.getHeight() - height)/2,
-                    width, height);
-            return toOutputStream(cropped);
-        }
-        return toOutputStream(imgOut);
-    }
-
-    private ByteArrayOutputStream toOutputStream(MarvinImage image) throws IOException {
-        return toByteArrayOutputStream(image.getBufferedImageNoAlpha());
-    }
-
-    private ByteArrayOutputStream toByteArrayOutputStream(BufferedImage image) throws IOException {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        ImageIO.write(image, marvinImage.getFormatName(), outputStream);
-        return outputStream;
-    }
-
-    private BufferedImage withBackground(BufferedImage imageIn, int width, int height, Color backgroundColor) {
-        if (imageIn.getWidth() >= width && imageIn.getHeight() >= height) {
-            return imageIn;
-        }
-        BufferedImage imageOut = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        Graphics2D graphics = imageOut.createGraphics();
-        graphics.setColor(backgroundColor);
-        graphics.fillRect(0, 0, width, height);
-        int x = (width - imageIn.getWidth())/2;
-        int y = (height - imageIn.getHeight())/2;
-        graphics.drawImage(imageIn, x, y, null);
-        graphics.dispose();
-        return imageOut;
+    protected MarvinImage crop(MarvinImage imgIn, int x, int y, int width, int height) {
+        MarvinImage cropped = new MarvinImage(/* width, height */);
+        MarvinPluginCollection.crop(imgIn, cropped, x, y, width, height);
+        return cropped;
     }
 
     /**
-     * @param   frame the frame
-     * @return  the smaller frame
+     * Takes the pixel array of packed images as it is instead of copying it with <code>getRGB</code>. The alpha
+     * byte of a <code>TYPE_INT_RGB</code> pixel is then left undefined, which the opaque outputs ignore.
      */
-    private FrameProperties detectScaleUpFrame(FrameProperties frame) {
-        if (!frame.getMeasure().equals(Measure.RATIO)) return frame;
-        int rWidth = frame.getWidth();
-        int rHeight = frame.getHeight();
-        int iWidth = marvinImage.getWidth();
-        int iHeight = marvinImage.getHeight();
-        int width = 0;
-        int height = 0;
-        if (rWidth == rHeight) {
-            width = height = iWidth >= iHeight ? iHeight : iWidth;
-        } else if (rWidth < rHeight) {
-            height = iHeight;
-            width = iHeight*rWidth/rHeight;
-        } else {
-            width = iWidth;
-            height = iWidth*rHeight/rWidth;
-        }
-        final int w = width;
-        final int h = height;
-        return new FrameProperties() {
-            @Override
-            public int getWidth() {
-                return w;
-            }
-            @Override
-            public int getHeight() {
-                return h;
+    private static final class PackedMarvinImage extends MarvinImage {
+
+        @Override
+        public void updateColorArray() {
+            int[] pixels = packedPixels(image);
+            if (pixels != null) {
+                arrIntColor = pixels;
+            } else {
+                super.updateColorArray();
             }
-            @Override
-            public Measure getMeasure() {
-                return null;
-            }
-        };
-    }
-
-    /**
-     * @param   frame the frame
-     * @return  the bigger frame
-     */
-    private FrameProperties detectScaleDownFrame(FrameProperties frame) {
-        if (!frame.getMeasure().equals(Measure.RATIO)) return frame;
-        int rWidth = frame.getWidth();
-        int rHeight = frame.getHeight();
-        int iWidth = marvinImage.getWidth();
-        int iHeight = marvinImage.getHeight();
-        int width = 0;
-        int height = 0;
-        if (rWidth == rHeight) {
-            width = height = iWidth >= iHeight ? iWidth : iHeight;
-        } else if (rWidth < rHeight) {
-            width = iWidth;
-            height = iWidth*rHeight/rWidth;
-        } else {
-            height = iHeight;
-            width = iHeight*rWidth/rHeight;
         }
-        final int w = width;
-        final int h = height;
-        return new FrameProperties() {
-            @Override
-            public int getWidth() {
-                return w;
-            }
-            @Override
-            public int getHeight() {
-                return h;
+
+        /**
+         * @return  The pixels of the image when they are stored row after row without gap, <code>null</code>
+         *          otherwise
+         */
+        private static int[] packedPixels(BufferedImage image) {
+            if (image.getType() != BufferedImage.TYPE_INT_RGB && image.getType() != BufferedImage.TYPE_INT_ARGB) {
+                return null;
             }
-            @Override
-            public Measure getMeasure() {
+            WritableRaster raster = image.getRaster();
+            if (raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0
+                    || !(raster.getSampleModel() instanceof SinglePixelPackedSampleModel)
+                    || ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride() != image.getWidth()
+                    || raster.getDataBuffer().getNumBanks() != 1 || raster.getDataBuffer().getOffset() != 0) {
                 return null;
             }
-        };
-    }
-
-    private boolean isRatioFrame(FrameProperties frame) {
-        return Measure.RATIO.equals(frame.getMeasure());
-    }
-
-    @Override
-    public void close() throws IOException {
-        // ...
+            return ((DataBufferInt) raster.getDataBuffer()).getData();
+        }
     }
 
 }
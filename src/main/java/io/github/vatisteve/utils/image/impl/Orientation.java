@@ -0,0 +1,178 @@
+package io.github.vatisteve.utils.image.impl;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * Orientation
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Maps between the pixels as stored in the file and the upright image of an EXIF orientation:
+ *          1 upright, 2 mirrored, 3 turned 180°, 4 flipped, 5 transposed, 6 turned 90° clockwise to be upright,
+ *          7 transversed, 8 turned 90° counterclockwise. 5 to 8 swap width and height.
+ * <p>      Nothing is rotated as a pass of its own: {@link #copy(BufferedImage, int, int[], int, int)} reads the
+ *          stored rows in order and writes each pixel straight to its upright index, and the other maps only
+ *          convert coordinates.
+ */
+final class Orientation {
+
+    private Orientation() {}
+
+    /**
+     * @param orientation   The EXIF orientation
+     * @return              <code>true</code> when it swaps width and height
+     */
+    static boolean isTransposed(int orientation) {
+        return orientation >= 5 && orientation <= 8;
+    }
+
+    /**
+     * @param orientation   The EXIF orientation
+     * @param x             The upright column
+     * @param y             The upright row
+     * @param width         The stored width
+     * @param height        The stored height
+     * @return              The stored column of the upright pixel
+     */
+    static int storedX(int orientation, int x, int y, int width, int height) {
+        switch (orientation) {
+            case 2:
+            case 3:
+                return width - 1 - x;
+            case 5:
+            case 6:
+                return y;
+            case 7:
+            case 8:
+                return width - 1 - y;
+            default:
+                return x;
+        }
+    }
+
+    /**
+     * @param orientation   The EXIF orientation
+     * @param x             The upright column
+     * @param y             The upright row
+     * @param width         The stored width
+     * @param height        The stored height
+     * @return              The stored row of the upright pixel
+     */
+    static int storedY(int orientation, int x, int y, int width, int height) {
+        switch (orientation) {
+            case 3:
+            case 4:
+                return height - 1 - y;
+            case 5:
+            case 8:
+                return x;
+            case 6:
+            case 7:
+                return height - 1 - x;
+            default:
+                return y;
+        }
+    }
+
+    /**
+     * @param orientation   The EXIF orientation
+     * @param region        An area of the upright image
+     * @param width         The stored width
+     * @param height        The stored height
+     * @return              The same area in the stored image
+     */
+    static Rectangle storedRegion(int orientation, Rectangle region, int width, int height) {
+        int right = region.x + region.width - 1;
+        int bottom = region.y + region.height - 1;
+        int x0 = storedX(orientation, region.x, region.y, width, height);
+        int y0 = storedY(orientation, region.x, region.y, width, height);
+        int x1 = storedX(orientation, right, bottom, width, height);
+        int y1 = storedY(orientation, right, bottom, width, height);
+        return new Rectangle(Math.min(x0, x1), Math.min(y0, y1), Math.abs(x1 - x0) + 1, Math.abs(y1 - y0) + 1);
+    }
+
+    /**
+     * Copies the stored image upright, reading its rows in order. Packed RGB and interleaved BGR rasters are
+     * read without the per pixel color model lookup.
+     *
+     * @param image         The image as stored, without alpha
+     * @param orientation   The EXIF orientation
+     * @param pixels        Receives the upright packed RGB pixels
+     * @param offset        The index of the upright top left pixel in <code>pixels</code>
+     * @param scanline      The distance between two upright rows in <code>pixels</code>
+     */
+    static void copy(BufferedImage image, int orientation, int[] pixels, int offset, int scanline) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        // a stored row is a line of the upright image, walked with a constant step
+        int step = uprightIndex(orientation, 1, 0, width, height, scanline)
+                - uprightIndex(orientation, 0, 0, width, height, scanline);
+        int[] row = null;
+        byte[] bgr = null;
+        int bgrStride = 0;
+        int[] rgb = null;
+        int rgbStride = 0;
+        WritableRaster raster = image.getRaster();
+        boolean untranslated = raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0;
+        if (untranslated && image.getType() == BufferedImage.TYPE_3BYTE_BGR
+                && raster.getSampleModel() instanceof ComponentSampleModel) {
+            bgr = ((DataBufferByte) raster.getDataBuffer()).getData();
+            bgrStride = ((ComponentSampleModel) raster.getSampleModel()).getScanlineStride();
+        } else if (untranslated && image.getType() == BufferedImage.TYPE_INT_RGB
+                && raster.getSampleModel() instanceof SinglePixelPackedSampleModel) {
+            rgb = ((DataBufferInt) raster.getDataBuffer()).getData();
+            rgbStride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+        } else {
+            row = new int[width];
+        }
+        for (int y = 0; y < height; y++) {
+            int index = offset + uprightIndex(orientation, 0, y, width, height, scanline);
+            if (bgr != null) {
+                for (int x = 0, i = y*bgrStride; x < width; x++, i += 3, index += step) {
+                    pixels[index] = (bgr[i + 2] & 0xFF) << 16 | (bgr[i + 1] & 0xFF) << 8 | bgr[i] & 0xFF;
+                }
+            } else if (rgb != null) {
+                for (int x = 0, i = y*rgbStride; x < width; x++, i++, index += step) {
+                    pixels[index] = rgb[i];
+                }
+            } else {
+                image.getRGB(0, y, width, 1, row, 0, width);
+                for (int x = 0; x < width; x++, index += step) {
+                    pixels[index] = row[x];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return  The index of the stored pixel <code>x, y</code> in the upright rows of <code>scanline</code>
+     */
+    private static int uprightIndex(int orientation, int x, int y, int width, int height, int scanline) {
+        switch (orientation) {
+            case 2:
+                return y*scanline + width - 1 - x;
+            case 3:
+                return (height - 1 - y)*scanline + width - 1 - x;
+            case 4:
+                return (height - 1 - y)*scanline + x;
+            case 5:
+                return x*scanline + y;
+            case 6:
+                return x*scanline + height - 1 - y;
+            case 7:
+                return (width - 1 - x)*scanline + height - 1 - y;
+            case 8:
+                return (width - 1 - x)*scanline + y;
+            default:
+                return y*scanline + x;
+        }
+    }
+
+}
@@ -0,0 +1,277 @@
+package io.github.vatisteve.utils.image.impl;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+
+import io.github.vatisteve.utils.image.TransformPlan;
+
+/**
+ * PlanGeometry
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Folds the steps of a {@link TransformPlan} into one mapping: a source area, resampled to a target
+ *          rectangle placed on the output canvas. The steps only move rectangles, pixels are touched once.
+ */
+final class PlanGeometry {
+
+    private final int sourceWidth;
+    private final int sourceHeight;
+    private final Focus focus;
+    private int canvasWidth;
+    private int canvasHeight;
+    private Color background;
+    // the source area in source pixels
+    private double sx;
+    private double sy;
+    private double sw;
+    private double sh;
+    // where that area lands on the canvas
+    private double dx;
+    private double dy;
+    private double dw;
+    private double dh;
+
+    private PlanGeometry(int sourceWidth, int sourceHeight, Focus focus) {
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+        this.focus = focus;
+        this.canvasWidth = sourceWidth;
+        this.canvasHeight = sourceHeight;
+        this.sw = this.dw = sourceWidth;
+        this.sh = this.dh = sourceHeight;
+    }
+
+    /**
+     * @param plan          The plan to fold
+     * @param sourceWidth   The source width
+     * @param sourceHeight  The source height
+     * @return              The geometry of the plan output
+     */
+    static PlanGeometry of(TransformPlan plan, int sourceWidth, int sourceHeight) {
+        return of(plan, sourceWidth, sourceHeight, null);
+    }
+
+    /**
+     * @param plan          The plan to fold
+     * @param sourceWidth   The source width
+     * @param sourceHeight  The source height
+     * @param focus         Places the attention crops, <code>null</code> to centre them
+     * @return              The geometry of the plan output
+     */
+    static PlanGeometry of(TransformPlan plan, int sourceWidth, int sourceHeight, Focus focus) {
+        PlanGeometry geometry = new PlanGeometry(sourceWidth, sourceHeight, focus);
+        for (TransformPlan.Step step : plan.getSteps()) {
+            geometry.apply(step);
+        }
+        return geometry;
+    }
+
+    private void apply(TransformPlan.Step step) {
+        int width = step.getWidth();
+        int height = step.getHeight();
+        switch (step.getOperation()) {
+            case RESIZE:
+                scaleTo(width, height);
+                break;
+            case SCALE_BY_WIDTH:
+                scaleTo(width, (int) Math.round((double) width/canvasWidth*canvasHeight));
+                break;
+            case SCALE_BY_HEIGHT:
+                scaleTo((int) Math.round((double) height/canvasHeight*canvasWidth), height);
+                break;
+            case FIT:
+                int[] size = fitSize(canvasWidth, canvasHeight, width, height);
+                if (size != null) scaleTo(size[0], size[1]);
+                break;
+            case COVER:
+                if (canvasHeight >= height && canvasWidth >= width) break;
+                if ((canvasHeight - height) <= (canvasWidth - width)) {
+                    scaleTo((int) Math.round((double) height/canvasHeight*canvasWidth), height);
+                } else {
+                    scaleTo(width, (int) Math.round((double) width/canvasWidth*canvasHeight));
+                }
+                break;
+            case CROP:
+                int x = Math.max(0, step.getX());
+                int y = Math.max(0, step.getY());
+                cropTo(x, y, Math.min(width, canvasWidth - x), Math.min(height, canvasHeight - y));
+                break;
+            case CROP_CENTER:
+                int cropWidth = Math.min(width, canvasWidth);
+                int cropHeight = Math.min(height, canvasHeight);
+                cropTo((canvasWidth - cropWidth)/2, (canvasHeight - cropHeight)/2, cropWidth, cropHeight);
+                break;
+            case CROP_ATTENTION:
+                cropAttention(Math.min(width, canvasWidth), Math.min(height, canvasHeight));
+                break;
+            case PAD:
+                if (canvasWidth >= width && canvasHeight >= height) break;
+                background = step.getColor();
+                cropTo(-((width - canvasWidth)/2), -((height - canvasHeight)/2), width, height);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + step.getOperation());
+        }
+    }
+
+    private void scaleTo(int width, int height) {
+        double fx = canvasWidth == 0 ? 0 : (double) width/canvasWidth;
+        double fy = canvasHeight == 0 ? 0 : (double) height/canvasHeight;
+        dx *= fx;
+        dw *= fx;
+        dy *= fy;
+        dh *= fy;
+        canvasWidth = width;
+        canvasHeight = height;
+    }
+
+    /**
+     * The new canvas is the given rectangle of the current one, the content is clipped to it.
+     */
+    private void cropTo(int x, int y, int width, int height) {
+        width = Math.max(0, width);
+        height = Math.max(0, height);
+        double left = Math.max(dx, x);
+        double top = Math.max(dy, y);
+        double right = Math.min(dx + dw, x + width);
+        double bottom = Math.min(dy + dh, y + height);
+        if (right <= left || bottom <= top) {
+            sw = sh = dw = dh = 0;
+        } else {
+            double scaleX = sw/dw;
+            double scaleY = sh/dh;
+            sx += (left - dx)*scaleX;
+            sy += (top - dy)*scaleY;
+            sw = (right - left)*scaleX;
+            sh = (bottom - top)*scaleY;
+            dw = right - left;
+            dh = bottom - top;
+        }
+        dx = left - x;
+        dy = top - y;
+        canvasWidth = width;
+        canvasHeight = height;
+    }
+
+    /**
+     * Asks the focus for the best window in the source area visible on the canvas, centred without focus.
+     */
+    private void cropAttention(int width, int height) {
+        int x = (canvasWidth - width)/2;
+        int y = (canvasHeight - height)/2;
+        double left = Math.max(dx, 0);
+        double top = Math.max(dy, 0);
+        double right = Math.min(dx + dw, canvasWidth);
+        double bottom = Math.min(dy + dh, canvasHeight);
+        if (focus != null && right > left && bottom > top) {
+            // canvas to source pixels
+            double scaleX = sw/dw;
+            double scaleY = sh/dh;
+            double[] window = focus.locate(sx + (left - dx)*scaleX, sy + (top - dy)*scaleY,
+                    (right - left)*scaleX, (bottom - top)*scaleY, width*scaleX, height*scaleY);
+            x = (int) Math.round(dx + (window[0] - sx)/scaleX);
+            y = (int) Math.round(dy + (window[1] - sy)/scaleY);
+            x = Math.max(0, Math.min(canvasWidth - width, x));
+            y = Math.max(0, Math.min(canvasHeight - height, y));
+        }
+        cropTo(x, y, width, height);
+    }
+
+    /**
+     * @param width     The current width
+     * @param height    The current height
+     * @param frameWidth    The width of the frame
+     * @param frameHeight   The height of the frame
+     * @return          The scaled down width and height, <code>null</code> when the image already fits
+     */
+    static int[] fitSize(int width, int height, int frameWidth, int frameHeight) {
+        if (height <= frameHeight && width <= frameWidth) {
+            return null;
+        }
+        if ((height - frameHeight) >= (width - frameWidth)) {
+            double scale = (double) frameHeight/height;
+            return new int[] {(int) Math.round(scale*width), frameHeight};
+        } else {
+            double scale = (double) frameWidth/width;
+            return new int[] {frameWidth, (int) Math.round(scale*height)};
+        }
+    }
+
+    int getCanvasWidth() {
+        return canvasWidth;
+    }
+
+    int getCanvasHeight() {
+        return canvasHeight;
+    }
+
+    /**
+     * @return  The background of the canvas, <code>null</code> when the target covers it
+     */
+    Color getBackground() {
+        return background;
+    }
+
+    /**
+     * @return  The source area to decode, at least one pixel
+     */
+    Rectangle getRegion() {
+        int left = Math.max(0, (int) Math.floor(sx + 1e-6));
+        int top = Math.max(0, (int) Math.floor(sy + 1e-6));
+        int right = Math.min(sourceWidth, (int) Math.ceil(sx + sw - 1e-6));
+        int bottom = Math.min(sourceHeight, (int) Math.ceil(sy + sh - 1e-6));
+        return new Rectangle(left, top, Math.max(1, right - left), Math.max(1, bottom - top));
+    }
+
+    /**
+     * @return  Where the resampled source area lands on the canvas, empty when nothing of the source is left
+     */
+    Rectangle getTarget() {
+        int left = (int) Math.round(dx);
+        int top = (int) Math.round(dy);
+        return new Rectangle(left, top, (int) Math.round(dx + dw) - left, (int) Math.round(dy + dh) - top);
+    }
+
+    /**
+     * @return  <code>true</code> when the whole source is kept
+     */
+    boolean isFullSource() {
+        Rectangle region = getRegion();
+        return region.x == 0 && region.y == 0 && region.width == sourceWidth && region.height == sourceHeight;
+    }
+
+    /**
+     * @return  <code>true</code> when the target fills the canvas
+     */
+    boolean coversCanvas() {
+        Rectangle target = getTarget();
+        return target.x == 0 && target.y == 0 && target.width == canvasWidth && target.height == canvasHeight;
+    }
+
+    /**
+     * @return  <code>true</code> when the output is the source pixel for pixel
+     */
+    boolean isIdentity() {
+        return canvasWidth == sourceWidth && canvasHeight == sourceHeight && isFullSource() && coversCanvas();
+    }
+
+    /**
+     * Finds where a crop keeps the most of the image
+     */
+    interface Focus {
+
+        /**
+         * @param x             The left of the searched area, in source pixels
+         * @param y             The top of the searched area
+         * @param width         The width of the searched area
+         * @param height        The height of the searched area
+         * @param windowWidth   The width of the crop window, not bigger than the area
+         * @param windowHeight  The height of the crop window, not bigger than the area
+         * @return              The left and top of the best window inside the area
+         */
+        double[] locate(double x, double y, double width, double height, double windowWidth, double windowHeight);
+    }
+
+}
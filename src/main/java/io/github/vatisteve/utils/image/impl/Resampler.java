@@ -0,0 +1,439 @@
+package io.github.vatisteve.utils.image.impl;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import io.github.vatisteve.utils.image.CancellationToken;
+import io.github.vatisteve.utils.image.PixelArena;
+import io.github.vatisteve.utils.image.ResampleFilter;
+import io.github.vatisteve.utils.image.TransformCancelledException;
+
+/**
+ * Resampler
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Separable two-pass resampler working on packed ARGB pixels.
+ * <p>      Weights are precomputed once per axis as 14-bit fixed point, the horizontal pass then the vertical
+ *          pass split their rows into bands on a {@link ForkJoinPool}, no allocation happens per pixel.
+ * <p>      A {@link CancellationToken} is checked before every band, a cancelled resample skips the bands left.
+ */
+public final class Resampler {
+
+    private static final int PRECISION = 14;
+    static final int ONE = 1 << PRECISION;
+    private static final int HALF = 1 << (PRECISION - 1);
+    private static final int MIN_BAND = 16;
+    private static final int[] RGB_MASKS = {0xFF0000, 0xFF00, 0xFF};
+    private static final int[] ARGB_MASKS = {0xFF0000, 0xFF00, 0xFF, 0xFF000000};
+
+    private final ResampleFilter filter;
+    private final ForkJoinPool pool;
+    private final PixelArena arena;
+
+    public Resampler(ResampleFilter filter) {
+        this(filter, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param filter    The {@link ResampleFilter} kernel
+     * @param pool      The pool running the row bands
+     */
+    public Resampler(ResampleFilter filter, ForkJoinPool pool) {
+        this(filter, pool, null);
+    }
+
+    /**
+     * @param filter    The {@link ResampleFilter} kernel
+     * @param pool      The pool running the row bands
+     * @param arena     The {@link PixelArena} of the intermediate pass, <code>null</code> to allocate it
+     */
+    public Resampler(ResampleFilter filter, ForkJoinPool pool, PixelArena arena) {
+        this.filter = filter == null ? ResampleFilter.BILINEAR : filter;
+        this.pool = pool == null ? ForkJoinPool.commonPool() : pool;
+        this.arena = arena == null ? new PixelArena(0) : arena;
+    }
+
+    public ResampleFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * @param image     The source image
+     * @param width     The expected width
+     * @param height    The expected height
+     * @return          The resampled image, <code>TYPE_INT_ARGB</code> when the source has alpha,
+     *                  <code>TYPE_INT_RGB</code> otherwise
+     */
+    public BufferedImage resample(BufferedImage image, int width, int height) {
+        return resample(image, width, height, new int[width*height], CancellationToken.NONE);
+    }
+
+    /**
+     * @param image     The source image
+     * @param width     The expected width
+     * @param height    The expected height
+     * @param out       Receives the pixels, at least <code>width*height</code> long
+     * @param token     The {@link CancellationToken} stopping the resample, the caller checks it afterwards
+     * @return          The resampled image backed by <code>out</code>
+     */
+    BufferedImage resample(BufferedImage image, int width, int height, int[] out, CancellationToken token) {
+        boolean alpha = image.getColorModel().hasAlpha();
+        resampleUntil(pixels(image), image.getWidth(), image.getHeight(), width, height, out, token);
+        return wrap(out, width, height, alpha);
+    }
+
+    /**
+     * @param pixels    The packed pixels, row by row
+     * @param width     The image width
+     * @param height    The image height
+     * @param alpha     <code>true</code> for <code>TYPE_INT_ARGB</code>, <code>TYPE_INT_RGB</code> otherwise
+     * @return          The image backed by <code>pixels</code>, without copying them
+     */
+    static BufferedImage wrap(int[] pixels, int width, int height, boolean alpha) {
+        int[] masks = alpha ? ARGB_MASKS : RGB_MASKS;
+        WritableRaster raster = Raster.createPackedRaster(new DataBufferInt(pixels, width*height),
+                width, height, width, masks, null);
+        ColorModel colorModel = alpha
+                ? new DirectColorModel(32, masks[0], masks[1], masks[2], masks[3])
+                : new DirectColorModel(24, masks[0], masks[1], masks[2]);
+        return new BufferedImage(colorModel, raster, false, null);
+    }
+
+    /**
+     * @param pixels    The packed ARGB source pixels, row by row
+     * @param sWidth    The source width
+     * @param sHeight   The source height
+     * @param width     The expected width
+     * @param height    The expected height
+     * @return          The packed ARGB pixels of the resampled image
+     */
+    public int[] resample(int[] pixels, int sWidth, int sHeight, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid target size: %dx%d", width, height));
+        }
+        return resample(pixels, sWidth, sHeight, width, height, new int[width*height]);
+    }
+
+    /**
+     * Same as {@link #resample(int[], int, int, int, int)} into a given array, e.g. one of a {@link PixelArena}.
+     * The intermediate pass is drawn from the arena of the resampler and returned to it.
+     *
+     * @param pixels    The packed ARGB source pixels, row by row
+     * @param sWidth    The source width
+     * @param sHeight   The source height
+     * @param width     The expected width
+     * @param height    The expected height
+     * @param out       Receives the pixels, at least <code>width*height</code> long
+     * @return          <code>out</code>
+     */
+    public int[] resample(int[] pixels, int sWidth, int sHeight, int width, int height, int[] out) {
+        return resampleUntil(pixels, sWidth, sHeight, width, height, out, CancellationToken.NONE);
+    }
+
+    /**
+     * Same as {@link #resample(int[], int, int, int, int, int[])}, stopped between two row bands once
+     * <code>token</code> is cancelled.
+     *
+     * @param pixels    The packed ARGB source pixels, row by row
+     * @param sWidth    The source width
+     * @param sHeight   The source height
+     * @param width     The expected width
+     * @param height    The expected height
+     * @param out       Receives the pixels, at least <code>width*height</code> long
+     * @param token     The {@link CancellationToken} stopping the resample
+     * @return          <code>out</code>
+     * @throws TransformCancelledException when <code>token</code> is cancelled, <code>out</code> is then
+     *                                     partly written
+     */
+    public int[] resample(int[] pixels, int sWidth, int sHeight, int width, int height, int[] out,
+            CancellationToken token) throws TransformCancelledException {
+        resampleUntil(pixels, sWidth, sHeight, width, height, out, token);
+        token.throwIfCancelled();
+        return out;
+    }
+
+    /**
+     * @return  <code>out</code>, partly written when <code>token</code> is cancelled
+     */
+    int[] resampleUntil(int[] pixels, int sWidth, int sHeight, int width, int height, int[] out,
+            CancellationToken token) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid target size: %dx%d", width, height));
+        }
+        if (height == sHeight) {
+            if (width == sWidth) {
+                System.arraycopy(pixels, 0, out, 0, width*height);
+            } else {
+                run(new HorizontalPass(pixels, sWidth, out, width, weights(sWidth, width)), sHeight, token);
+            }
+            return out;
+        }
+        int[] horizontal = pixels;
+        if (width != sWidth) {
+            horizontal = arena.ints(width*sHeight);
+            run(new HorizontalPass(pixels, sWidth, horizontal, width, weights(sWidth, width)), sHeight, token);
+        }
+        try {
+            if (!token.isCancelled()) {
+                run(new VerticalPass(horizontal, out, width, weights(sHeight, height)), height, token);
+            }
+        } finally {
+            if (horizontal != pixels) arena.release(horizontal);
+        }
+        return out;
+    }
+
+    /**
+     * Scales the color of every pixel by its alpha, so transparent pixels do not bleed into their neighbours
+     * when resampled
+     *
+     * @param pixels    The packed ARGB pixels, changed in place
+     */
+    static void premultiply(int[] pixels) {
+        for (int i = 0; i < pixels.length; i++) {
+            int argb = pixels[i];
+            int a = argb >>> 24;
+            if (a == 255) continue;
+            pixels[i] = a << 24 | ((argb >> 16 & 0xFF)*a + 127)/255 << 16
+                    | ((argb >> 8 & 0xFF)*a + 127)/255 << 8 | ((argb & 0xFF)*a + 127)/255;
+        }
+    }
+
+    /**
+     * @param pixels    The packed premultiplied ARGB pixels, changed back to straight ARGB in place
+     */
+    static void unpremultiply(int[] pixels) {
+        for (int i = 0; i < pixels.length; i++) {
+            int argb = pixels[i];
+            int a = argb >>> 24;
+            if (a == 255) continue;
+            if (a == 0) {
+                pixels[i] = 0;
+                continue;
+            }
+            int half = a/2;
+            pixels[i] = a << 24 | Math.min(255, ((argb >> 16 & 0xFF)*255 + half)/a) << 16
+                    | Math.min(255, ((argb >> 8 & 0xFF)*255 + half)/a) << 8
+                    | Math.min(255, ((argb & 0xFF)*255 + half)/a);
+        }
+    }
+
+    private void run(Pass pass, int rows, CancellationToken token) {
+        int band = Math.max(MIN_BAND, rows/(pool.getParallelism()*4));
+        if (rows <= band) {
+            pass.rows(0, rows);
+        } else {
+            pool.invoke(new Band(pass, 0, rows, band, token));
+        }
+    }
+
+    /**
+     * @param sLength   The source length of the axis
+     * @param length    The target length of the axis
+     * @return          The contributing source pixels and fixed point weights of every target pixel
+     */
+    Weights weights(int sLength, int length) {
+        double scale = (double) sLength/length;
+        double stretch = Math.max(1, scale);
+        double support = filter == ResampleFilter.NEAREST ? 0.5 : filter.getSupport()*stretch;
+        int taps = filter == ResampleFilter.NEAREST ? 1 : (int) Math.ceil(support)*2 + 1;
+        Weights weights = new Weights(length, taps);
+        double[] raw = new double[taps];
+        for (int i = 0; i < length; i++) {
+            double center = (i + 0.5)*scale;
+            if (filter == ResampleFilter.NEAREST) {
+                weights.start[i] = Math.min(sLength - 1, (int) center);
+                weights.count[i] = 1;
+                weights.values[i*taps] = ONE;
+                continue;
+            }
+            int from = Math.max(0, (int) Math.floor(center - support));
+            int to = Math.min(sLength, (int) Math.ceil(center + support));
+            int count = Math.min(taps, to - from);
+            double sum = 0;
+            for (int k = 0; k < count; k++) {
+                raw[k] = filter.weight((from + k + 0.5 - center)/stretch);
+                sum += raw[k];
+            }
+            int fixedSum = 0;
+            int peak = 0;
+            for (int k = 0; k < count; k++) {
+                int value = (int) Math.round(raw[k]/sum*ONE);
+                weights.values[i*taps + k] = value;
+                fixedSum += value;
+                if (value > weights.values[i*taps + peak]) peak = k;
+            }
+            // rounding drift goes to the biggest tap so every row of weights sums to exactly ONE
+            weights.values[i*taps + peak] += ONE - fixedSum;
+            weights.start[i] = from;
+            weights.count[i] = count;
+        }
+        return weights;
+    }
+
+    private static int[] pixels(BufferedImage image) {
+        int type = image.getType();
+        if ((type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB)
+                && image.getRaster().getDataBuffer() instanceof DataBufferInt
+                && image.getRaster().getSampleModel() instanceof SinglePixelPackedSampleModel
+                && ((SinglePixelPackedSampleModel) image.getRaster().getSampleModel()).getScanlineStride() == image.getWidth()
+                && image.getRaster().getSampleModelTranslateX() == 0
+                && image.getRaster().getSampleModelTranslateY() == 0) {
+            // TYPE_INT_RGB leaves the alpha byte empty, the output drops it too
+            return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        }
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+    }
+
+    private static int pack(int a, int r, int g, int b) {
+        return clamp((a + HALF) >> PRECISION) << 24 | clamp((r + HALF) >> PRECISION) << 16
+                | clamp((g + HALF) >> PRECISION) << 8 | clamp((b + HALF) >> PRECISION);
+    }
+
+    static final class Weights {
+
+        final int taps;
+        final int[] start;
+        final int[] count;
+        final int[] values;
+
+        private Weights(int length, int taps) {
+            this.taps = taps;
+            this.start = new int[length];
+            this.count = new int[length];
+            this.values = new int[length*taps];
+        }
+    }
+
+    private interface Pass {
+        void rows(int from, int to);
+    }
+
+    private static final class HorizontalPass implements Pass {
+
+        private final int[] in;
+        private final int sWidth;
+        private final int[] out;
+        private final int width;
+        private final Weights weights;
+
+        private HorizontalPass(int[] in, int sWidth, int[] out, int width, Weights weights) {
+            this.in = in;
+            this.sWidth = sWidth;
+            this.out = out;
+            this.width = width;
+            this.weights = weights;
+        }
+
+        @Override
+        public void rows(int from, int to) {
+            for (int y = from; y < to; y++) {
+                int rowIn = y*sWidth;
+                int rowOut = y*width;
+                for (int x = 0; x < width; x++) {
+                    int a = 0, r = 0, g = 0, b = 0;
+                    int offset = x*weights.taps;
+                    int pixel = rowIn + weights.start[x];
+                    for (int k = 0, n = weights.count[x]; k < n; k++) {
+                        int w = weights.values[offset + k];
+                        int argb = in[pixel + k];
+                        a += w*(argb >>> 24);
+                        r += w*(argb >> 16 & 0xFF);
+                        g += w*(argb >> 8 & 0xFF);
+                        b += w*(argb & 0xFF);
+                    }
+                    out[rowOut + x] = pack(a, r, g, b);
+                }
+            }
+        }
+    }
+
+    private static final class VerticalPass implements Pass {
+
+        private final int[] in;
+        private final int[] out;
+        private final int width;
+        private final Weights weights;
+
+        private VerticalPass(int[] in, int[] out, int width, Weights weights) {
+            this.in = in;
+            this.out = out;
+            this.width = width;
+            this.weights = weights;
+        }
+
+        @Override
+        public void rows(int from, int to) {
+            // row accumulators keep the reads sequential, they are allocated once per band
+            int[] a = new int[width], r = new int[width], g = new int[width], b = new int[width];
+            for (int y = from; y < to; y++) {
+                int offset = y*weights.taps;
+                int first = weights.start[y];
+                Arrays.fill(a, 0);
+                Arrays.fill(r, 0);
+                Arrays.fill(g, 0);
+                Arrays.fill(b, 0);
+                for (int k = 0, n = weights.count[y]; k < n; k++) {
+                    int w = weights.values[offset + k];
+                    int rowIn = (first + k)*width;
+                    for (int x = 0; x < width; x++) {
+                        int argb = in[rowIn + x];
+                        a[x] += w*(argb >>> 24);
+                        r[x] += w*(argb >> 16 & 0xFF);
+                        g[x] += w*(argb >> 8 & 0xFF);
+                        b[x] += w*(argb & 0xFF);
+                    }
+                }
+                int rowOut = y*width;
+                for (int x = 0; x < width; x++) {
+                    out[rowOut + x] = pack(a[x], r[x], g[x], b[x]);
+                }
+            }
+        }
+    }
+
+    private static final class Band extends RecursiveAction {
+
+        private static final long serialVersionUID = 3425068941552208113L;
+
+        private final transient Pass pass;
+        private final int from;
+        private final int to;
+        private final int band;
+        private final transient CancellationToken token;
+
+        private Band(Pass pass, int from, int to, int band, CancellationToken token) {
+            this.pass = pass;
+            this.from = from;
+            this.to = to;
+            this.band = band;
+            this.token = token;
+        }
+
+        @Override
+        protected void compute() {
+            if (token.isCancelled()) return;
+            if (to - from <= band) {
+                pass.rows(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Band(pass, from, middle, band, token), new Band(pass, middle, to, band, token));
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+package io.github.vatisteve.utils.image.impl;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * SaliencyMap
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Edge energy of a proxy of the image, at most {@value #PROXY_SIZE} pixels on its longest side, kept as
+ *          a summed-area table so the energy of any window is read in constant time.
+ * <p>      The energy of a cell is its luminance gradient plus a part of its saturation, flat or grey
+ *          backgrounds score low while faces, text and products score high.
+ */
+final class SaliencyMap implements PlanGeometry.Focus {
+
+    static final int PROXY_SIZE = 256;
+    private static final double SATURATION_WEIGHT = 0.25;
+
+    private final int width;
+    private final int height;
+    private final int gridWidth;
+    private final int gridHeight;
+    private final double[] table;
+
+    private SaliencyMap(int width, int height, int gridWidth, int gridHeight, double[] table) {
+        this.width = width;
+        this.height = height;
+        this.gridWidth = gridWidth;
+        this.gridHeight = gridHeight;
+        this.table = table;
+    }
+
+    /**
+     * @param image         The image or a subsampled decode of it, as stored
+     * @param orientation   The EXIF orientation turning <code>image</code> upright, its samples are read through it
+     * @param width         The upright source width the windows are located in
+     * @param height        The upright source height the windows are located in
+     * @return              The map of the upright <code>image</code>
+     */
+    static SaliencyMap of(BufferedImage image, int orientation, int width, int height) {
+        int storedWidth = image.getWidth();
+        int storedHeight = image.getHeight();
+        boolean transposed = Orientation.isTransposed(orientation);
+        int imageWidth = transposed ? storedHeight : storedWidth;
+        int imageHeight = transposed ? storedWidth : storedHeight;
+        double scale = Math.min(1, (double) PROXY_SIZE/Math.max(imageWidth, imageHeight));
+        int gridWidth = Math.max(1, (int) Math.round(imageWidth*scale));
+        int gridHeight = Math.max(1, (int) Math.round(imageHeight*scale));
+        double[] luminance = new double[gridWidth*gridHeight];
+        double[] saturation = new double[gridWidth*gridHeight];
+        // four samples per cell smooth out textures finer than the proxy
+        double cellWidth = (double) imageWidth/gridWidth;
+        double cellHeight = (double) imageHeight/gridHeight;
+        for (int gy = 0; gy < gridHeight; gy++) {
+            for (int gx = 0; gx < gridWidth; gx++) {
+                double l = 0;
+                double s = 0;
+                for (int sample = 0; sample < 4; sample++) {
+                    int x = Math.min(imageWidth - 1, (int) ((gx + 0.25 + (sample & 1)*0.5)*cellWidth));
+                    int y = Math.min(imageHeight - 1, (int) ((gy + 0.25 + (sample >> 1)*0.5)*cellHeight));
+                    int rgb = image.getRGB(Orientation.storedX(orientation, x, y, storedWidth, storedHeight),
+                            Orientation.storedY(orientation, x, y, storedWidth, storedHeight));
+                    int r = rgb >> 16 & 0xFF;
+                    int g = rgb >> 8 & 0xFF;
+                    int b = rgb & 0xFF;
+                    l += 0.299*r + 0.587*g + 0.114*b;
+                    s += Math.max(r, Math.max(g, b)) - Math.min(r, Math.min(g, b));
+                }
+                luminance[gy*gridWidth + gx] = l/4;
+                saturation[gy*gridWidth + gx] = s/4;
+            }
+        }
+        double[] table = new double[(gridWidth + 1)*(gridHeight + 1)];
+        for (int gy = 0; gy < gridHeight; gy++) {
+            double row = 0;
+            for (int gx = 0; gx < gridWidth; gx++) {
+                int i = gy*gridWidth + gx;
+                double dx = luminance[gy*gridWidth + Math.min(gridWidth - 1, gx + 1)]
+                        - luminance[gy*gridWidth + Math.max(0, gx - 1)];
+                double dy = luminance[Math.min(gridHeight - 1, gy + 1)*gridWidth + gx]
+                        - luminance[Math.max(0, gy - 1)*gridWidth + gx];
+                row += Math.abs(dx) + Math.abs(dy) + SATURATION_WEIGHT*saturation[i];
+                table[(gy + 1)*(gridWidth + 1) + gx + 1] = table[gy*(gridWidth + 1) + gx + 1] + row;
+            }
+        }
+        return new SaliencyMap(width, height, gridWidth, gridHeight, table);
+    }
+
+    /**
+     * Tries every window position of the proxy grid, the one with the most energy wins.
+     */
+    @Override
+    public double[] locate(double x, double y, double areaWidth, double areaHeight, double windowWidth,
+            double windowHeight) {
+        double fx = (double) gridWidth/width;
+        double fy = (double) gridHeight/height;
+        int left = clamp((int) Math.round(x*fx), 0, gridWidth - 1);
+        int top = clamp((int) Math.round(y*fy), 0, gridHeight - 1);
+        int right = clamp((int) Math.round((x + areaWidth)*fx), left + 1, gridWidth);
+        int bottom = clamp((int) Math.round((y + areaHeight)*fy), top + 1, gridHeight);
+        int cellsX = clamp((int) Math.round(windowWidth*fx), 1, right - left);
+        int cellsY = clamp((int) Math.round(windowHeight*fy), 1, bottom - top);
+        double centerX = (left + right - cellsX)/2.0;
+        double centerY = (top + bottom - cellsY)/2.0;
+        int bestX = left;
+        int bestY = top;
+        double best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int gy = top; gy <= bottom - cellsY; gy++) {
+            for (int gx = left; gx <= right - cellsX; gx++) {
+                double energy = energy(gx, gy, cellsX, cellsY);
+                double distance = (gx - centerX)*(gx - centerX) + (gy - centerY)*(gy - centerY);
+                double tolerance = 1e-6*Math.max(1, best);
+                // ties, e.g. a flat image, keep the most central window
+                if (energy > best + tolerance || (energy > best - tolerance && distance < bestDistance)) {
+                    best = energy;
+                    bestDistance = distance;
+                    bestX = gx;
+                    bestY = gy;
+                }
+            }
+        }
+        double windowX = Math.max(x, Math.min(x + areaWidth - windowWidth, bestX/fx));
+        double windowY = Math.max(y, Math.min(y + areaHeight - windowHeight, bestY/fy));
+        return new double[] {windowX, windowY};
+    }
+
+    private double energy(int x, int y, int cellsX, int cellsY) {
+        int stride = gridWidth + 1;
+        return table[(y + cellsY)*stride + x + cellsX] - table[y*stride + x + cellsX]
+                - table[(y + cellsY)*stride + x] + table[y*stride + x];
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+}
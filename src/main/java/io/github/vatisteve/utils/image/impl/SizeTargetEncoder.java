@@ -0,0 +1,218 @@
+package io.github.vatisteve.utils.image.impl;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import io.github.vatisteve.utils.image.CancellationToken;
+import io.github.vatisteve.utils.image.EncodeOptions;
+import io.github.vatisteve.utils.image.OutputTooLargeException;
+
+/**
+ * SizeTargetEncoder
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Encodes an image under {@link EncodeOptions#getMaxBytes()} with as few encodes as possible.
+ * <p>      The JPEG quality is searched between the min quality and the quality asked for. The first try comes from
+ *          a table of the bits per pixel of a typical photo at each quality, scaled to the budget; every try then
+ *          measures how far the image is from the table and the next quality is taken from the corrected table,
+ *          bisecting when it falls out of the qualities already bracketed. Tries are encoded into a
+ *          {@link BudgetImageOutputStream}, one over budget stops there and its size is extrapolated.
+ * <p>      When even the min quality is too big, and the options allow it, the raster is resampled to the area the
+ *          budget should allow and searched again, the measured correction carried over.
+ */
+final class SizeTargetEncoder {
+
+    private static final int MAX_PASSES = 6;
+    private static final int MAX_STEPS = 4;
+    private static final int MIN_DIMENSION = 16;
+    private static final float DEFAULT_QUALITY = 0.75f;
+    /**
+     * A try using this share of the budget is close enough, the next one would gain little.
+     */
+    private static final float FILL = 0.9f;
+    /**
+     * The share of the budget the next quality aims at, below 1 so the estimate errs on the fitting side.
+     */
+    private static final float AIM = 0.95f;
+    private static final float RESOLUTION = 0.02f;
+
+    private static final float[] QUALITIES = {0f, 0.1f, 0.25f, 0.5f, 0.75f, 0.9f, 1f};
+    private static final float[] BITS_PER_PIXEL = {0.15f, 0.3f, 0.55f, 0.9f, 1.4f, 2.3f, 5f};
+
+    /**
+     * Resamples the rendered raster to a smaller size
+     */
+    @FunctionalInterface
+    interface Shrink {
+        BufferedImage apply(BufferedImage image, int width, int height) throws IOException;
+    }
+
+    private final String formatName;
+    private final EncodeOptions encodeOptions;
+    private final int maxBytes;
+    private final CancellationToken token;
+    private BudgetImageOutputStream attempt;
+    private BudgetImageOutputStream best;
+    /**
+     * Measured size over the size of the table, carried from one try and one size to the next.
+     */
+    private double correction = 1;
+
+    private SizeTargetEncoder(String formatName, EncodeOptions encodeOptions, CancellationToken token) {
+        this.formatName = formatName;
+        this.encodeOptions = encodeOptions;
+        this.maxBytes = encodeOptions.getMaxBytes();
+        this.token = token;
+        this.attempt = new BudgetImageOutputStream(maxBytes);
+    }
+
+    /**
+     * @param image         The rendered image, encoded as is as long as it fits
+     * @param formatName    The output format
+     * @param encodeOptions The {@link EncodeOptions} of the output, with a {@link EncodeOptions#getMaxBytes()}
+     * @param outputStream  The destination, written once the output fits
+     * @param shrink        Resamples the image when the options allow to {@link EncodeOptions#isStepDown()}
+     * @param token         The {@link CancellationToken} aborting the writer
+     * @return              The bytes written
+     * @throws OutputTooLargeException  when no try fits
+     * @throws IOException              when no writer supports <code>formatName</code>, writing fails or is cancelled
+     */
+    static int encode(BufferedImage image, String formatName, EncodeOptions encodeOptions, OutputStream outputStream,
+            Shrink shrink, CancellationToken token) throws IOException {
+        return new SizeTargetEncoder(formatName, encodeOptions, token).encode(image, outputStream, shrink);
+    }
+
+    private int encode(BufferedImage image, OutputStream outputStream, Shrink shrink) throws IOException {
+        BufferedImage current = image;
+        double scale = 1;
+        for (int step = 0; ; step++) {
+            long smallest = ImageEncoder.hasQuality(formatName) ? searchQuality(current, step > 0)
+                    : encodeOnce(current);
+            if (smallest < 0) {
+                best.writeTo(outputStream);
+                return best.size();
+            }
+            if (!encodeOptions.isStepDown() || step == MAX_STEPS) throw new OutputTooLargeException(smallest, maxBytes);
+            // the size follows the area, aim a little lower so the next size fits
+            scale *= Math.max(0.5, Math.min(0.9, Math.sqrt(maxBytes*AIM*FILL/smallest)));
+            int width = (int) Math.round(image.getWidth()*scale);
+            int height = (int) Math.round(image.getHeight()*scale);
+            if (width < MIN_DIMENSION || height < MIN_DIMENSION) throw new OutputTooLargeException(smallest, maxBytes);
+            current = shrink.apply(image, width, height);
+        }
+    }
+
+    /**
+     * @return  <code>-1</code> when the image fits in {@link #best}, the size of the try otherwise
+     */
+    private long encodeOnce(BufferedImage image) throws IOException {
+        attempt.reset(maxBytes);
+        if (ImageEncoder.encodeWithin(image, formatName, encodeOptions, attempt, token)) {
+            keep();
+            return -1;
+        }
+        return attempt.estimatedLength();
+    }
+
+    /**
+     * @param image       The image to encode
+     * @param steppedDown <code>true</code> when the image was shrunk to fit at the min quality, the search then
+     *                    starts there
+     * @return            <code>-1</code> when a quality fits, its output in {@link #best}, the estimated size at
+     *                    the min quality otherwise
+     */
+    private long searchQuality(BufferedImage image, boolean steppedDown) throws IOException {
+        double pixels = (double) image.getWidth()*image.getHeight();
+        float cap = encodeOptions.getQuality() == null ? DEFAULT_QUALITY : encodeOptions.getQuality();
+        float floor = Math.min(encodeOptions.getMinQuality(), cap);
+        // the highest quality that fits and the lowest one that does not, with their sizes
+        float fits = -1;
+        float fails = 2;
+        long failSize = 0;
+        float previous = -1;
+        long previousSize = 0;
+        float quality = steppedDown ? floor : clamp(quality(maxBytes*AIM/(pixels*correction)), floor, cap);
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            attempt.reset(maxBytes);
+            boolean fit = ImageEncoder.encodeWithin(image, formatName, withQuality(quality), attempt, token);
+            long size = attempt.estimatedLength();
+            correction = size/(pixels*bitsPerPixel(quality)/8);
+            if (fit) {
+                fits = quality;
+                keep();
+                if (quality >= cap || size >= maxBytes*FILL) break;
+            } else {
+                fails = quality;
+                failSize = size;
+                if (quality <= floor) break;
+            }
+            float lower = fits >= 0 ? fits : floor;
+            float upper = Math.min(fails, cap);
+            if (fits >= 0 && upper - lower < RESOLUTION) break;
+            float next = previous >= 0 && previousSize != size ? secant(previous, previousSize, quality, size)
+                    : quality(maxBytes*AIM/(pixels*correction));
+            previous = quality;
+            previousSize = size;
+            if (next <= lower || next >= upper || (fits >= 0 && next - lower < RESOLUTION/2)) {
+                next = fits >= 0 ? (lower + upper)/2 : lower;
+            }
+            if (fits < 0 && (pass == MAX_PASSES - 2 || upper - floor < RESOLUTION)) next = floor;
+            quality = next;
+        }
+        if (fits >= 0) return -1;
+        return fails <= floor ? failSize : (long) (pixels*bitsPerPixel(floor)/8*correction);
+    }
+
+    /**
+     * The size grows about exponentially with the quality between two close tries, the next quality is read on
+     * the line through them in log scale.
+     */
+    private float secant(float quality, long size, float nextQuality, long nextSize) {
+        double t = Math.log(maxBytes*AIM/size)/Math.log((double) nextSize/size);
+        return (float) (quality + t*(nextQuality - quality));
+    }
+
+    private void keep() {
+        BudgetImageOutputStream kept = best;
+        best = attempt;
+        attempt = kept == null ? new BudgetImageOutputStream(maxBytes) : kept;
+    }
+
+    private EncodeOptions withQuality(float quality) {
+        return EncodeOptions.defaults().quality(quality).progressive(encodeOptions.isProgressive())
+                .pngCompressionLevel(encodeOptions.getPngCompressionLevel());
+    }
+
+    private static float bitsPerPixel(float quality) {
+        for (int i = 1; i < QUALITIES.length; i++) {
+            if (quality <= QUALITIES[i]) {
+                float t = (quality - QUALITIES[i - 1])/(QUALITIES[i] - QUALITIES[i - 1]);
+                return BITS_PER_PIXEL[i - 1] + t*(BITS_PER_PIXEL[i] - BITS_PER_PIXEL[i - 1]);
+            }
+        }
+        return BITS_PER_PIXEL[BITS_PER_PIXEL.length - 1];
+    }
+
+    /**
+     * @param bytesPerPixel The bytes per pixel of the table
+     * @return              The quality giving them, the inverse of {@link #bitsPerPixel(float)}
+     */
+    private static float quality(double bytesPerPixel) {
+        double bits = bytesPerPixel*8;
+        for (int i = 1; i < BITS_PER_PIXEL.length; i++) {
+            if (bits <= BITS_PER_PIXEL[i]) {
+                double t = Math.max(0, (bits - BITS_PER_PIXEL[i - 1])/(BITS_PER_PIXEL[i] - BITS_PER_PIXEL[i - 1]));
+                return (float) (QUALITIES[i - 1] + t*(QUALITIES[i] - QUALITIES[i - 1]));
+            }
+        }
+        return 1;
+    }
+
+    private static float clamp(float value, float min, float max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+}
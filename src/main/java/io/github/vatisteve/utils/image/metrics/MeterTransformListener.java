@@ -0,0 +1,71 @@
+package io.github.vatisteve.utils.image.metrics;
+
+/**
+ * MeterTransformListener
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Records the stages as Micrometer-style meters without depending on any metrics library:
+ * <ul>
+ *     <li><code>image.transform.stage</code>, a timer of the wall time</li>
+ *     <li><code>image.transform.pixels</code>, a distribution of the output pixels</li>
+ *     <li><code>image.transform.bytes</code>, a distribution of the encoded bytes, decode and encode only</li>
+ * </ul>
+ * <p>      Every meter is tagged with <code>stage</code> and <code>format</code>. With Micrometer, e.g.
+ * <pre>
+ * new MeterTransformListener(
+ *     (name, tags, nanos) -&gt; registry.timer(name, tags).record(nanos, TimeUnit.NANOSECONDS),
+ *     (name, tags, amount) -&gt; registry.summary(name, tags).record(amount));
+ * </pre>
+ */
+public class MeterTransformListener implements TransformListener {
+
+    public static final String STAGE_TIMER = "image.transform.stage";
+    public static final String PIXELS_SUMMARY = "image.transform.pixels";
+    public static final String BYTES_SUMMARY = "image.transform.bytes";
+
+    private final TimerRecorder timer;
+    private final SummaryRecorder summary;
+
+    /**
+     * @param timer     Records the wall times
+     * @param summary   Records the pixel and byte amounts
+     */
+    public MeterTransformListener(TimerRecorder timer, SummaryRecorder summary) {
+        this.timer = timer;
+        this.summary = summary;
+    }
+
+    @Override
+    public void onStage(TransformEvent event) {
+        String[] tags = {"stage", event.getStage().name().toLowerCase(),
+                "format", event.getFormatName() == null ? "unknown" : event.getFormatName().toLowerCase()};
+        timer.record(STAGE_TIMER, tags, event.getNanos());
+        summary.record(PIXELS_SUMMARY, tags, event.getOutputPixels());
+        if (event.getBytes() >= 0) summary.record(BYTES_SUMMARY, tags, event.getBytes());
+    }
+
+    @FunctionalInterface
+    public interface TimerRecorder {
+
+        /**
+         * @param name      The meter name
+         * @param tags      The tag keys and values, alternated
+         * @param nanos     The recorded time in nanoseconds
+         */
+        void record(String name, String[] tags, long nanos);
+    }
+
+    @FunctionalInterface
+    public interface SummaryRecorder {
+
+        /**
+         * @param name      The meter name
+         * @param tags      The tag keys and values, alternated
+         * @param amount    The recorded amount
+         */
+        void record(String name, String[] tags, double amount);
+    }
+
+}
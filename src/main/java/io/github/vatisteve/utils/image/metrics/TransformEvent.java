@@ -0,0 +1,68 @@
+package io.github.vatisteve.utils.image.metrics;
+
+/**
+ * TransformEvent
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      One completed stage of a transformation
+ */
+public final class TransformEvent {
+
+    private final TransformStage stage;
+    private final String formatName;
+    private final long nanos;
+    private final long inputPixels;
+    private final long outputPixels;
+    private final long bytes;
+
+    /**
+     * @param stage         The {@link TransformStage}
+     * @param formatName    The source format for decodes, the output format otherwise
+     * @param nanos         The wall time of the stage in nanoseconds
+     * @param inputPixels   The pixels the stage read
+     * @param outputPixels  The pixels the stage produced
+     * @param bytes         The encoded bytes read or written, <code>-1</code> for the pixel stages
+     */
+    public TransformEvent(TransformStage stage, String formatName, long nanos, long inputPixels, long outputPixels,
+            long bytes) {
+        this.stage = stage;
+        this.formatName = formatName;
+        this.nanos = nanos;
+        this.inputPixels = inputPixels;
+        this.outputPixels = outputPixels;
+        this.bytes = bytes;
+    }
+
+    public TransformStage getStage() {
+        return stage;
+    }
+
+    public String getFormatName() {
+        return formatName;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public long getInputPixels() {
+        return inputPixels;
+    }
+
+    public long getOutputPixels() {
+        return outputPixels;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "TransformEvent[stage=" + stage + ", formatName=" + formatName + ", nanos=" + nanos
+                + ", inputPixels=" + inputPixels + ", outputPixels=" + outputPixels + ", bytes=" + bytes + "]";
+    }
+
+}
@@ -0,0 +1,34 @@
+package io.github.vatisteve.utils.image.metrics;
+
+/**
+ * TransformListener
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Receives every stage completed by the transformers, set it with
+ *          {@link io.github.vatisteve.utils.image.TransformerOptions#listener(TransformListener)}.
+ * <p>      Renditions encode on the common pool, so implementations must be thread safe and should return quickly.
+ */
+@FunctionalInterface
+public interface TransformListener {
+
+    /**
+     * @param event     The completed {@link TransformEvent}
+     */
+    void onStage(TransformEvent event);
+
+    /**
+     * @param listeners     The listeners to notify in order
+     * @return              A listener forwarding every event to all <code>listeners</code>
+     */
+    static TransformListener of(TransformListener... listeners) {
+        TransformListener[] copy = listeners.clone();
+        return event -> {
+            for (TransformListener listener : copy) {
+                listener.onStage(event);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,38 @@
+package io.github.vatisteve.utils.image.metrics;
+
+/**
+ * TransformStage
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      The stages of a transformation reported to a {@link TransformListener}
+ */
+public enum TransformStage {
+
+    /**
+     * The source decoded to pixels
+     */
+    DECODE,
+
+    /**
+     * The image scaled to a new size
+     */
+    RESAMPLE,
+
+    /**
+     * The image drawn over a background
+     */
+    COMPOSITE,
+
+    /**
+     * The image cropped to the frame
+     */
+    CROP,
+
+    /**
+     * The image encoded to the output format
+     */
+    ENCODE
+
+}
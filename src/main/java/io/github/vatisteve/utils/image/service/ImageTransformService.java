@@ -0,0 +1,224 @@
+package io.github.vatisteve.utils.image.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import io.github.vatisteve.utils.image.ImageInfo;
+import io.github.vatisteve.utils.image.ImageStreams;
+import io.github.vatisteve.utils.image.ImageTransformer;
+import io.github.vatisteve.utils.image.ImageTransformerFactory;
+import io.github.vatisteve.utils.image.ImageTransformerFactory.Transformer;
+import io.github.vatisteve.utils.image.TransformerOptions;
+
+/**
+ * ImageTransformService
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      Runs transformations on an executor while keeping their estimated memory under a global budget.
+ * <p>      Every submitted image is probed from its header only, its cost is estimated from the pixel count,
+ *          and it waits in a FIFO queue until the budget has room for it. Bursts of large uploads therefore
+ *          queue instead of exhausting the heap. An image bigger than the whole budget runs alone.
+ */
+public class ImageTransformService implements Closeable {
+
+    /**
+     * Decoded source, engine copy and output raster, 4 bytes per pixel each.
+     */
+    private static final int BYTES_PER_PIXEL = 4*3;
+
+    private final long memoryBudget;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final Transformer transformer;
+    private final TransformerOptions options;
+
+    private final Deque<Job<?>> queue = new ArrayDeque<>();
+    private long inFlightBytes;
+    private int inFlight;
+
+    /**
+     * Runs on virtual threads on Java 21 and later, on a pool of one thread per core otherwise.
+     *
+     * @param memoryBudget  The budget in bytes shared by the running transformations
+     */
+    public ImageTransformService(long memoryBudget) {
+        this(memoryBudget, null, null, TransformerOptions.defaults());
+    }
+
+    /**
+     * @param memoryBudget  The budget in bytes shared by the running transformations
+     * @param executor      The executor running the transformations, <code>null</code> for the default one
+     * @param transformer   The type of transformer to use
+     * @param options       The {@link TransformerOptions}
+     */
+    public ImageTransformService(long memoryBudget, Executor executor, Transformer transformer,
+            TransformerOptions options) {
+        if (memoryBudget <= 0) throw new IllegalArgumentException("The memory budget must be positive");
+        this.memoryBudget = memoryBudget;
+        this.ownedExecutor = executor == null ? defaultExecutor() : null;
+        this.executor = executor == null ? ownedExecutor : executor;
+        this.transformer = transformer;
+        this.options = options == null ? TransformerOptions.defaults() : options;
+    }
+
+    /**
+     * @param inputStream   The image input stream data, read on the calling thread
+     * @param mimeType      The image extension
+     * @param operation     The work to run on the {@link ImageTransformer} of the image
+     * @param <R>           The result type
+     * @return              The result, completed exceptionally when the image can not be read or transformed
+     */
+    public <R> CompletableFuture<R> submit(InputStream inputStream, String mimeType, TransformOperation<R> operation) {
+        try {
+            return submit(ImageStreams.readAll(inputStream), mimeType, operation);
+        } catch (IOException e) {
+            CompletableFuture<R> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    /**
+     * @param data          The encoded image
+     * @param mimeType      The image extension
+     * @param operation     The work to run on the {@link ImageTransformer} of the image
+     * @param <R>           The result type
+     * @return              The result, completed exceptionally when the image can not be read or transformed
+     */
+    public <R> CompletableFuture<R> submit(byte[] data, String mimeType, TransformOperation<R> operation) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        ImageInfo info;
+        try {
+            info = ImageTransformerFactory.probe(new ByteArrayInputStream(data));
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        synchronized (this) {
+            queue.addLast(new Job<>(data, mimeType, operation, estimate(info, data), result));
+        }
+        drain();
+        return result;
+    }
+
+    /**
+     * @param info  The probed header
+     * @param data  The encoded image
+     * @return      The bytes a transformation of the image is expected to hold at its peak
+     */
+    protected long estimate(ImageInfo info, byte[] data) {
+        return info.getPixels()*BYTES_PER_PIXEL + data.length;
+    }
+
+    private void drain() {
+        while (true) {
+            Job<?> job;
+            synchronized (this) {
+                job = queue.peekFirst();
+                if (job == null || (inFlight > 0 && inFlightBytes + job.cost > memoryBudget)) return;
+                queue.pollFirst();
+                if (job.result.isDone()) continue;
+                inFlight++;
+                inFlightBytes += job.cost;
+            }
+            try {
+                executor.execute(job);
+            } catch (RejectedExecutionException e) {
+                release(job);
+                job.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void release(Job<?> job) {
+        synchronized (this) {
+            inFlight--;
+            inFlightBytes -= job.cost;
+        }
+    }
+
+    /**
+     * @return  The number of images waiting for memory
+     */
+    public synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return  The number of running transformations
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return  The estimated bytes held by the running transformations
+     */
+    public synchronized long getInFlightBytes() {
+        return inFlightBytes;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Shuts down the default executor, a caller-supplied executor is left running.
+     */
+    @Override
+    public void close() throws IOException {
+        if (ownedExecutor != null) ownedExecutor.shutdown();
+    }
+
+    private final class Job<R> implements Runnable {
+
+        private final byte[] data;
+        private final String mimeType;
+        private final TransformOperation<R> operation;
+        private final long cost;
+        private final CompletableFuture<R> result;
+
+        private Job(byte[] data, String mimeType, TransformOperation<R> operation, long cost,
+                CompletableFuture<R> result) {
+            this.data = data;
+            this.mimeType = mimeType;
+            this.operation = operation;
+            this.cost = cost;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            try (ImageTransformer imageTransformer = ImageTransformerFactory.buildImageTransformer(transformer,
+                    new ByteArrayInputStream(data), mimeType, options)) {
+                result.complete(operation.apply(imageTransformer));
+            } catch (Exception | Error e) {
+                result.completeExceptionally(e);
+            } finally {
+                release(this);
+                drain();
+            }
+        }
+    }
+
+    private static ExecutorService defaultExecutor() {
+        try {
+            // Java 21+, looked up reflectively since the library targets Java 8
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+}
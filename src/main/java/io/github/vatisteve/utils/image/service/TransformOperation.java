@@ -0,0 +1,27 @@
+package io.github.vatisteve.utils.image.service;
+
+import java.io.IOException;
+
+import io.github.vatisteve.utils.image.ImageTransformer;
+
+/**
+ * TransformOperation
+ *
+ * @author  Steve
+ * @since   Oct 18, 2026
+ *
+ * <p>      The work run on an {@link ImageTransformer} by the {@link ImageTransformService}
+ *
+ * @param <R>   The result type, usually the encoded image
+ */
+@FunctionalInterface
+public interface TransformOperation<R> {
+
+    /**
+     * @param transformer   The transformer of the submitted image, closed by the service afterwards
+     * @return              The result
+     * @throws IOException  when the transformation fails
+     */
+    R apply(ImageTransformer transformer) throws IOException;
+
+}
@@ -0,0 +1,66 @@
+package io.github.vatisteve.utils.image;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Seeded images shared by the tests
+ */
+public final class TestImages {
+
+    private TestImages() {}
+
+    /**
+     * @param width     The image width
+     * @param height    The image height
+     * @param seed      The seed of the blocks and of the grain
+     * @return          An RGB image of colored blocks over a grained background, different for every seed
+     */
+    public static BufferedImage photo(int width, int height, long seed) {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(random.nextInt(0x1000000)));
+        graphics.fillRect(0, 0, width, height);
+        for (int i = 0; i < 8; i++) {
+            graphics.setColor(new Color(random.nextInt(0x1000000)));
+            graphics.fillRect(random.nextInt(width), random.nextInt(height), width/3, height/3);
+        }
+        graphics.dispose();
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                int grain = random.nextInt(25) - 12;
+                int rgb = row[x];
+                row[x] = clamp((rgb >> 16 & 0xFF) + grain) << 16 | clamp((rgb >> 8 & 0xFF) + grain) << 8
+                        | clamp((rgb & 0xFF) + grain);
+            }
+            image.setRGB(0, y, width, 1, row, 0, width);
+        }
+        return image;
+    }
+
+    /**
+     * @param image         The image to encode
+     * @param format        The image format name
+     * @return              The encoded bytes
+     * @throws IOException  when no writer supports <code>format</code>
+     */
+    public static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, format, output)) throw new IOException("No ImageIO writer for " + format);
+        return output.toByteArray();
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+
+}
@@ -0,0 +1,74 @@
+package io.github.vatisteve.utils.image.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CheckpointTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void resumesAfterATruncatedLine() throws IOException {
+        Path file = directory.resolve("run/checkpoint.tsv");
+        Files.createDirectories(file.getParent());
+        // a run killed while writing the line of c.jpg
+        write(file, "ok\ta.jpg\nfailed\tb.jpg\tboom\nok\tsub/d.png\nok\tc.j");
+        try (Checkpoint checkpoint = Checkpoint.open(file)) {
+            assertTrue(checkpoint.isDone("a.jpg"));
+            assertTrue(checkpoint.isDone("sub/d.png"));
+            assertFalse(checkpoint.isDone("b.jpg"));
+            assertFalse(checkpoint.isDone("c.j"));
+            assertFalse(checkpoint.isDone("c.jpg"));
+            checkpoint.done("c.jpg");
+            checkpoint.failed("e.jpg", "bad\theader\r\nline");
+        }
+        assertEquals("ok\ta.jpg\nfailed\tb.jpg\tboom\nok\tsub/d.png\nok\tc.jpg\nfailed\te.jpg\tbad header line\n",
+                read(file));
+        try (Checkpoint checkpoint = Checkpoint.open(file)) {
+            assertTrue(checkpoint.isDone("a.jpg"));
+            assertTrue(checkpoint.isDone("c.jpg"));
+            assertFalse(checkpoint.isDone("c.j"));
+            assertFalse(checkpoint.isDone("e.jpg"));
+        }
+    }
+
+    @Test
+    void resumesAfterALineCutBeforeItsTab() throws IOException {
+        Path file = directory.resolve("checkpoint.tsv");
+        write(file, "ok\ta.jpg\no");
+        try (Checkpoint checkpoint = Checkpoint.open(file)) {
+            assertTrue(checkpoint.isDone("a.jpg"));
+            checkpoint.done("b.jpg");
+        }
+        assertEquals("ok\ta.jpg\nok\tb.jpg\n", read(file));
+    }
+
+    @Test
+    void createsAMissingFile() throws IOException {
+        Path file = directory.resolve("new/dir/checkpoint.tsv");
+        try (Checkpoint checkpoint = Checkpoint.open(file)) {
+            assertFalse(checkpoint.isDone("a.jpg"));
+            checkpoint.done("a.jpg");
+        }
+        assertEquals("ok\ta.jpg\n", read(file));
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+}
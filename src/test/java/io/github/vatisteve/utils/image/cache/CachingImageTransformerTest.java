@@ -0,0 +1,114 @@
+package io.github.vatisteve.utils.image.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.vatisteve.utils.image.FrameProperties;
+import io.github.vatisteve.utils.image.Measure;
+import io.github.vatisteve.utils.image.TestImages;
+import io.github.vatisteve.utils.image.TransformerOptions;
+
+class CachingImageTransformerTest {
+
+    private static final BufferedImage PHOTO = TestImages.photo(800, 600, 18);
+
+    @Test
+    void reEncodedCopySharesTheRenditionsOfTheOriginal() throws Exception {
+        RenditionCache cache = dedupCache();
+        byte[] original = TestImages.encode(PHOTO, "jpg");
+        byte[] copy = jpeg(PHOTO, 0.6f);
+        String originalHash;
+        try (CachingImageTransformer transformer = transformer(cache, original)) {
+            originalHash = transformer.getRenditionHash();
+            assertSize(400, 300, transformer.scale(0.5));
+        }
+        try (CachingImageTransformer transformer = transformer(cache, copy)) {
+            assertNotEquals(originalHash, transformer.getSourceHash());
+            assertEquals(originalHash, transformer.getRenditionHash());
+            long hits = cache.getHits();
+            assertSize(400, 300, transformer.scale(0.5));
+            assertEquals(hits + 1, cache.getHits());
+        }
+        assertEquals(1, cache.getDuplicateHits());
+    }
+
+    @Test
+    void resizedCopyKeepsItsOwnRenditions() throws Exception {
+        RenditionCache cache = dedupCache();
+        byte[] original = TestImages.encode(PHOTO, "jpg");
+        byte[] resized = TestImages.encode(resize(PHOTO, 400, 300), "jpg");
+        FrameProperties ratio = FrameProperties.of(4, 3, Measure.RATIO);
+        try (CachingImageTransformer transformer = transformer(cache, original)) {
+            assertSize(400, 300, transformer.scale(0.5));
+            assertSize(1600, 1200, transformer.scaleUp(FrameProperties.of(1600, 1200, Measure.PIXEL)));
+            assertArrayEquals(original, transformer.resize(ratio).toByteArray());
+            assertArrayEquals(original, transformer.scaleDown(2000, 2000).toByteArray());
+        }
+        try (CachingImageTransformer transformer = transformer(cache, resized)) {
+            assertSize(200, 150, transformer.scale(0.5));
+            assertSize(1600, 1200, transformer.scaleUp(FrameProperties.of(1600, 1200, Measure.PIXEL)));
+            assertArrayEquals(resized, transformer.resize(ratio).toByteArray());
+            assertArrayEquals(resized, transformer.scaleDown(2000, 2000).toByteArray());
+            assertEquals(transformer.getSourceHash(), transformer.getRenditionHash());
+        }
+        assertEquals(0, cache.getDuplicateHits());
+    }
+
+    private static RenditionCache dedupCache() {
+        // wide enough for the 400x300 copy of PHOTO (distance 6) to be a near duplicate of the original
+        return new RenditionCache(64L << 20, 0, null, 0, 10);
+    }
+
+    private static CachingImageTransformer transformer(RenditionCache cache, byte[] data) throws Exception {
+        return new CachingImageTransformer(cache, null, new ByteArrayInputStream(data), "jpg",
+                TransformerOptions.defaults());
+    }
+
+    private static void assertSize(int width, int height, ByteArrayOutputStream output) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(output.toByteArray()));
+        assertEquals(width + "x" + height, image.getWidth() + "x" + image.getHeight());
+    }
+
+    private static BufferedImage resize(BufferedImage image, int width, int height) {
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, width, height, null);
+        graphics.dispose();
+        return resized;
+    }
+
+    private static byte[] jpeg(BufferedImage image, float quality) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpg");
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+}
@@ -0,0 +1,119 @@
+package io.github.vatisteve.utils.image.hash;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class NearDuplicateIndexTest {
+
+    @Test
+    void searchFindsWhatAFullScanFinds() {
+        Random random = new Random(18);
+        List<Long> hashes = new ArrayList<>();
+        // clusters of near duplicates around a few originals, plus unrelated hashes and exact copies
+        for (int cluster = 0; cluster < 40; cluster++) {
+            long original = random.nextLong();
+            hashes.add(original);
+            for (int copy = 0; copy < 25; copy++) {
+                hashes.add(flip(original, random.nextInt(20), random));
+            }
+            hashes.add(original);
+        }
+        for (int i = 0; i < 500; i++) {
+            hashes.add(random.nextLong());
+        }
+        NearDuplicateIndex<Integer> index = new NearDuplicateIndex<>();
+        for (int i = 0; i < hashes.size(); i++) {
+            index.add(hashes.get(i), i);
+        }
+        assertEquals(hashes.size(), index.size());
+        for (int query = 0; query < 60; query++) {
+            long hash = query%2 == 0 ? flip(hashes.get(random.nextInt(hashes.size())), random.nextInt(8), random)
+                    : random.nextLong();
+            for (int maxDistance = 0; maxDistance <= 24; maxDistance++) {
+                assertEquals(scan(hashes, hash, maxDistance), describe(index.search(hash, maxDistance)),
+                        "query " + query + " within " + maxDistance);
+            }
+        }
+    }
+
+    @Test
+    void removedValuesAreNotFound() {
+        Random random = new Random(7);
+        List<Long> hashes = new ArrayList<>();
+        long original = random.nextLong();
+        for (int i = 0; i < 400; i++) {
+            hashes.add(i%4 == 0 ? random.nextLong() : flip(original, random.nextInt(12), random));
+        }
+        NearDuplicateIndex<Integer> index = new NearDuplicateIndex<>();
+        for (int i = 0; i < hashes.size(); i++) {
+            index.add(hashes.get(i), i);
+        }
+        List<Long> kept = new ArrayList<>(hashes);
+        // removing three values out of four rebuilds the index on the way
+        for (int i = 0; i < hashes.size(); i++) {
+            if (i%4 == 3) continue;
+            assertTrue(index.remove(hashes.get(i), i));
+            kept.set(i, null);
+        }
+        assertFalse(index.remove(hashes.get(0), 0));
+        assertFalse(index.remove(hashes.get(3), 4));
+        assertEquals(hashes.size()/4, index.size());
+        for (int maxDistance = 0; maxDistance <= 16; maxDistance += 4) {
+            assertEquals(scan(kept, original, maxDistance), describe(index.search(original, maxDistance)));
+        }
+        long added = ~original;
+        index.add(added, -1);
+        assertEquals(-1, index.nearest(added, 0).getValue());
+    }
+
+    @Test
+    void nearestIsTheClosestMatch() {
+        NearDuplicateIndex<String> index = new NearDuplicateIndex<>();
+        index.add(0xFFL, "eight");
+        index.add(0x1L, "one");
+        index.add(0x3L, "two");
+        NearDuplicateIndex.Match<String> match = index.nearest(0L, 10);
+        assertEquals("one", match.getValue());
+        assertEquals(1, match.getDistance());
+        assertNull(index.nearest(-1L, 10));
+        index.clear();
+        assertNull(index.nearest(0x1L, 64));
+    }
+
+    /**
+     * @return  The matches of a brute force scan skipping the removed (null) hashes, closest first then in insertion order
+     */
+    private static List<String> scan(List<Long> hashes, long hash, int maxDistance) {
+        List<int[]> matches = new ArrayList<>();
+        for (int i = 0; i < hashes.size(); i++) {
+            if (hashes.get(i) == null) continue;
+            int distance = Long.bitCount(hashes.get(i) ^ hash);
+            if (distance <= maxDistance) matches.add(new int[] {distance, i});
+        }
+        matches.sort(Comparator.<int[]>comparingInt(match -> match[0]).thenComparingInt(match -> match[1]));
+        return matches.stream().map(match -> match[1] + "@" + match[0]).collect(Collectors.toList());
+    }
+
+    private static List<String> describe(List<NearDuplicateIndex.Match<Integer>> matches) {
+        return matches.stream().map(match -> match.getValue() + "@" + match.getDistance())
+                .collect(Collectors.toList());
+    }
+
+    private static long flip(long hash, int bits, Random random) {
+        for (int i = 0; i < bits; i++) {
+            hash ^= 1L << random.nextInt(64);
+        }
+        return hash;
+    }
+
+}
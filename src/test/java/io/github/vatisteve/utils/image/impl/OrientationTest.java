@@ -0,0 +1,189 @@
+package io.github.vatisteve.utils.image.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.github.vatisteve.utils.image.ImageInfo;
+import io.github.vatisteve.utils.image.ImageTransformer;
+import io.github.vatisteve.utils.image.ImageTransformerFactory;
+import io.github.vatisteve.utils.image.TransformerOptions;
+
+class OrientationTest {
+
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 200;
+    /** The stored quadrants: top left, top right, bottom left, bottom right */
+    private static final int[] QUADRANTS = {0xFF0000, 0x00FF00, 0x0000FF, 0xFFFFFF};
+
+    static Stream<Arguments> enginesAndOrientations() {
+        return Stream.of("MARVIN", "JAVA2D").flatMap(engine -> IntStream.rangeClosed(1, 8)
+                .mapToObj(orientation -> Arguments.of(engine, orientation)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 5, 6, 7, 8})
+    void copyMatchesTheCoordinateMaps(int orientation) {
+        int width = 7;
+        int height = 3;
+        BufferedImage stored = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                stored.setRGB(x, y, y*width + x);
+            }
+        }
+        boolean transposed = Orientation.isTransposed(orientation);
+        int uprightWidth = transposed ? height : width;
+        int uprightHeight = transposed ? width : height;
+        int[] expected = new int[uprightWidth*uprightHeight];
+        for (int y = 0; y < uprightHeight; y++) {
+            for (int x = 0; x < uprightWidth; x++) {
+                int sx = Orientation.storedX(orientation, x, y, width, height);
+                int sy = Orientation.storedY(orientation, x, y, width, height);
+                expected[y*uprightWidth + x] = sy*width + sx;
+            }
+        }
+        int[] pixels = new int[uprightWidth*uprightHeight];
+        Orientation.copy(stored, orientation, pixels, 0, uprightWidth);
+        assertArrayEquals(expected, pixels);
+        Rectangle region = Orientation.storedRegion(orientation, new Rectangle(0, 0, uprightWidth, 1), width, height);
+        // the upright top row is a stored column when transposed
+        assertEquals(transposed ? 1 : width, region.width);
+        assertEquals(transposed ? height : 1, region.height);
+    }
+
+    @ParameterizedTest
+    @MethodSource("enginesAndOrientations")
+    void fitCoverCropAndPadAreUpright(String engine, int orientation) throws Exception {
+        boolean transposed = Orientation.isTransposed(orientation);
+        int width = transposed ? HEIGHT : WIDTH;
+        int height = transposed ? WIDTH : HEIGHT;
+        try (ImageTransformer transformer = ImageTransformerFactory.buildImageTransformer(engine,
+                new ByteArrayInputStream(jpeg(orientation)), "jpg", TransformerOptions.defaults())) {
+            BufferedImage fit = decode(transformer.scaleDown(width/2, height/2));
+            assertQuadrants(orientation, fit, 0, 0, width/2, height/2, "fit");
+            BufferedImage planned = decode(transformer.plan().fit(width/4, height/4).encode());
+            assertQuadrants(orientation, planned, 0, 0, width/4, height/4, "plan fit");
+            BufferedImage cover = decode(transformer.scaleUpAndCrop(width/2, height/2));
+            assertQuadrants(orientation, cover, 0, 0, width/2, height/2, "cover");
+            BufferedImage padded = decode(transformer.scaleDownWithBackground(width/2 + 100, height/2));
+            assertEquals(width/2 + 100, padded.getWidth());
+            assertColor(0xFFFFFF, padded.getRGB(10, 10), "pad background");
+            assertQuadrants(orientation, padded, 50, 0, width/2, height/2, "pad");
+            // the upright top right quadrant alone
+            BufferedImage crop = decode(transformer.plan().crop(width/2, 0, width/2, height/2).encode());
+            assertEquals(width/2, crop.getWidth());
+            assertEquals(height/2, crop.getHeight());
+            assertColor(expected(orientation, 1, 0), crop.getRGB(crop.getWidth()/2, crop.getHeight()/2), "crop");
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {3, 6})
+    void autoOrientOffKeepsTheStoredPixels(int orientation) throws Exception {
+        try (ImageTransformer transformer = ImageTransformerFactory.buildImageTransformer("JAVA2D",
+                new ByteArrayInputStream(jpeg(orientation)), "jpg", TransformerOptions.defaults().autoOrient(false))) {
+            BufferedImage fit = decode(transformer.scaleDown(WIDTH/2, HEIGHT/2));
+            assertQuadrants(1, fit, 0, 0, WIDTH/2, HEIGHT/2, "stored");
+        }
+    }
+
+    @Test
+    void probeReportsTheStoredSizeAndTheOrientation() throws Exception {
+        for (int orientation = 1; orientation <= 8; orientation++) {
+            ImageInfo info = ImageTransformerFactory.probe(new ByteArrayInputStream(jpeg(orientation)));
+            assertEquals(WIDTH, info.getWidth());
+            assertEquals(HEIGHT, info.getHeight());
+            assertEquals(orientation, info.getOrientation());
+            assertEquals(Orientation.isTransposed(orientation), info.isTransposed());
+        }
+    }
+
+    private static void assertQuadrants(int orientation, BufferedImage image, int left, int top, int width,
+            int height, String operation) {
+        assertEquals(width, image.getWidth() - 2*left, operation + " width");
+        assertEquals(height, image.getHeight() - 2*top, operation + " height");
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            int qx = quadrant & 1;
+            int qy = quadrant >> 1;
+            int rgb = image.getRGB(left + width*(2*qx + 1)/4, top + height*(2*qy + 1)/4);
+            assertColor(expected(orientation, qx, qy), rgb, operation + " quadrant " + quadrant);
+        }
+    }
+
+    private static void assertColor(int expected, int rgb, String message) {
+        int distance = Math.abs((expected >> 16 & 0xFF) - (rgb >> 16 & 0xFF))
+                + Math.abs((expected >> 8 & 0xFF) - (rgb >> 8 & 0xFF)) + Math.abs((expected & 0xFF) - (rgb & 0xFF));
+        assertTrue(distance <= 60, () -> message + ": " + Integer.toHexString(rgb & 0xFFFFFF) + " instead of "
+                + Integer.toHexString(expected));
+    }
+
+    /**
+     * @return  The stored color showing in the upright quadrant <code>qx, qy</code>, rotated by hand
+     */
+    private static int expected(int orientation, int qx, int qy) {
+        double ux = qx + 0.5;
+        double uy = qy + 0.5;
+        double sx;
+        double sy;
+        switch (orientation) {
+            case 2: sx = 2 - ux; sy = uy; break;
+            case 3: sx = 2 - ux; sy = 2 - uy; break;
+            case 4: sx = ux; sy = 2 - uy; break;
+            case 5: sx = uy; sy = ux; break;
+            case 6: sx = uy; sy = 2 - ux; break;
+            case 7: sx = 2 - uy; sy = 2 - ux; break;
+            case 8: sx = 2 - uy; sy = ux; break;
+            default: sx = ux; sy = uy; break;
+        }
+        return QUADRANTS[(sy < 1 ? 0 : 2) + (sx < 1 ? 0 : 1)];
+    }
+
+    private static BufferedImage decode(ByteArrayOutputStream output) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(output.toByteArray()));
+    }
+
+    /**
+     * @return  A JPEG of four colored quadrants with an EXIF APP1 segment holding the orientation only
+     */
+    private static byte[] jpeg(int orientation) throws IOException {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.setRGB(x, y, QUADRANTS[(y < HEIGHT/2 ? 0 : 2) + (x < WIDTH/2 ? 0 : 1)]);
+            }
+        }
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", encoded);
+        byte[] jpeg = encoded.toByteArray();
+        byte[] tiff = {'M', 'M', 0, 42, 0, 0, 0, 8, 0, 1, 0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0,
+                0, 0, 0, 0};
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE1});
+        int length = 2 + 6 + tiff.length;
+        output.write(length >> 8);
+        output.write(length & 0xFF);
+        output.write("Exif\0\0".getBytes(StandardCharsets.ISO_8859_1));
+        output.write(tiff);
+        output.write(jpeg, 2, jpeg.length - 2);
+        return output.toByteArray();
+    }
+
+}
@@ -0,0 +1,72 @@
+package io.github.vatisteve.utils.image.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import io.github.vatisteve.utils.image.ResampleFilter;
+
+class ResamplerTest {
+
+    private static final int[][] SIZES = {{97, 61}, {64, 64}, {31, 17}, {13, 200}, {3, 2}, {1, 1}, {200, 150}};
+
+    @ParameterizedTest
+    @EnumSource(ResampleFilter.class)
+    void identitySizeKeepsEveryPixel(ResampleFilter filter) {
+        int[] pixels = noise(53, 41, 1);
+        int[] resampled = new Resampler(filter).resample(pixels, 53, 41, 53, 41);
+        assertArrayEquals(pixels, resampled);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ResampleFilter.class)
+    void constantImageStaysConstant(ResampleFilter filter) {
+        int color = 0xFF3C78B4;
+        int[] pixels = new int[120*80];
+        Arrays.fill(pixels, color);
+        Resampler resampler = new Resampler(filter);
+        for (int[] size : SIZES) {
+            int[] resampled = resampler.resample(pixels, 120, 80, size[0], size[1]);
+            for (int pixel : resampled) {
+                assertEquals(color, pixel, () -> filter + " to " + size[0] + "x" + size[1]);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ResampleFilter.class)
+    void weightsSumToOne(ResampleFilter filter) {
+        Resampler resampler = new Resampler(filter);
+        int[] lengths = {1, 2, 3, 7, 64, 97, 500};
+        for (int sLength : lengths) {
+            for (int length : lengths) {
+                Resampler.Weights weights = resampler.weights(sLength, length);
+                for (int i = 0; i < length; i++) {
+                    int sum = 0;
+                    for (int k = 0; k < weights.count[i]; k++) {
+                        sum += weights.values[i*weights.taps + k];
+                    }
+                    String axis = filter + " " + sLength + " to " + length + " at " + i;
+                    assertEquals(Resampler.ONE, sum, axis);
+                    assertTrue(weights.start[i] >= 0 && weights.start[i] + weights.count[i] <= sLength, axis);
+                }
+            }
+        }
+    }
+
+    private static int[] noise(int width, int height, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[width*height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        return pixels;
+    }
+
+}
@@ -0,0 +1,76 @@
+package io.github.vatisteve.utils.image.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.github.vatisteve.utils.image.CancellationToken;
+import io.github.vatisteve.utils.image.EncodeOptions;
+import io.github.vatisteve.utils.image.OutputTooLargeException;
+import io.github.vatisteve.utils.image.ResampleFilter;
+import io.github.vatisteve.utils.image.TestImages;
+
+class SizeTargetEncoderTest {
+
+    private static final BufferedImage PHOTO = TestImages.photo(800, 600, 21);
+    private static final SizeTargetEncoder.Shrink SHRINK = new Resampler(ResampleFilter.BILINEAR)::resample;
+
+    @ParameterizedTest
+    @ValueSource(ints = {200_000, 60_000, 25_000, 12_000})
+    void jpegFitsTheBudget(int maxBytes) throws IOException {
+        EncodeOptions options = EncodeOptions.defaults().quality(0.9f).maxBytes(maxBytes).minQuality(0.05f);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int written = SizeTargetEncoder.encode(PHOTO, "jpg", options, output, SHRINK, CancellationToken.NONE);
+        assertEquals(output.size(), written);
+        assertTrue(written <= maxBytes, written + " > " + maxBytes);
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(output.toByteArray()));
+        assertNotNull(decoded);
+        assertEquals(800, decoded.getWidth());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {8_000, 3_000})
+    void stepDownShrinksUntilItFits(int maxBytes) throws IOException {
+        EncodeOptions options = EncodeOptions.defaults().maxBytes(maxBytes).minQuality(0.5f).stepDown(true);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int written = SizeTargetEncoder.encode(PHOTO, "jpg", options, output, SHRINK, CancellationToken.NONE);
+        assertTrue(written <= maxBytes, written + " > " + maxBytes);
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(output.toByteArray()));
+        assertTrue(decoded.getWidth() < 800);
+        assertEquals(4/3.0, (double) decoded.getWidth()/decoded.getHeight(), 0.05);
+    }
+
+    @Test
+    void pngFitsWithoutAQualitySearch() throws IOException {
+        BufferedImage flat = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        EncodeOptions options = EncodeOptions.defaults().maxBytes(20_000);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int written = SizeTargetEncoder.encode(flat, "png", options, output, SHRINK, CancellationToken.NONE);
+        assertTrue(written <= 20_000);
+        assertEquals(output.size(), written);
+    }
+
+    @Test
+    void tooSmallABudgetThrows() {
+        EncodeOptions options = EncodeOptions.defaults().maxBytes(2_000).minQuality(0.5f);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        OutputTooLargeException e = assertThrows(OutputTooLargeException.class, () ->
+                SizeTargetEncoder.encode(PHOTO, "jpg", options, output, SHRINK, CancellationToken.NONE));
+        assertEquals(2_000, e.getMaxBytes());
+        assertTrue(e.getBytes() > 2_000);
+        assertEquals(0, output.size());
+    }
+
+}